@@ -0,0 +1,140 @@
+package demo;
+
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+
+import demo.Schema.Column;
+import demo.Schema.Table;
+import demo.util.BulkLoadStats;
+import demo.util.MySqlTestUtil;
+import demo.util.PostgresTestUtil;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+/**
+ * Loads the same generated rows, one column of every type, into two tables of a
+ * fresh database, once with the backend's {@link TestUtil#bulkInsert} (DuckDB's
+ * Appender) and once with {@link TestUtil#batchInsert}, and prints rows/s of both
+ * with the driver version, so that the gap can be followed from release to
+ * release. The DuckDB driver has no executeBatch(), its batchInsert() falls back
+ * to one executeUpdate() per row. On PostgreSQL bulkInsert() is COPY ... FROM
+ * STDIN, the loaded table is then exported again with COPY ... TO STDOUT; the
+ * summary at the end has MB/s of both.
+ *
+ * Without a batch size, batchInsert() sweeps {@link TestUtil#BATCH_SIZE_SWEEP}
+ * on backends with batches, on MySQL for every combination of
+ * rewriteBatchedStatements and useServerPrepStmts, to find the batch size beyond
+ * which throughput no longer grows.
+ *
+ * <pre>
+ * mvn -Pjmh compile exec:java -Dexec.mainClass=demo.BulkLoadBenchmark -Dexec.args="[dbms] [rows] [batch size]"
+ * </pre>
+ */
+public final class BulkLoadBenchmark {
+    // where copyOut() writes to
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    public static void main(String[] args) throws Exception {
+        TestDbms dbms = args.length > 0 ? TestDbms.valueOf(args[0].toUpperCase()) : TestDbms.DUCKDB;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : TestUtil.BULK_INSERT_BATCH_SIZE;
+        TestUtil testUtil = TestUtilFactory.createIsolated(dbms, "bulk_load_benchmark");
+        WalkerInfo info = new WalkerInfo(dbms, testUtil);
+        info.setVerbose(false);
+        GlobalInfo.bind(info);
+        Connection con = testUtil.openConnection();
+        try {
+            DatabaseMetaData meta = con.getMetaData();
+            System.out.printf("%s %s, driver %s%n", meta.getDatabaseProductName(),
+                    meta.getDatabaseProductVersion(), meta.getDriverVersion());
+            Table bulk = allTypes("bulk_loaded");
+            Table batched = allTypes("batch_loaded");
+            testUtil.createTable(con, bulk.getName(), bulk.columnsToString());
+            testUtil.createTable(con, batched.getName(), batched.columnsToString());
+
+            long start = System.nanoTime();
+            ColumnValues[] values = bulk.generateValues(new Randomly(0), dbms, rows, 5);
+            System.out.printf("generated %d rows of %d columns in %.2fs%n", rows, values.length,
+                    (System.nanoTime() - start) / 1e9);
+
+            run("bulkInsert", () -> testUtil.bulkInsert(con, bulk.getName(), values));
+            if (args.length > 2 || dbms == TestDbms.DUCKDB) {
+                // DuckDB has no batches, every size would be row by row
+                run("batchInsert, " + batchSize + " rows per batch",
+                        () -> testUtil.batchInsert(con, batched.getName(), batchSize, values));
+            } else {
+                sweep(testUtil, con, batched, values);
+            }
+            if (testUtil instanceof PostgresTestUtil) {
+                run("copyOut", () -> ((PostgresTestUtil) testUtil).copyOut(con, bulk.getName(), DISCARD));
+            }
+            System.out.println(BulkLoadStats.summary());
+        } finally {
+            GlobalInfo.unbind();
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    private interface Load {
+        long run() throws Exception;
+    }
+
+    private static void run(String name, Load load) throws Exception {
+        long start = System.nanoTime();
+        long loaded = load.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s, %d rows: %.2fs, %.0f rows/s%n", name, loaded, seconds, loaded / seconds);
+    }
+
+    private static void sweep(TestUtil testUtil, Connection con, Table table, ColumnValues[] values)
+            throws Exception {
+        if (!(testUtil instanceof MySqlTestUtil)) {
+            sweep(testUtil, con, table, values, "");
+            return;
+        }
+        for (boolean rewrite : new boolean[] { false, true }) {
+            for (boolean serverPrepared : new boolean[] { false, true }) {
+                Connection batchCon = ((MySqlTestUtil) testUtil).openBatchConnection(rewrite, serverPrepared);
+                try {
+                    sweep(testUtil, batchCon, table, values,
+                            ", rewriteBatchedStatements=" + rewrite + ", useServerPrepStmts=" + serverPrepared);
+                } finally {
+                    testUtil.closeConnection(batchCon);
+                }
+            }
+        }
+    }
+
+    private static void sweep(TestUtil testUtil, Connection con, Table table, ColumnValues[] values,
+            String settings) throws Exception {
+        for (int batchSize : TestUtil.BATCH_SIZE_SWEEP) {
+            testUtil.statementCache(con).statement().executeUpdate("DELETE FROM " + table.getName());
+            run("batchInsert, " + batchSize + " rows per batch" + settings,
+                    () -> testUtil.batchInsert(con, table.getName(), batchSize, values));
+        }
+    }
+
+    private static Table allTypes(String name) {
+        List<Column> columns = new ArrayList<>();
+        for (DataType type : DataType.values()) {
+            columns.add(new Column("c_" + type.name().toLowerCase(), type));
+        }
+        return new Table(name, columns);
+    }
+
+    private BulkLoadBenchmark() {
+    }
+}
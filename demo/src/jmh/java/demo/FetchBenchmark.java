@@ -0,0 +1,52 @@
+package demo;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import demo.util.FetchMode;
+import demo.util.FetchStats;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+/**
+ * Reads the same large result once in every fetch mode of the backend's driver
+ * and prints the time to the first row and how far the used heap grew while
+ * reading. A mode that grows with the result, while the others stay flat, reads
+ * the whole result before the first row.
+ *
+ * <pre>
+ * mvn -Pjmh compile exec:java -Dexec.mainClass=demo.FetchBenchmark -Dexec.args="[dbms] [rows] [width] [fetch size]"
+ * </pre>
+ */
+public final class FetchBenchmark {
+    public static void main(String[] args) throws Exception {
+        TestDbms dbms = args.length > 0 ? TestDbms.valueOf(args[0].toUpperCase()) : TestDbms.DUCKDB;
+        long rows = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int fetchSize = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        TestUtil testUtil = TestUtilFactory.createIsolated(dbms, "fetch_benchmark");
+        Connection con = testUtil.openConnection();
+        try {
+            DatabaseMetaData meta = con.getMetaData();
+            System.out.printf("%s %s, driver %s%n", meta.getDatabaseProductName(),
+                    meta.getDatabaseProductVersion(), meta.getDriverVersion());
+            String sql = testUtil.seriesQuery(rows, width);
+            for (FetchMode mode : testUtil.fetchModes()) {
+                // the heap of the previous mode is garbage by now
+                System.gc();
+                long start = System.nanoTime();
+                long read = testUtil.streamQuery(con, sql, mode, fetchSize);
+                System.out.printf("%s: %d rows in %.2fs, %.1fms to first row, peak heap +%.1fMB%n", mode, read,
+                        (System.nanoTime() - start) / 1e9, FetchStats.meanMillisToFirstRow(mode),
+                        FetchStats.getPeakHeapBytes(mode) / 1e6);
+            }
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    private FetchBenchmark() {
+    }
+}
@@ -0,0 +1,104 @@
+package demo;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import demo.util.TestDbms;
+import demo.util.TestUtilFactory;
+
+/**
+ * The draws a walk makes most, bounded integers and doubles, with the generator of
+ * Randomly and with the one it replaced: a java.util.Random in a ThreadLocal that
+ * built a LongStream for every bounded number. "walker" draws through the static
+ * methods with a walker bound, as actions do, "instance" from a Randomly directly.
+ * Run with -prof gc to see the allocation rate of each.
+ *
+ * <pre>
+ * mvn -Pjmh compile exec:exec -Dexec.executable=java -Dexec.args="-cp %classpath org.openjdk.jmh.Main RandomlyBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RandomlyBenchmark {
+    /**
+     * How Randomly drew numbers before.
+     */
+    static final class Legacy {
+        private static final ThreadLocal<Random> THREAD_RANDOM = new ThreadLocal<>();
+
+        static void seed(long seed) {
+            THREAD_RANDOM.set(new Random(seed));
+        }
+
+        static long getNextLong(long lower, long upper) {
+            if (lower == upper) {
+                return lower;
+            }
+            return THREAD_RANDOM.get().longs(lower, upper).findFirst().getAsLong();
+        }
+
+        static double getUniformDouble() {
+            return THREAD_RANDOM.get().nextDouble();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Walk {
+        Randomly random;
+
+        @Setup
+        public void setup() {
+            WalkerInfo info = new WalkerInfo(TestDbms.DUCKDB, TestUtilFactory.create(TestDbms.DUCKDB));
+            GlobalInfo.bind(info);
+            info.getRandom().setSeed(42);
+            random = new Randomly(42);
+            Legacy.seed(42);
+        }
+    }
+
+    @Benchmark
+    public long legacyBoundedLong(Walk walk) {
+        return Legacy.getNextLong(0, 100);
+    }
+
+    @Benchmark
+    public long walkerBoundedLong(Walk walk) {
+        return Randomly.getNotCachedInteger(0, 100);
+    }
+
+    @Benchmark
+    public long instanceBoundedLong(Walk walk) {
+        return walk.random.nextLong(0, 100);
+    }
+
+    @Benchmark
+    public double legacyUniformDouble(Walk walk) {
+        return Legacy.getUniformDouble();
+    }
+
+    @Benchmark
+    public double walkerUniformDouble(Walk walk) {
+        return Randomly.getUniformDouble();
+    }
+
+    @Benchmark
+    public double instanceUniformDouble(Walk walk) {
+        return walk.random.nextDouble();
+    }
+}
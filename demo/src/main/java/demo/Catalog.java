@@ -0,0 +1,318 @@
+package demo;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import demo.Schema.Column;
+import demo.Schema.Table;
+
+/**
+ * The tables and schemas a walker created in its database. Tables and schemas
+ * belong to the database, not to the connection that created them, so a table
+ * dropped on one connection is gone for all of them.
+ *
+ * Successful DDL updates the catalog right away. Every reconcileInterval picks of
+ * a table or schema the catalog is also reconciled with what the database
+ * reports through {@link DatabaseMetaData}, which catches tables that another
+ * walker dropped, a rollback undid or DROP ... CASCADE took along. Reconciling
+ * first compares a fingerprint, count and hash of the names, with the one
+ * kept for the catalog and only reads columns of tables that appeared when the
+ * fingerprints differ. Only tables and schemas with generated names (table_N,
+ * schema_N) are mirrored.
+ *
+ * Reconciling is off by default (catalog.reconcileInterval=0): a walk that imports
+ * what earlier walks left in the database no longer depends on its seed alone and
+ * cannot be replayed on a fresh database.
+ *
+ * Picking is uniform and takes constant time, so is adding and removing.
+ */
+public final class Catalog {
+    public static final int DEFAULT_RECONCILE_INTERVAL = Integer.getInteger("catalog.reconcileInterval", 0);
+
+    private static final String[] TABLE_TYPES = { "TABLE", "BASE TABLE" };
+
+    private final ObjectSet<Table> tables = new ObjectSet<>();
+    private final ObjectSet<String> schemas = new ObjectSet<>();
+    private final NameAllocator tableNames = new NameAllocator("table_");
+    private final NameAllocator schemaNames = new NameAllocator("schema_");
+    private int reconcileInterval = DEFAULT_RECONCILE_INTERVAL;
+    private int picksSinceReconcile = 0;
+    private long reconciles = 0;
+    private long refreshes = 0;
+
+    /**
+     * Objects by lower case name in a dense list, with a fingerprint of the names.
+     */
+    private static final class ObjectSet<T> {
+        final List<T> objects = new ArrayList<>();
+        final List<String> keys = new ArrayList<>();
+        final Map<String, Integer> index = new HashMap<>();
+        long hashSum = 0;
+
+        boolean add(String name, T object) {
+            String key = key(name);
+            Integer i = index.get(key);
+            if (i != null) {
+                objects.set(i, object);
+                return false;
+            }
+            index.put(key, objects.size());
+            objects.add(object);
+            keys.add(key);
+            hashSum += key.hashCode();
+            return true;
+        }
+
+        @Nullable
+        T remove(String name) {
+            String key = key(name);
+            Integer i = index.remove(key);
+            if (i == null) {
+                return null;
+            }
+            T removed = objects.get(i);
+            int last = objects.size() - 1;
+            if (i != last) {
+                objects.set(i, objects.get(last));
+                keys.set(i, keys.get(last));
+                index.put(keys.get(i), i);
+            }
+            objects.remove(last);
+            keys.remove(last);
+            hashSum -= key.hashCode();
+            return removed;
+        }
+
+        @Nullable
+        T get(String name) {
+            Integer i = index.get(key(name));
+            return i == null ? null : objects.get(i);
+        }
+
+        @Nullable
+        T pick() {
+            return objects.isEmpty() ? null : objects.get((int) Randomly.getNotCachedInteger(0, objects.size()));
+        }
+
+        void clear() {
+            objects.clear();
+            keys.clear();
+            index.clear();
+            hashSum = 0;
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public void addTable(Table table) {
+        tables.add(table.getName(), table);
+        tableNames.add(table.getName());
+    }
+
+    public void removeTable(String name) {
+        if (tables.remove(name) != null) {
+            tableNames.remove(name);
+        }
+    }
+
+    @Nullable
+    public Table getTable(String name) {
+        return tables.get(name);
+    }
+
+    public List<Table> getTables() {
+        return Collections.unmodifiableList(tables.objects);
+    }
+
+    public NameAllocator getTableNames() {
+        return tableNames;
+    }
+
+    /**
+     * @param con connection the table is for, the catalog is reconciled on it if it
+     *            is time to
+     * @return a table picked uniformly at random, null if there is none
+     */
+    @Nullable
+    public Table pickTable(@Nullable Connection con) {
+        maybeReconcile(con);
+        return tables.pick();
+    }
+
+    public void addSchema(String schema) {
+        schemas.add(schema, schema);
+        schemaNames.add(schema);
+    }
+
+    public void removeSchema(String schema) {
+        if (schemas.remove(schema) != null) {
+            schemaNames.remove(schema);
+        }
+    }
+
+    public List<String> getSchemas() {
+        return Collections.unmodifiableList(schemas.objects);
+    }
+
+    public NameAllocator getSchemaNames() {
+        return schemaNames;
+    }
+
+    /**
+     * @see #pickTable(Connection)
+     */
+    @Nullable
+    public String pickSchema(@Nullable Connection con) {
+        maybeReconcile(con);
+        return schemas.pick();
+    }
+
+    public int getReconcileInterval() {
+        return reconcileInterval;
+    }
+
+    /**
+     * @param reconcileInterval picks between two reconciliations, 0 to never
+     *                          reconcile
+     */
+    public void setReconcileInterval(int reconcileInterval) {
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * @return number of reconciliations so far
+     */
+    public long getReconciles() {
+        return reconciles;
+    }
+
+    /**
+     * @return number of reconciliations that found the catalog out of date
+     */
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    private void maybeReconcile(@Nullable Connection con) {
+        if (con == null || reconcileInterval <= 0 || ++picksSinceReconcile < reconcileInterval) {
+            return;
+        }
+        picksSinceReconcile = 0;
+        try {
+            reconcile(con);
+        } catch (SQLException e) {
+            // e.g. a closed connection, try again next time
+        }
+    }
+
+    /**
+     * Bring the catalog in line with the tables and schemas the database has.
+     *
+     * @return true if the catalog was out of date
+     */
+    public boolean reconcile(Connection con) throws SQLException {
+        reconciles++;
+        DatabaseMetaData meta = con.getMetaData();
+        // MySQL has databases where others have schemas
+        boolean catalogs = !meta.supportsSchemasInTableDefinitions();
+        // DuckDB rejects any catalog, the schema is enough where there are schemas
+        String catalog = catalogs ? con.getCatalog() : null;
+        String schema = catalogs ? null : con.getSchema();
+
+        Set<String> tableKeys = new HashSet<>();
+        long tableHash = 0;
+        try (ResultSet rs = meta.getTables(catalog, schema, "%", TABLE_TYPES)) {
+            while (rs.next()) {
+                String name = rs.getString("TABLE_NAME");
+                if (tableNames.isGenerated(name) && tableKeys.add(key(name))) {
+                    tableHash += key(name).hashCode();
+                }
+            }
+        }
+        Set<String> schemaKeys = new HashSet<>();
+        long schemaHash = 0;
+        try (ResultSet rs = catalogs ? meta.getCatalogs() : meta.getSchemas()) {
+            while (rs.next()) {
+                String name = rs.getString(catalogs ? "TABLE_CAT" : "TABLE_SCHEM");
+                if (schemaNames.isGenerated(name) && schemaKeys.add(key(name))) {
+                    schemaHash += key(name).hashCode();
+                }
+            }
+        }
+        boolean tablesChanged = tableKeys.size() != tables.objects.size() || tableHash != tables.hashSum;
+        boolean schemasChanged = schemaKeys.size() != schemas.objects.size() || schemaHash != schemas.hashSum;
+        if (!tablesChanged && !schemasChanged) {
+            return false;
+        }
+        refreshes++;
+        if (tablesChanged) {
+            for (String key : new ArrayList<>(tables.keys)) {
+                if (!tableKeys.contains(key)) {
+                    removeTable(key);
+                }
+            }
+            for (String key : tableKeys) {
+                if (tables.get(key) == null) {
+                    addTable(readTable(meta, catalog, schema, key));
+                }
+            }
+        }
+        if (schemasChanged) {
+            for (String key : new ArrayList<>(schemas.keys)) {
+                if (!schemaKeys.contains(key)) {
+                    removeSchema(key);
+                }
+            }
+            for (String key : schemaKeys) {
+                if (schemas.get(key) == null) {
+                    addSchema(key);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Table readTable(DatabaseMetaData meta, @Nullable String catalog, @Nullable String schema,
+            String name) throws SQLException {
+        List<Column> columns = new ArrayList<>();
+        // the name as the database stores it, e.g. upper case
+        String stored = name;
+        try (ResultSet rs = meta.getTables(catalog, schema, name, TABLE_TYPES)) {
+            if (!rs.next()) {
+                try (ResultSet upper = meta.getTables(catalog, schema, name.toUpperCase(Locale.ROOT), TABLE_TYPES)) {
+                    if (upper.next()) {
+                        stored = upper.getString("TABLE_NAME");
+                    }
+                }
+            }
+        }
+        try (ResultSet rs = meta.getColumns(catalog, schema, stored, "%")) {
+            while (rs.next()) {
+                columns.add(new Column(rs.getString("COLUMN_NAME"), DataType.fromSqlType(rs.getInt("DATA_TYPE"))));
+            }
+        }
+        return new Table(name, columns);
+    }
+
+    public void clear() {
+        tables.clear();
+        schemas.clear();
+        tableNames.clear();
+        schemaNames.clear();
+        picksSinceReconcile = 0;
+    }
+}
@@ -0,0 +1,315 @@
+package demo;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import javax.annotation.Nullable;
+
+import demo.util.TestDbms;
+
+/**
+ * The values of one column for a number of rows, in a primitive array of the
+ * column's type so that millions of them take no boxing:
+ *
+ * <ul>
+ * <li>INT: int[]</li>
+ * <li>BOOLEAN: boolean[]</li>
+ * <li>FLOAT: float[]</li>
+ * <li>DOUBLE: double[]</li>
+ * <li>TEXT, VARCHAR: String[]</li>
+ * <li>DATE: int[] of days since 1970-01-01</li>
+ * <li>DATETIME: long[] of microseconds since 1970-01-01 00:00:00, without time
+ * zone</li>
+ * <li>TIME: long[] of microseconds since midnight</li>
+ * </ul>
+ *
+ * Filled by a {@link ValueGenerator}; a row can be NULL.
+ */
+public final class ColumnValues {
+    private final DataType type;
+    private final int size;
+    // the array for type, the others stay null
+    @Nullable
+    private int[] ints;
+    @Nullable
+    private long[] longs;
+    @Nullable
+    private float[] floats;
+    @Nullable
+    private double[] doubles;
+    @Nullable
+    private boolean[] booleans;
+    @Nullable
+    private String[] strings;
+    private final boolean[] nulls;
+
+    public ColumnValues(DataType type, int size) {
+        this.type = type;
+        this.size = size;
+        this.nulls = new boolean[size];
+        switch (type) {
+            case INT:
+            case DATE:
+                ints = new int[size];
+                break;
+            case DATETIME:
+            case TIME:
+                longs = new long[size];
+                break;
+            case FLOAT:
+                floats = new float[size];
+                break;
+            case DOUBLE:
+                doubles = new double[size];
+                break;
+            case BOOLEAN:
+                booleans = new boolean[size];
+                break;
+            case TEXT:
+            case VARCHAR:
+                strings = new String[size];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    public DataType getType() {
+        return type;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the values of an INT or DATE column
+     */
+    public int[] ints() {
+        return check(ints);
+    }
+
+    /**
+     * @return the values of a DATETIME or TIME column
+     */
+    public long[] longs() {
+        return check(longs);
+    }
+
+    public float[] floats() {
+        return check(floats);
+    }
+
+    public double[] doubles() {
+        return check(doubles);
+    }
+
+    public boolean[] booleans() {
+        return check(booleans);
+    }
+
+    /**
+     * @return the values of a TEXT or VARCHAR column
+     */
+    public String[] strings() {
+        return check(strings);
+    }
+
+    public boolean[] nulls() {
+        return nulls;
+    }
+
+    public boolean isNull(int row) {
+        return nulls[row];
+    }
+
+    private <T> T check(@Nullable T array) {
+        if (array == null) {
+            throw new IllegalStateException("not a column of that type: " + type.name());
+        }
+        return array;
+    }
+
+    /**
+     * Set parameter of ps to the value of row.
+     */
+    public void bind(PreparedStatement ps, int parameter, int row) throws SQLException {
+        if (nulls[row]) {
+            ps.setNull(parameter, sqlType(type));
+            return;
+        }
+        switch (type) {
+            case INT:
+                ps.setInt(parameter, ints[row]);
+                break;
+            case BOOLEAN:
+                ps.setBoolean(parameter, booleans[row]);
+                break;
+            case FLOAT:
+                ps.setFloat(parameter, floats[row]);
+                break;
+            case DOUBLE:
+                ps.setDouble(parameter, doubles[row]);
+                break;
+            case TEXT:
+            case VARCHAR:
+                ps.setString(parameter, strings[row]);
+                break;
+            case DATE:
+                try {
+                    ps.setDate(parameter, Date.valueOf(toLocalDate(ints[row])));
+                } catch (SQLFeatureNotSupportedException e) {
+                    // DuckDB, which casts the text to the column type
+                    ps.setString(parameter, toText(row));
+                }
+                break;
+            case DATETIME:
+                ps.setTimestamp(parameter, Timestamp.valueOf(toLocalDateTime(longs[row])));
+                break;
+            case TIME:
+                try {
+                    // java.sql.Time has no fraction of a second
+                    ps.setTime(parameter, Time.valueOf(toLocalTime(longs[row])));
+                } catch (SQLFeatureNotSupportedException e) {
+                    ps.setString(parameter, toText(row));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    /**
+     * @return the value of row as a SQL literal of testDbms, e.g. for a statement
+     *         without parameters
+     */
+    public String toLiteral(int row, TestDbms testDbms) {
+        if (nulls[row]) {
+            return "NULL";
+        }
+        switch (type) {
+            case INT:
+                return Integer.toString(ints[row]);
+            case BOOLEAN:
+                return booleans[row] ? "TRUE" : "FALSE";
+            case FLOAT:
+                return floatLiteral(floats[row], Float.toString(floats[row]));
+            case DOUBLE:
+                return floatLiteral(doubles[row], Double.toString(doubles[row]));
+            case TEXT:
+            case VARCHAR:
+                return stringLiteral(strings[row], testDbms);
+            case DATE:
+                return "DATE '" + toText(row) + "'";
+            case DATETIME:
+                return "TIMESTAMP '" + toText(row) + "'";
+            case TIME:
+                return "TIME '" + toText(row) + "'";
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    /**
+     * @return the value of row as text a backend casts to the column type, e.g.
+     *         2000-01-01 12:00:00 for a DATETIME; null for NULL
+     */
+    @Nullable
+    public String toText(int row) {
+        if (nulls[row]) {
+            return null;
+        }
+        switch (type) {
+            case INT:
+                return Integer.toString(ints[row]);
+            case BOOLEAN:
+                return Boolean.toString(booleans[row]);
+            case FLOAT:
+                return Float.toString(floats[row]);
+            case DOUBLE:
+                return Double.toString(doubles[row]);
+            case TEXT:
+            case VARCHAR:
+                return strings[row];
+            case DATE:
+                return toLocalDate(ints[row]).toString();
+            case DATETIME:
+                return Timestamp.valueOf(toLocalDateTime(longs[row])).toString();
+            case TIME:
+                return timeString(longs[row]);
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    // MySQL takes \ as an escape character in a string literal, unless sql_mode
+    // has NO_BACKSLASH_ESCAPES
+    private static String stringLiteral(String s, TestDbms testDbms) {
+        if (testDbms == TestDbms.MYSQL) {
+            s = s.replace("\\", "\\\\");
+        }
+        return "'" + s.replace("'", "''") + "'";
+    }
+
+    private static String floatLiteral(double value, String digits) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "'" + digits + "'";
+        }
+        return digits;
+    }
+
+    public static LocalDate toLocalDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMicros, 1_000_000L),
+                (int) Math.floorMod(epochMicros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    public static LocalTime toLocalTime(long microOfDay) {
+        return LocalTime.ofNanoOfDay(microOfDay * 1000);
+    }
+
+    // with seconds, LocalTime.toString() leaves out :00
+    private static String timeString(long microOfDay) {
+        return DateTimeFormatter.ISO_LOCAL_TIME.format(toLocalTime(microOfDay));
+    }
+
+    /**
+     * @return the java.sql.Types constant of type
+     */
+    public static int sqlType(DataType type) {
+        switch (type) {
+            case INT:
+                return Types.INTEGER;
+            case BOOLEAN:
+                return Types.BOOLEAN;
+            case FLOAT:
+                return Types.REAL;
+            case DOUBLE:
+                return Types.DOUBLE;
+            case TEXT:
+            case VARCHAR:
+                return Types.VARCHAR;
+            case DATE:
+                return Types.DATE;
+            case DATETIME:
+                return Types.TIMESTAMP;
+            case TIME:
+                return Types.TIME;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package demo;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * The open connections of a walker by role. Adding, removing and picking a
+ * connection at random, from all roles or from all but replication connections,
+ * take constant time however many connections a walk opens: every role keeps its
+ * connections in a dense array, a removed connection is replaced by the last one
+ * of its role, and a pick draws one index into the roles in the order BASIC,
+ * READ_ONLY, PRIVILEGED, REPLICATION.
+ *
+ * Owned by one {@link WalkerInfo} and confined to its thread like the rest of it;
+ * concurrent walkers each have their own registry.
+ */
+public final class ConnectionRegistry {
+    public enum Role {
+        BASIC, READ_ONLY, PRIVILEGED, REPLICATION
+    }
+
+    private static final Role[] ROLES = Role.values();
+
+    private static final class Entry {
+        final Connection con;
+        final Role role;
+        // position in the array of its role
+        int index;
+        // for a replication connection, the connection it replicates and the position
+        // in its list of replicas
+        @Nullable
+        Connection origin;
+        int originIndex;
+        // for any other connection, its replication connections
+        @Nullable
+        List<Connection> replicas;
+
+        Entry(Connection con, Role role) {
+            this.con = con;
+            this.role = role;
+        }
+    }
+
+    private final Connection[][] connections = new Connection[ROLES.length][];
+    private final int[] sizes = new int[ROLES.length];
+    private final IdentityHashMap<Connection, Entry> entries = new IdentityHashMap<>();
+
+    public ConnectionRegistry() {
+        for (int i = 0; i < ROLES.length; i++) {
+            connections[i] = new Connection[4];
+        }
+    }
+
+    /**
+     * Register con in role; a connection that is already registered moves to role.
+     */
+    public void add(Connection con, Role role) {
+        if (role == Role.REPLICATION) {
+            throw new IllegalArgumentException("register replication connections with addReplication()");
+        }
+        if (role == Role.PRIVILEGED && sizes[Role.PRIVILEGED.ordinal()] > 0) {
+            // there is only one privileged connection at a time
+            remove(connections[Role.PRIVILEGED.ordinal()][0]);
+        }
+        put(con, role);
+    }
+
+    /**
+     * Register replication as a replication connection of origin.
+     */
+    public void addReplication(Connection origin, Connection replication) {
+        Entry entry = put(replication, Role.REPLICATION);
+        Entry originEntry = entries.get(origin);
+        if (originEntry != null && originEntry.role != Role.REPLICATION) {
+            if (originEntry.replicas == null) {
+                originEntry.replicas = new ArrayList<>(2);
+            }
+            entry.origin = origin;
+            entry.originIndex = originEntry.replicas.size();
+            originEntry.replicas.add(replication);
+        }
+    }
+
+    private Entry put(Connection con, Role role) {
+        remove(con);
+        int r = role.ordinal();
+        if (sizes[r] == connections[r].length) {
+            connections[r] = Arrays.copyOf(connections[r], sizes[r] * 2);
+        }
+        Entry entry = new Entry(con, role);
+        entry.index = sizes[r];
+        connections[r][sizes[r]++] = con;
+        entries.put(con, entry);
+        return entry;
+    }
+
+    /**
+     * Forget con. Its replication connections stay registered as replication
+     * connections of no connection.
+     */
+    public void remove(Connection con) {
+        Entry entry = entries.remove(con);
+        if (entry == null) {
+            return;
+        }
+        int r = entry.role.ordinal();
+        Connection last = connections[r][--sizes[r]];
+        connections[r][sizes[r]] = null;
+        if (last != con) {
+            connections[r][entry.index] = last;
+            entries.get(last).index = entry.index;
+        }
+        if (entry.origin != null) {
+            List<Connection> replicas = entries.get(entry.origin).replicas;
+            Connection lastReplica = replicas.remove(replicas.size() - 1);
+            if (lastReplica != con) {
+                replicas.set(entry.originIndex, lastReplica);
+                entries.get(lastReplica).originIndex = entry.originIndex;
+            }
+        }
+        if (entry.replicas != null) {
+            for (Connection replica : entry.replicas) {
+                entries.get(replica).origin = null;
+            }
+        }
+    }
+
+    public boolean contains(Connection con) {
+        return entries.containsKey(con);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int size(Role role) {
+        return sizes[role.ordinal()];
+    }
+
+    /**
+     * @return a connection picked uniformly at random from all roles, null if there
+     *         is none
+     */
+    @Nullable
+    public Connection pickAny() {
+        return pick(ROLES.length);
+    }
+
+    /**
+     * @return a connection that is not a replication connection itself, picked
+     *         uniformly at random, null if there is none
+     */
+    @Nullable
+    public Connection pickForReplication() {
+        return pick(Role.REPLICATION.ordinal());
+    }
+
+    @Nullable
+    private Connection pick(int roles) {
+        int total = 0;
+        for (int r = 0; r < roles; r++) {
+            total += sizes[r];
+        }
+        if (total == 0) {
+            return null;
+        }
+        int i = (int) Randomly.getNotCachedInteger(0, total);
+        for (int r = 0;; r++) {
+            if (i < sizes[r]) {
+                return connections[r][i];
+            }
+            i -= sizes[r];
+        }
+    }
+
+    /**
+     * @return the connections of role, empty if there are none
+     */
+    public List<Connection> get(Role role) {
+        int r = role.ordinal();
+        return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(connections[r], sizes[r])));
+    }
+
+    /**
+     * @return the replication connections of origin, null if it has none
+     */
+    @Nullable
+    public List<Connection> getReplicas(Connection origin) {
+        Entry entry = entries.get(origin);
+        return entry == null || entry.replicas == null || entry.replicas.isEmpty() ? null
+                : Collections.unmodifiableList(entry.replicas);
+    }
+
+    /**
+     * @return all connections in the order of their roles
+     */
+    public List<Connection> all() {
+        List<Connection> all = new ArrayList<>(entries.size());
+        for (int r = 0; r < ROLES.length; r++) {
+            all.addAll(Arrays.asList(connections[r]).subList(0, sizes[r]));
+        }
+        return all;
+    }
+
+    public void clear() {
+        for (int r = 0; r < ROLES.length; r++) {
+            Arrays.fill(connections[r], 0, sizes[r], null);
+            sizes[r] = 0;
+        }
+        entries.clear();
+    }
+}
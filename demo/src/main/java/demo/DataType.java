@@ -1,5 +1,7 @@
 package demo;
 
+import java.sql.Types;
+
 import demo.util.TestDbms;
 
 public enum DataType {
@@ -9,22 +11,23 @@ public enum DataType {
      * Handle nuances in data types naming between databases.
      */
     public String toString() throws IllegalArgumentException {
+        TestDbms testDbms = GlobalInfo.getTestDbms();
         switch (this) {
             case INT:
                 return "INT";
             case BOOLEAN:
                 return "BOOLEAN";
             case FLOAT:
-                if (GlobalInfo.testDbms == TestDbms.POSTGRES ||
-                        GlobalInfo.testDbms == TestDbms.DUCKDB) {
+                if (testDbms == TestDbms.POSTGRES ||
+                        testDbms == TestDbms.DUCKDB) {
                     return "REAL";
                 }
                 return "FLOAT";
             case DOUBLE:
-                if (GlobalInfo.testDbms == TestDbms.POSTGRES) {
+                if (testDbms == TestDbms.POSTGRES) {
                     return "DOUBLE PRECISION";
                 }
-                if (GlobalInfo.testDbms == TestDbms.MYSQL) {
+                if (testDbms == TestDbms.MYSQL) {
                     return "DOUBLE(10,2)";
                 }
                 return "DOUBLE";
@@ -33,15 +36,15 @@ public enum DataType {
             case DATE:
                 return "DATE";
             case DATETIME:
-                if (GlobalInfo.testDbms == TestDbms.POSTGRES ||
-                        GlobalInfo.testDbms == TestDbms.DUCKDB) {
+                if (testDbms == TestDbms.POSTGRES ||
+                        testDbms == TestDbms.DUCKDB) {
                     return "TIMESTAMP";
                 }
                 return "DATETIME";
             case TIME:
                 return "TIME";
             case VARCHAR:
-                if (GlobalInfo.testDbms == TestDbms.MYSQL) {
+                if (testDbms == TestDbms.MYSQL) {
                     return "VARCHAR(255)";
                 }
                 return "VARCHAR";
@@ -50,6 +53,51 @@ public enum DataType {
         }
     }
 
+    /**
+     * @return the generator of values of this type for the dbms of the current
+     *         walker
+     */
+    public ValueGenerator getValueGenerator() {
+        return ValueGenerator.of(this, GlobalInfo.getTestDbms());
+    }
+
+    /**
+     * @return the type of a column of java.sql.Types type sqlType, VARCHAR for the
+     *         types without a DataType of their own
+     */
+    public static DataType fromSqlType(int sqlType) {
+        switch (sqlType) {
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+            case Types.BIGINT:
+                return INT;
+            case Types.BOOLEAN:
+            case Types.BIT:
+                return BOOLEAN;
+            case Types.REAL:
+            case Types.FLOAT:
+                return FLOAT;
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return DOUBLE;
+            case Types.LONGVARCHAR:
+            case Types.CLOB:
+                return TEXT;
+            case Types.DATE:
+                return DATE;
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return DATETIME;
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+                return TIME;
+            default:
+                return VARCHAR;
+        }
+    }
+
     public static DataType getRandomDataType() {
         return Randomly.fromOptions(DataType.values());
     }
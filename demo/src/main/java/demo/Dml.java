@@ -0,0 +1,247 @@
+package demo;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import demo.Schema.Column;
+import demo.Schema.Table;
+import demo.util.TestDbms;
+
+/**
+ * An INSERT, UPDATE, DELETE or SELECT on a {@link Table} with values of the
+ * column types: the SQL with a ? for every value and the values, so that it runs
+ * as a PreparedStatement or, with the values inlined as literals, as a plain
+ * Statement.
+ *
+ * The generators draw everything from the Randomly passed in, a walk generates
+ * the same statements for the same seed.
+ */
+public final class Dml {
+    public enum Kind {
+        INSERT, UPDATE, DELETE, SELECT
+    }
+
+    // most rows of one INSERT
+    private static final int MAX_INSERT_ROWS = 10;
+    private static final int NULL_PERCENT = 10;
+    private static final String[] COMPARISONS = { "=", "<>", "<", "<=", ">", ">=" };
+
+    private final Kind kind;
+    // the dialect of the literals
+    private final TestDbms testDbms;
+    // the SQL around the parameters, one more than there are parameters
+    private final String[] fragments;
+    private final ColumnValues[] parameterValues;
+    private final int[] parameterRows;
+    // the columns of a SELECT, empty otherwise
+    private final DataType[] resultTypes;
+
+    private Dml(Kind kind, TestDbms testDbms, Builder builder, DataType[] resultTypes) {
+        this.kind = kind;
+        this.testDbms = testDbms;
+        builder.fragments.add(builder.sql.toString());
+        this.fragments = builder.fragments.toArray(new String[0]);
+        this.parameterValues = builder.values.toArray(new ColumnValues[0]);
+        this.parameterRows = new int[builder.rows.size()];
+        for (int i = 0; i < parameterRows.length; i++) {
+            parameterRows[i] = builder.rows.get(i);
+        }
+        this.resultTypes = resultTypes;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the SQL with a ? for every value
+     */
+    public String getSql() {
+        return String.join("?", fragments);
+    }
+
+    /**
+     * @return the SQL with the values as literals of the dbms it was generated
+     *         for, for a plain Statement
+     */
+    public String getLiteralSql() {
+        StringBuilder sb = new StringBuilder(fragments[0]);
+        for (int i = 0; i < parameterValues.length; i++) {
+            sb.append(parameterValues[i].toLiteral(parameterRows[i], testDbms)).append(fragments[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    public int getParameterCount() {
+        return parameterValues.length;
+    }
+
+    /**
+     * @return the types of the columns a SELECT returns, in order
+     */
+    public DataType[] getResultTypes() {
+        return resultTypes;
+    }
+
+    /**
+     * Set the parameters of ps, prepared from {@link #getSql()}, to the values.
+     */
+    public void bind(PreparedStatement ps) throws SQLException {
+        for (int i = 0; i < parameterValues.length; i++) {
+            parameterValues[i].bind(ps, i + 1, parameterRows[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getLiteralSql();
+    }
+
+    public static Dml generate(Kind kind, Table table, Randomly random, TestDbms testDbms) {
+        switch (kind) {
+            case INSERT:
+                return insert(table, random, testDbms);
+            case UPDATE:
+                return update(table, random, testDbms);
+            case DELETE:
+                return delete(table, random, testDbms);
+            case SELECT:
+                return select(table, random, testDbms);
+            default:
+                throw new IllegalArgumentException("Unknown kind: " + kind);
+        }
+    }
+
+    /**
+     * INSERT INTO t (c0, c1) VALUES (?, ?), (?, ?), ... with up to 10 rows.
+     */
+    public static Dml insert(Table table, Randomly random, TestDbms testDbms) {
+        List<Column> columns = table.getColumns();
+        int rows = random.nextInt(1, MAX_INSERT_ROWS + 1);
+        ColumnValues[] values = table.generateValues(random, testDbms, rows, NULL_PERCENT);
+        Builder b = new Builder("INSERT INTO " + table.getName() + " (");
+        for (int c = 0; c < columns.size(); c++) {
+            b.sql(c == 0 ? "" : ", ").sql(columns.get(c).getName());
+        }
+        b.sql(") VALUES ");
+        for (int row = 0; row < rows; row++) {
+            b.sql(row == 0 ? "(" : ", (");
+            for (int c = 0; c < values.length; c++) {
+                b.sql(c == 0 ? "" : ", ").parameter(values[c], row);
+            }
+            b.sql(")");
+        }
+        return new Dml(Kind.INSERT, testDbms, b, new DataType[0]);
+    }
+
+    /**
+     * UPDATE t SET c0 = ?, ... [WHERE ...] of some of the columns.
+     */
+    public static Dml update(Table table, Randomly random, TestDbms testDbms) {
+        List<Column> columns = table.getColumns();
+        Builder b = new Builder("UPDATE " + table.getName() + " SET ");
+        // at least one column, from a random one on
+        int first = random.nextInt(0, columns.size());
+        boolean any = false;
+        for (int c = first; c < columns.size(); c++) {
+            if (c == first || random.nextBoolean()) {
+                Column column = columns.get(c);
+                b.sql(any ? ", " : "").sql(column.getName()).sql(" = ").parameter(value(column, random, testDbms), 0);
+                any = true;
+            }
+        }
+        where(b, table, random, testDbms);
+        return new Dml(Kind.UPDATE, testDbms, b, new DataType[0]);
+    }
+
+    /**
+     * DELETE FROM t [WHERE ...]
+     */
+    public static Dml delete(Table table, Randomly random, TestDbms testDbms) {
+        Builder b = new Builder("DELETE FROM " + table.getName());
+        where(b, table, random, testDbms);
+        return new Dml(Kind.DELETE, testDbms, b, new DataType[0]);
+    }
+
+    /**
+     * SELECT c0, ... FROM t [WHERE ...] [ORDER BY c] [LIMIT n] of some of the
+     * columns.
+     */
+    public static Dml select(Table table, Randomly random, TestDbms testDbms) {
+        List<Column> columns = table.getColumns();
+        List<DataType> resultTypes = new ArrayList<>();
+        Builder b = new Builder("SELECT ");
+        int first = random.nextInt(0, columns.size());
+        for (int c = first; c < columns.size(); c++) {
+            if (c == first || random.nextBoolean()) {
+                b.sql(resultTypes.isEmpty() ? "" : ", ").sql(columns.get(c).getName());
+                resultTypes.add(columns.get(c).getType());
+            }
+        }
+        b.sql(" FROM ").sql(table.getName());
+        where(b, table, random, testDbms);
+        if (random.nextBoolean()) {
+            b.sql(" ORDER BY ").sql(columns.get(random.nextInt(0, columns.size())).getName());
+        }
+        if (random.nextInt(0, 3) == 0) {
+            b.sql(" LIMIT ").sql(Integer.toString(random.nextInt(0, 100)));
+        }
+        return new Dml(Kind.SELECT, testDbms, b, resultTypes.toArray(new DataType[0]));
+    }
+
+    // no WHERE with 1 in 5, one or two comparisons otherwise
+    private static void where(Builder b, Table table, Randomly random, TestDbms testDbms) {
+        if (random.nextInt(0, 5) == 0) {
+            return;
+        }
+        b.sql(" WHERE ");
+        comparison(b, table, random, testDbms);
+        if (random.nextInt(0, 3) == 0) {
+            b.sql(random.nextBoolean() ? " AND " : " OR ");
+            comparison(b, table, random, testDbms);
+        }
+    }
+
+    private static void comparison(Builder b, Table table, Randomly random, TestDbms testDbms) {
+        List<Column> columns = table.getColumns();
+        Column column = columns.get(random.nextInt(0, columns.size()));
+        ColumnValues value = value(column, random, testDbms);
+        b.sql(column.getName());
+        if (value.isNull(0)) {
+            // = NULL is never true
+            b.sql(random.nextBoolean() ? " IS NULL" : " IS NOT NULL");
+            return;
+        }
+        b.sql(" ").sql(COMPARISONS[random.nextInt(0, COMPARISONS.length)]).sql(" ").parameter(value, 0);
+    }
+
+    private static ColumnValues value(Column column, Randomly random, TestDbms testDbms) {
+        return ValueGenerator.of(column.getType(), testDbms, NULL_PERCENT).generate(random, 1);
+    }
+
+    private static final class Builder {
+        final StringBuilder sql;
+        final List<String> fragments = new ArrayList<>();
+        final List<ColumnValues> values = new ArrayList<>();
+        final List<Integer> rows = new ArrayList<>();
+
+        Builder(String sql) {
+            this.sql = new StringBuilder(sql);
+        }
+
+        Builder sql(String s) {
+            sql.append(s);
+            return this;
+        }
+
+        Builder parameter(ColumnValues columnValues, int row) {
+            fragments.add(sql.toString());
+            sql.setLength(0);
+            values.add(columnValues);
+            rows.add(row);
+            return this;
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package demo;
 
 import java.sql.Connection;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import javax.annotation.Nullable;
 
@@ -14,219 +11,180 @@ import demo.util.TestDbms;
 import demo.util.TestUtil;
 import demo.util.TestUtilFactory;
 
+/**
+ * Static entry point to the state of the walker running on the current thread.
+ *
+ * Every method delegates to the {@link WalkerInfo} bound to the calling thread, so
+ * actions keep using {@code GlobalInfo} while several walkers run side by side.
+ */
 public class GlobalInfo {
-    // global state tracker
-    public static final StateMachine stateMachine = new StateMachine();
-
-    public static TestDbms testDbms;
-    public static TestUtil testUtil;
-
-    private static List<Connection> basicConnections = new ArrayList<>();
-    // assume there can be multiple replication connections
-    private static Map<Connection, List<Connection>> replicationConnections = new HashMap<>();
-    // assume there can be multiple read only connections
-    private static List<Connection> readOnlyConnections = new ArrayList<>();
-    // assume there can be only one privileged connection
-    private static Connection privilegedConnection;
-
-    // store Connection:Table(Columns)
-    // TODO: handle views later
-    private static Map<Connection, List<Table>> tables = new HashMap<>();
-    // store Connection:Schema
-    private static Map<Connection, List<String>> schemas = new HashMap<>();
+    // per-thread state tracker
+    private static final ThreadLocal<WalkerInfo> CURRENT = new ThreadLocal<>();
 
+    /**
+     * Start a fresh walker for testDbms on the current thread.
+     */
     public static TestUtil setTestDbms(TestDbms testDbms) {
-        GlobalInfo.stateMachine.reset();
-        resetAll();
-        GlobalInfo.testDbms = testDbms;
-        GlobalInfo.testUtil = TestUtilFactory.create(testDbms);
+        WalkerInfo info = new WalkerInfo(testDbms, TestUtilFactory.create(testDbms));
+        bind(info);
+        return info.getTestUtil();
+    }
 
-        return GlobalInfo.testUtil;
+    /**
+     * Make info the walker seen by the current thread.
+     */
+    public static void bind(WalkerInfo info) {
+        CURRENT.set(info);
     }
 
-    static void resetAll() {
-        basicConnections.clear();
-        replicationConnections.clear();
-        readOnlyConnections.clear();
-        privilegedConnection = null;
-        tables.clear();
-        schemas.clear();
+    public static void unbind() {
+        CURRENT.remove();
     }
 
+    /**
+     * @return the walker bound to the current thread, null if there is none
+     */
     @Nullable
-    public static List<Connection> allConnections() {
-        List<Connection> connections = new ArrayList<>();
-        if (!basicConnections.isEmpty()) {
-            connections.addAll(basicConnections);
-        }
-        if (!readOnlyConnections.isEmpty()) {
-            connections.addAll(readOnlyConnections);
-        }
-        if (privilegedConnection != null) {
-            connections.add(privilegedConnection);
-        }
-        if (!replicationConnections.isEmpty()) {
-            for (List<Connection> cons : replicationConnections.values()) {
-                connections.addAll(cons);
-            }
+    public static WalkerInfo currentOrNull() {
+        return CURRENT.get();
+    }
+
+    public static WalkerInfo current() {
+        WalkerInfo info = CURRENT.get();
+        if (info == null) {
+            throw new IllegalStateException("no walker bound to " + Thread.currentThread().getName()
+                    + ", call GlobalInfo.setTestDbms() or GlobalInfo.bind() first");
         }
-        if (connections.isEmpty()) {
-            return null;
+        return info;
+    }
+
+    public static StateMachine getStateMachine() {
+        return current().getStateMachine();
+    }
+
+    public static TestUtil getTestUtil() {
+        return current().getTestUtil();
+    }
+
+    /**
+     * @return the backend of the current walker, or null if no walker is bound
+     */
+    @Nullable
+    public static TestDbms getTestDbms() {
+        WalkerInfo info = CURRENT.get();
+        return info == null ? null : info.getTestDbms();
+    }
+
+    /**
+     * Print a line for the current walker unless it runs quietly.
+     */
+    public static void println(String line) {
+        WalkerInfo info = CURRENT.get();
+        if (info == null || info.isVerbose()) {
+            System.out.println(line);
         }
-        return connections;
+    }
+
+    @Nullable
+    public static List<Connection> allConnections() {
+        return current().allConnections();
     }
 
     // random pick a connection for replication
     @Nullable
     public static Connection getAnyConnectionForReplication() {
-        List<Connection> connections = allConnections();
-        if (connections == null) {
-            return null;
-        }
-        // remove replication connections from the list
-        for (List<Connection> cons : replicationConnections.values()) {
-            connections.removeAll(cons);
-        }
-        if (connections.isEmpty()) {
-            return null;
-        }
-
-        Connection[] cons = new Connection[connections.size()];
-        cons = connections.toArray(cons);
-        return Randomly.fromOptions(cons);
+        return current().getAnyConnectionForReplication();
     }
 
     @Nullable
     public static Connection getAnyConnection() {
-        List<Connection> connections = allConnections();
-        if (connections == null) {
-            return null;
-        }
-        Connection[] cons = new Connection[connections.size()];
-        cons = connections.toArray(cons);
-        return Randomly.fromOptions(cons);
+        return current().getAnyConnection();
     }
 
     public static void setBasicConnection(Connection connection) {
-        GlobalInfo.basicConnections.add(connection);
+        current().setBasicConnection(connection);
     }
 
     public static void setReplicationConnection(Connection originalConnection, Connection replicationConnection) {
-        if (GlobalInfo.replicationConnections.containsKey(originalConnection)) {
-            GlobalInfo.replicationConnections.get(originalConnection).add(replicationConnection);
-        } else {
-            List<Connection> connections = new ArrayList<>();
-            connections.add(replicationConnection);
-            GlobalInfo.replicationConnections.put(originalConnection, connections);
-        }
+        current().setReplicationConnection(originalConnection, replicationConnection);
     }
 
     public static void setReadOnlyConnection(Connection readOnlyConnection) {
-        GlobalInfo.readOnlyConnections.add(readOnlyConnection);
+        current().setReadOnlyConnection(readOnlyConnection);
     }
 
     public static void setPrivilegedConnection(Connection privilegedConnection) {
-        GlobalInfo.privilegedConnection = privilegedConnection;
+        current().setPrivilegedConnection(privilegedConnection);
     }
 
     @Nullable
     public static List<Connection> getBasicConnections() {
-        return basicConnections.isEmpty() ? null : basicConnections;
+        return current().getBasicConnections();
     }
 
     @Nullable
     public static List<Connection> getReplicationConnections(Connection originalConnection) {
-        return GlobalInfo.replicationConnections.get(originalConnection);
+        return current().getReplicationConnections(originalConnection);
     }
 
     @Nullable
     public static List<Connection> getReadOnlyConnections() {
-        return readOnlyConnections.isEmpty() ? null : readOnlyConnections;
+        return current().getReadOnlyConnections();
     }
 
     @Nullable
     public static Connection getPrivilegedConnection() {
-        return privilegedConnection;
+        return current().getPrivilegedConnection();
     }
 
     public static void removeConnection(Connection con) {
-        if (basicConnections.contains(con)) {
-            basicConnections.remove(con);
-        }
-        if (readOnlyConnections.contains(con)) {
-            readOnlyConnections.remove(con);
-        }
-        if (privilegedConnection == con) {
-            privilegedConnection = null;
-        }
-        if (replicationConnections.containsKey(con)) {
-            replicationConnections.remove(con);
-        }
-        for (List<Connection> cons : replicationConnections.values()) {
-            if (cons.contains(con)) {
-                cons.remove(con);
-            }
-        }
+        current().removeConnection(con);
+    }
+
+    public static Catalog getCatalog() {
+        return current().getCatalog();
     }
 
     public static void addNewTable(Connection con, Table table) {
-        if (GlobalInfo.tables.containsKey(con)) {
-            GlobalInfo.tables.get(con).add(table);
-        } else {
-            List<Table> tables = new ArrayList<>();
-            tables.add(table);
-            GlobalInfo.tables.put(con, tables);
-        }
+        current().addNewTable(con, table);
     }
 
-    @Nullable
     public static List<Table> getTables(Connection con) {
-        return GlobalInfo.tables.get(con);
+        return current().getTables(con);
+    }
+
+    public static NameAllocator getTableNames(Connection con) {
+        return current().getTableNames(con);
+    }
+
+    public static NameAllocator getSchemaNames(Connection con) {
+        return current().getSchemaNames(con);
     }
 
     public static void addNewSchema(Connection con, String schema) {
-        if (GlobalInfo.schemas.containsKey(con)) {
-            GlobalInfo.schemas.get(con).add(schema);
-        } else {
-            List<String> schemas = new ArrayList<>();
-            schemas.add(schema);
-            GlobalInfo.schemas.put(con, schemas);
-        }
+        current().addNewSchema(con, schema);
     }
 
     public static void removeSchema(Connection con, String schema) {
-        if (GlobalInfo.schemas.containsKey(con)) {
-            GlobalInfo.schemas.get(con).remove(schema);
-        }
+        current().removeSchema(con, schema);
     }
 
-    @Nullable
     public static List<String> getSchemas(Connection con) {
-        return GlobalInfo.schemas.get(con);
+        return current().getSchemas(con);
     }
 
     @Nullable
     public static String getAnySchema(Connection con) {
-        List<String> schemas = GlobalInfo.schemas.get(con);
-        if (schemas == null) {
-            return null;
-        }
-        return Randomly.fromOptions(schemas.toArray(new String[schemas.size()]));
+        return current().getAnySchema(con);
     }
 
     @Nullable
     public static Table getAnyTable(Connection con) {
-        List<Table> tables = GlobalInfo.tables.get(con);
-        if (tables == null) {
-            return null;
-        }
-        return Randomly.fromOptions(tables.toArray(new Table[tables.size()]));
+        return current().getAnyTable(con);
     }
 
     public static void removeTable(Connection con, Table table) {
-        if (GlobalInfo.tables.containsKey(con)) {
-            GlobalInfo.tables.get(con).remove(table);
-        }
+        current().removeTable(con, table);
     }
 
 }
@@ -0,0 +1,115 @@
+package demo;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * The names in use in one namespace, e.g. the tables of a database, and the next
+ * free name of the form prefix + number. Names are compared case-insensitively, as
+ * SQL does for unquoted identifiers.
+ *
+ * Finding a free name starts at the lowest number that may be free rather than at
+ * 0, so generating n names in a row takes O(n) in total instead of O(n^2).
+ */
+public final class NameAllocator {
+    private final String prefix;
+    // lower case
+    private final Set<String> names = new HashSet<>();
+    // every prefix + i with i < lowestFree is in use
+    private int lowestFree = 0;
+
+    public NameAllocator(String prefix) {
+        this.prefix = prefix;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the first name prefix + i with i >= start that is not in use; it stays
+     *         free until it is added
+     */
+    public String next(int start) {
+        int i = Math.max(start, lowestFree);
+        while (names.contains(key(prefix + i))) {
+            i++;
+        }
+        if (start <= lowestFree) {
+            lowestFree = i;
+        }
+        return prefix + i;
+    }
+
+    /**
+     * @return the next free name, starting at 0 or, rarely, at a random offset below
+     *         100 as the generators always did
+     */
+    public String next() {
+        int start = 0;
+        if (Randomly.getBooleanWithRatherLowProbability()) {
+            start = (int) Randomly.getNotCachedInteger(0, 100);
+        }
+        return next(start);
+    }
+
+    /**
+     * @return false if name was in use already
+     */
+    public boolean add(String name) {
+        return names.add(key(name));
+    }
+
+    public boolean remove(String name) {
+        if (!names.remove(key(name))) {
+            return false;
+        }
+        int i = number(name);
+        if (i >= 0 && i < lowestFree) {
+            lowestFree = i;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of prefix + number, -1 for any other name
+     */
+    private int number(String name) {
+        if (name.length() <= prefix.length() || !name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return -1;
+        }
+        int i = 0;
+        for (int p = prefix.length(); p < name.length(); p++) {
+            char c = name.charAt(p);
+            if (c < '0' || c > '9' || i > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            i = i * 10 + (c - '0');
+        }
+        return i;
+    }
+
+    /**
+     * @return true if name is of the form prefix + number, i.e. one this allocator
+     *         may hand out
+     */
+    public boolean isGenerated(@Nullable String name) {
+        return name != null && number(name) >= 0;
+    }
+
+    public boolean contains(String name) {
+        return names.contains(key(name));
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public void clear() {
+        names.clear();
+        lowestFree = 0;
+    }
+}
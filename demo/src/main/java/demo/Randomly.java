@@ -1,73 +1,260 @@
 package demo;
 
-import java.util.Random;
+import java.util.Arrays;
 
 /**
  * Partially copied from SQLancer
+ *
+ * A xoshiro256** generator (Blackman and Vigna): four longs of state, no locking and
+ * no allocation per number. Every walk has its own instance, seeded from the walk
+ * seed and held by its {@link WalkerInfo}, so walkers running side by side do not
+ * share a generator and every walk only depends on its seed. {@link #split()} derives
+ * an independent generator deterministically, e.g. for work forked off a walk.
+ *
+ * The static methods draw from {@link #current()}: the generator of the walker
+ * bound to the calling thread or, outside of a walk, one of the thread.
+ *
+ * Like SQLancer's, a Randomly also caches values a walk generated, per
+ * {@link DataType}, so that {@link ValueGenerator}s can hand them out again and
+ * later statements hit the rows earlier ones inserted. The cache is part of the
+ * walk: {@link #setSeed(long)} empties it.
  */
 public final class Randomly {
-    private static final ThreadLocal<Random> THREAD_RANDOM = new ThreadLocal<>();
-    private long seed;
+    // for code that runs outside of a walk, e.g. tests and benchmarks
+    private static final ThreadLocal<Randomly> UNBOUND = new ThreadLocal<>();
+    // interesting values kept per DataType
+    private static final int CACHE_SIZE = 64;
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    // the most recent interesting values per DataType, numbers as ValueGenerator
+    // stores them, e.g. float bits or epoch days
+    private final long[][] cachedLongs = new long[DataType.values().length][];
+    private final String[][] cachedStrings = new String[DataType.values().length][];
+    private final int[] cacheSizes = new int[DataType.values().length];
+    // where the next value of each type goes
+    private final int[] cacheNext = new int[DataType.values().length];
 
     public Randomly() {
-        THREAD_RANDOM.set(new Random());
+        this(System.nanoTime() ^ Thread.currentThread().getId() * 0x9e3779b97f4a7c15L);
     }
 
     public Randomly(long seed) {
-        this.seed = seed;
-        THREAD_RANDOM.set(new Random(seed));
+        setSeed(seed);
     }
 
-    @SafeVarargs
-    public static <T> T fromOptions(T... options) {
-        return options[getNextInt(0, options.length)];
+    /**
+     * Restart the stream of seed, as if this generator was new.
+     */
+    public void setSeed(long seed) {
+        // the state must not be all zero, splitmix64 as the authors recommend
+        long x = seed;
+        s0 = splitMix64(x += 0x9e3779b97f4a7c15L);
+        s1 = splitMix64(x += 0x9e3779b97f4a7c15L);
+        s2 = splitMix64(x += 0x9e3779b97f4a7c15L);
+        s3 = splitMix64(x + 0x9e3779b97f4a7c15L);
+        Arrays.fill(cacheSizes, 0);
+        Arrays.fill(cacheNext, 0);
+    }
+
+    private static long splitMix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return a generator seeded from the next number of this one; the same
+     *         sequence of calls always splits off the same generators
+     */
+    public Randomly split() {
+        return new Randomly(nextLong());
+    }
+
+    /**
+     * @return the generator of the walker bound to this thread, or of this thread
+     *         if no walker is bound
+     */
+    public static Randomly current() {
+        WalkerInfo info = GlobalInfo.currentOrNull();
+        if (info != null) {
+            return info.getRandom();
+        }
+        Randomly random = UNBOUND.get();
+        if (random == null) {
+            // a static method has been called outside of a walk before setCurrent()
+            random = new Randomly();
+            UNBOUND.set(random);
+        }
+        return random;
     }
 
-    // see https://stackoverflow.com/a/2546158
-    // uniformity does not seem to be important for us
-    // SQLancer previously used ThreadLocalRandom.current().nextLong(lower, upper)
-    private static long getNextLong(long lower, long upper) {
+    /**
+     * Make random the generator of the walker bound to this thread, or of this
+     * thread if no walker is bound.
+     */
+    public static void setCurrent(Randomly random) {
+        WalkerInfo info = GlobalInfo.currentOrNull();
+        if (info != null) {
+            info.setRandom(random);
+        } else {
+            UNBOUND.set(random);
+        }
+    }
+
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * @return a uniformly distributed long in [lower, upper), lower if they are equal
+     */
+    public long nextLong(long lower, long upper) {
         if (lower > upper) {
             throw new IllegalArgumentException(lower + " " + upper);
         }
         if (lower == upper) {
             return lower;
         }
-        return getThreadRandom().get().longs(lower, upper).findFirst().getAsLong();
+        long r = nextLong();
+        long n = upper - lower;
+        long m = n - 1;
+        if (n > 0 && (n & m) == 0) {
+            return lower + (r & m);
+        }
+        if (n > 0) {
+            // reject the values of the last, incomplete multiple of n
+            for (long u = r >>> 1; u + m - (r = u % n) < 0; u = nextLong() >>> 1) {
+                // retry
+            }
+            return lower + r;
+        }
+        // the range does not fit into a long
+        while (r < lower || r >= upper) {
+            r = nextLong();
+        }
+        return r;
+    }
+
+    public int nextInt(int lower, int upper) {
+        return (int) nextLong(lower, upper);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * @return a uniformly distributed double in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * @return a normally distributed double with mean 0 and standard deviation 1
+     */
+    public double nextGaussian() {
+        // Marsaglia's polar method, without keeping the second number
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+    }
+
+    public void addToCache(DataType type, long value) {
+        int t = type.ordinal();
+        if (cachedLongs[t] == null) {
+            cachedLongs[t] = new long[CACHE_SIZE];
+        }
+        cachedLongs[t][cacheNext[t]] = value;
+        added(t);
+    }
+
+    public void addToCache(DataType type, String value) {
+        int t = type.ordinal();
+        if (cachedStrings[t] == null) {
+            cachedStrings[t] = new String[CACHE_SIZE];
+        }
+        cachedStrings[t][cacheNext[t]] = value;
+        added(t);
     }
 
-    private static int getNextInt(int lower, int upper) {
-        return (int) getNextLong(lower, upper);
+    private void added(int t) {
+        cacheNext[t] = (cacheNext[t] + 1) % CACHE_SIZE;
+        cacheSizes[t] = Math.min(cacheSizes[t] + 1, CACHE_SIZE);
+    }
+
+    /**
+     * @return true if values of type were added since the last
+     *         {@link #setSeed(long)}
+     */
+    public boolean hasCached(DataType type) {
+        return cacheSizes[type.ordinal()] > 0;
+    }
+
+    /**
+     * @return one of the cached values of type, see {@link #hasCached(DataType)}
+     */
+    public long getCachedLong(DataType type) {
+        int t = type.ordinal();
+        return cachedLongs[t][nextInt(0, cacheSizes[t])];
+    }
+
+    /**
+     * @see #getCachedLong(DataType)
+     */
+    public String getCachedString(DataType type) {
+        int t = type.ordinal();
+        return cachedStrings[t][nextInt(0, cacheSizes[t])];
+    }
+
+    @SafeVarargs
+    public static <T> T fromOptions(T... options) {
+        return options[current().nextInt(0, options.length)];
     }
 
     public static int smallNumber() {
         // no need to cache for small numbers
-        return (int) (Math.abs(getThreadRandom().get().nextGaussian())) * 2;
+        return (int) (Math.abs(current().nextGaussian())) * 2;
     }
 
-    private static ThreadLocal<Random> getThreadRandom() {
-        if (THREAD_RANDOM.get() == null) {
-            // a static method has been called, before Randomly was instantiated
-            THREAD_RANDOM.set(new Random());
-        }
-        return THREAD_RANDOM;
+    /**
+     * @return a uniformly distributed double in [0, 1)
+     */
+    public static double getUniformDouble() {
+        return current().nextDouble();
     }
 
     public static long getNotCachedInteger(int lower, int upper) {
-        return getNextLong(lower, upper);
+        return current().nextLong(lower, upper);
     }
 
     public static boolean getBooleanWithRatherLowProbability() {
-        return getThreadRandom().get().nextInt(10) == 1;
+        return current().nextLong(0, 10) == 1;
     }
 
     private static boolean smallBiasProbability() {
-        return getThreadRandom().get().nextInt(100) == 1;
+        return current().nextLong(0, 100) == 1;
     }
 
     public static boolean getBooleanWithSmallProbability() {
         return smallBiasProbability();
     }
-
-    
 }
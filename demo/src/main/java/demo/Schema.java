@@ -3,7 +3,8 @@ package demo;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+
+import demo.util.TestDbms;
 
 public class Schema {
     public static class Table {
@@ -41,6 +42,17 @@ public class Schema {
         public List<Column> getColumns() {
             return this.columns;
         }
+
+        /**
+         * @return rows rows of values for the columns, in column order
+         */
+        public ColumnValues[] generateValues(Randomly random, TestDbms testDbms, int rows, int nullPercent) {
+            ColumnValues[] values = new ColumnValues[columns.size()];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = ValueGenerator.of(columns.get(c).type, testDbms, nullPercent).generate(random, rows);
+            }
+            return values;
+        }
     }
 
     public static class Column {
@@ -67,44 +79,15 @@ public class Schema {
     }
 
     public static String generateTableName(Connection connection) {
-        int i = 0;
-        if (Randomly.getBooleanWithRatherLowProbability()) {
-            i = (int) Randomly.getNotCachedInteger(0, 100);
-        }
-        List<Table> tables = GlobalInfo.getTables(connection);
-        if (tables == null) {
-            return String.format("table_%d", i);
-        } else {
-            List<String> tableNames = tables.stream().map(t -> t.getName())
-                    .collect(Collectors.toList());
-            do {
-                String tableName = String.format("table_%d", i++);
-
-                if (tableNames.isEmpty()
-                        || tableNames.stream().noneMatch(t -> t.equalsIgnoreCase(tableName))) {
-                    return tableName;
-                }
-            } while (true);
-        }
+        return GlobalInfo.getTableNames(connection).next();
     }
 
     public static String generateColumnName(String tableName, List<Column> columns) {
-        List<String> columnNames = columns.stream()
-                .map(c -> c.getName()).collect(Collectors.toList());
-        int i = 0;
-        if (Randomly.getBooleanWithRatherLowProbability()) {
-            i = (int) Randomly.getNotCachedInteger(0, 100);
+        NameAllocator columnNames = new NameAllocator("column_");
+        for (Column column : columns) {
+            columnNames.add(column.getName());
         }
-        
-        do {
-            String columnName = String.format("column_%d", i++);
-
-            if (columnNames.isEmpty()
-                    || columnNames.stream().noneMatch(c -> c.equalsIgnoreCase(columnName))) {
-                
-                        return columnName;
-            }
-        } while (true);
+        return columnNames.next();
     }
 
     public static Column generateColumn(String tableName, List<Column> columns) {
@@ -113,32 +96,28 @@ public class Schema {
         return new Column(columnName, type);
     }
 
+    private static Column generateColumn(NameAllocator columnNames) {
+        String columnName = columnNames.next();
+        columnNames.add(columnName);
+        DataType type = DataType.getRandomDataType();
+        return new Column(columnName, type);
+    }
+
     public static Table generateTable(Connection connection) {
         String tableName = generateTableName(connection);
         List<Column> columns = new ArrayList<>();
         Table table = new Table(tableName, columns);
         int numColumns = Randomly.smallNumber() + 1;
+        NameAllocator columnNames = new NameAllocator("column_");
         for (int i = 0; i < numColumns; i++) {
-            table.addColumn(generateColumn(tableName, columns));
+            table.addColumn(generateColumn(columnNames));
         }
         
         return table;
     }
 
     public static String generateSchemaName(Connection connection) {
-        List<String> schemaNames = GlobalInfo.getSchemas(connection);
-
-        int i = 0;
-        if (Randomly.getBooleanWithRatherLowProbability()) {
-            i = (int) Randomly.getNotCachedInteger(0, 100);
-        }
-        do {
-            String schemaName = String.format("schema_%d", i++);
-            if (schemaNames == null || schemaNames.isEmpty()
-                    || schemaNames.stream().noneMatch(s -> s.equalsIgnoreCase(schemaName))) {
-                return schemaName;
-            }
-        } while (true);
+        return GlobalInfo.getSchemaNames(connection).next();
     }
 
 }
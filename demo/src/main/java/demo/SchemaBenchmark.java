@@ -0,0 +1,82 @@
+package demo;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import demo.util.TestDbms;
+import demo.util.TestUtilFactory;
+
+/**
+ * Generates a catalog of many tables, as a long walk does, and prints how long
+ * every tenth of it took. With constant-time name allocation all tenths take about
+ * as long. For comparison, table names alone are then generated
+ * for a smaller catalog with the allocator and with the linear probe the
+ * generators used before. It compares a candidate with
+ * every name and tries every name in use before it finds a free one, so its tenths
+ * grow quadratically.
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=demo.SchemaBenchmark -Dexec.args="[tables] [tables with linear probe]"
+ * </pre>
+ */
+public final class SchemaBenchmark {
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int probeTables = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        WalkerInfo info = new WalkerInfo(TestDbms.DUCKDB, TestUtilFactory.create(TestDbms.DUCKDB));
+        info.setVerbose(false);
+        GlobalInfo.bind(info);
+        // only opened for the generators, nothing is created in the database
+        try (Connection con = DriverManager.getConnection("jdbc:duckdb:")) {
+            info.getRandom().setSeed(0);
+            run("generateTable", tables, () -> info.addNewTable(con, Schema.generateTable(con)));
+
+            NameAllocator allocator = new NameAllocator("table_");
+            info.getRandom().setSeed(0);
+            run("table names, name allocator", probeTables, () -> allocator.add(allocator.next()));
+
+            List<String> names = new ArrayList<>();
+            info.getRandom().setSeed(0);
+            run("table names, linear probe", probeTables, () -> names.add(linearProbe(names)));
+        } finally {
+            GlobalInfo.unbind();
+        }
+    }
+
+    private static void run(String name, int tables, Runnable generate) {
+        System.out.printf("%s, %d tables:%n", name, tables);
+        long start = System.nanoTime();
+        long tenthStart = start;
+        for (int i = 1; i <= tables; i++) {
+            generate.run();
+            if (i % Math.max(tables / 10, 1) == 0 || i == tables) {
+                long now = System.nanoTime();
+                System.out.printf("\t%7d tables: %8.1fms%n", i, (now - tenthStart) / 1e6);
+                tenthStart = now;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("\t%.2fs, %.0f tables/s%n", seconds, tables / seconds);
+    }
+
+    /**
+     * How the generators used to find a free table name.
+     */
+    private static String linearProbe(List<String> tableNames) {
+        int i = 0;
+        if (Randomly.getBooleanWithRatherLowProbability()) {
+            i = (int) Randomly.getNotCachedInteger(0, 100);
+        }
+        do {
+            String tableName = String.format("table_%d", i++);
+            if (tableNames.isEmpty() || tableNames.stream().noneMatch(t -> t.equalsIgnoreCase(tableName))) {
+                return tableName;
+            }
+        } while (true);
+    }
+
+    private SchemaBenchmark() {
+    }
+}
@@ -0,0 +1,426 @@
+package demo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import demo.util.TestDbms;
+
+/**
+ * Generates values of one {@link DataType} into {@link ColumnValues}, for the
+ * range the type has on a backend. Every value is, in this order of draws:
+ *
+ * <ul>
+ * <li>NULL with nullPercent percent</li>
+ * <li>a boundary value of the type with 5 percent, e.g. Integer.MIN_VALUE, NaN,
+ * '' or 2038-01-19 03:14:07</li>
+ * <li>a value the walk generated before with 5 percent, from the cache of
+ * {@link Randomly}</li>
+ * <li>a fresh value otherwise; with 10 percent it is also added to that cache</li>
+ * </ul>
+ *
+ * Generators are immutable, all state is in the Randomly passed in, so a walk
+ * generates the same values for the same seed.
+ */
+public abstract class ValueGenerator {
+    private static final int BOUNDARY_PERCENT = 5;
+    private static final int CACHED_PERCENT = 5;
+    private static final int CACHE_PERCENT = 10;
+
+    // the range of DATE and DATETIME in MySQL fits everywhere
+    private static final int MIN_DAY = (int) LocalDate.of(1000, 1, 1).toEpochDay();
+    private static final int MAX_DAY = (int) LocalDate.of(9999, 12, 31).toEpochDay();
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    // per DataType and TestDbms, without NULLs
+    private static final ValueGenerator[][] GENERATORS = createAll(0);
+    // the same by the nullPercent they were asked for with, so that the boundaries
+    // of a generator are built once
+    private static final Map<Integer, ValueGenerator[][]> GENERATORS_WITH_NULLS = new ConcurrentHashMap<>();
+
+    // where a value comes from
+    protected static final int FRESH = 0;
+    protected static final int BOUNDARY = 1;
+    protected static final int CACHED = 2;
+    protected static final int FRESH_CACHED = 3;
+
+    protected final DataType type;
+    private final int nullPercent;
+
+    ValueGenerator(DataType type, int nullPercent) {
+        this.type = type;
+        this.nullPercent = nullPercent;
+    }
+
+    /**
+     * @return the generator of type for dbms, without NULLs
+     */
+    public static ValueGenerator of(DataType type, TestDbms dbms) {
+        return GENERATORS[type.ordinal()][dbms.ordinal()];
+    }
+
+    /**
+     * @param nullPercent percentage of NULL values
+     */
+    public static ValueGenerator of(DataType type, TestDbms dbms, int nullPercent) {
+        if (nullPercent == 0) {
+            return of(type, dbms);
+        }
+        ValueGenerator[][] generators = GENERATORS_WITH_NULLS.computeIfAbsent(nullPercent,
+                ValueGenerator::createAll);
+        return generators[type.ordinal()][dbms.ordinal()];
+    }
+
+    private static ValueGenerator[][] createAll(int nullPercent) {
+        ValueGenerator[][] generators = new ValueGenerator[DataType.values().length][];
+        for (DataType type : DataType.values()) {
+            generators[type.ordinal()] = new ValueGenerator[TestDbms.values().length];
+            for (TestDbms dbms : TestDbms.values()) {
+                generators[type.ordinal()][dbms.ordinal()] = create(type, dbms, nullPercent);
+            }
+        }
+        return generators;
+    }
+
+    private static ValueGenerator create(DataType type, TestDbms dbms, int nullPercent) {
+        switch (type) {
+            case INT:
+                return new IntGenerator(nullPercent);
+            case BOOLEAN:
+                return new BooleanGenerator(nullPercent);
+            case FLOAT:
+                return new FloatGenerator(dbms, nullPercent);
+            case DOUBLE:
+                return new DoubleGenerator(dbms, nullPercent);
+            case TEXT:
+            case VARCHAR:
+                return new StringGenerator(type, dbms, nullPercent);
+            case DATE:
+                return new DateGenerator(nullPercent);
+            case DATETIME:
+                return new DateTimeGenerator(dbms, nullPercent);
+            case TIME:
+                return new TimeGenerator(nullPercent);
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    public DataType getType() {
+        return type;
+    }
+
+    /**
+     * @return new values for rows rows, filled
+     */
+    public ColumnValues generate(Randomly random, int rows) {
+        ColumnValues values = new ColumnValues(type, rows);
+        fill(random, values, 0, rows);
+        return values;
+    }
+
+    /**
+     * Overwrite the values of rows [from, to).
+     */
+    public void fill(Randomly random, ColumnValues values, int from, int to) {
+        if (values.getType() != type) {
+            throw new IllegalArgumentException(values.getType().name() + " values for a " + type.name() + " generator");
+        }
+        boolean[] nulls = values.nulls();
+        for (int row = from; row < to; row++) {
+            nulls[row] = nullPercent > 0 && random.nextLong(0, 100) < nullPercent;
+            if (!nulls[row]) {
+                generateRow(random, values, row);
+            }
+        }
+    }
+
+    /**
+     * Set row of values to a value of the type, never NULL.
+     */
+    protected abstract void generateRow(Randomly random, ColumnValues values, int row);
+
+    protected final int source(Randomly random) {
+        long p = random.nextLong(0, 100);
+        if (p < BOUNDARY_PERCENT) {
+            return BOUNDARY;
+        }
+        if (p < BOUNDARY_PERCENT + CACHED_PERCENT) {
+            return random.hasCached(type) ? CACHED : FRESH;
+        }
+        return p >= 100 - CACHE_PERCENT ? FRESH_CACHED : FRESH;
+    }
+
+    private static final class IntGenerator extends ValueGenerator {
+        private static final int[] BOUNDARIES = { 0, 1, -1, 2, 127, -128, 128, 255, 256, 32767, -32768, 65535,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1 };
+
+        IntGenerator(int nullPercent) {
+            super(DataType.INT, nullPercent);
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            int[] ints = values.ints();
+            int source = source(random);
+            switch (source) {
+                case BOUNDARY:
+                    ints[row] = BOUNDARIES[random.nextInt(0, BOUNDARIES.length)];
+                    break;
+                case CACHED:
+                    ints[row] = (int) random.getCachedLong(type);
+                    break;
+                default:
+                    // small numbers collide more often, e.g. in joins and WHERE
+                    ints[row] = random.nextLong(0, 2) == 0 ? random.nextInt(-100, 101) : (int) random.nextLong();
+                    if (source == FRESH_CACHED) {
+                        random.addToCache(type, ints[row]);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static final class BooleanGenerator extends ValueGenerator {
+        BooleanGenerator(int nullPercent) {
+            super(DataType.BOOLEAN, nullPercent);
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            // there is nothing but boundaries
+            values.booleans()[row] = random.nextLong(0, 2) == 1;
+        }
+    }
+
+    private static final class FloatGenerator extends ValueGenerator {
+        private static final float MAX = 1e6f;
+        private final float[] boundaries;
+
+        FloatGenerator(TestDbms dbms, int nullPercent) {
+            super(DataType.FLOAT, nullPercent);
+            float[] finite = { 0f, -0f, 1f, -1f, 0.5f, 0.1f, Float.MAX_VALUE, -Float.MAX_VALUE, Float.MIN_VALUE,
+                    Float.MIN_NORMAL, 16777216f, 16777217f };
+            // MySQL has no NaN and infinities
+            this.boundaries = dbms == TestDbms.MYSQL ? finite
+                    : concat(finite, Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY);
+        }
+
+        private static float[] concat(float[] a, float... b) {
+            float[] c = new float[a.length + b.length];
+            System.arraycopy(a, 0, c, 0, a.length);
+            System.arraycopy(b, 0, c, a.length, b.length);
+            return c;
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            float[] floats = values.floats();
+            int source = source(random);
+            switch (source) {
+                case BOUNDARY:
+                    floats[row] = boundaries[random.nextInt(0, boundaries.length)];
+                    break;
+                case CACHED:
+                    floats[row] = Float.intBitsToFloat((int) random.getCachedLong(type));
+                    break;
+                default:
+                    floats[row] = (float) ((random.nextDouble() * 2 - 1) * MAX);
+                    if (source == FRESH_CACHED) {
+                        random.addToCache(type, Float.floatToIntBits(floats[row]));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static final class DoubleGenerator extends ValueGenerator {
+        private final double[] boundaries;
+        private final double max;
+
+        DoubleGenerator(TestDbms dbms, int nullPercent) {
+            super(DataType.DOUBLE, nullPercent);
+            if (dbms == TestDbms.MYSQL) {
+                // DOUBLE(10,2)
+                this.boundaries = new double[] { 0, 1, -1, 0.01, -0.01, 0.5, 99999999.99, -99999999.99 };
+                this.max = 99999999.99;
+            } else {
+                this.boundaries = new double[] { 0, -0.0, 1, -1, 0.1, 0.5, Double.MAX_VALUE, -Double.MAX_VALUE,
+                        Double.MIN_VALUE, Double.MIN_NORMAL, 9007199254740992.0, 9007199254740993.0, Double.NaN,
+                        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY };
+                this.max = 1e9;
+            }
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            double[] doubles = values.doubles();
+            int source = source(random);
+            switch (source) {
+                case BOUNDARY:
+                    doubles[row] = boundaries[random.nextInt(0, boundaries.length)];
+                    break;
+                case CACHED:
+                    doubles[row] = Double.longBitsToDouble(random.getCachedLong(type));
+                    break;
+                default:
+                    // two decimals, as MySQL keeps them
+                    doubles[row] = Math.round((random.nextDouble() * 2 - 1) * max * 100) / 100.0;
+                    if (source == FRESH_CACHED) {
+                        random.addToCache(type, Double.doubleToLongBits(doubles[row]));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static final class StringGenerator extends ValueGenerator {
+        private static final char[] ALPHABET = ("abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+                + " _-%'\"\\.,;\t\näöüß€").toCharArray();
+        private final String[] boundaries;
+        private final int maxLength;
+
+        StringGenerator(DataType type, TestDbms dbms, int nullPercent) {
+            super(type, nullPercent);
+            // VARCHAR(255) on MySQL
+            this.maxLength = type == DataType.VARCHAR && dbms == TestDbms.MYSQL ? 255 : 1000;
+            StringBuilder longest = new StringBuilder(maxLength);
+            for (int i = 0; i < maxLength; i++) {
+                longest.append((char) ('a' + i % 26));
+            }
+            this.boundaries = new String[] { "", " ", "a", "A", "NULL", "null", "'", "''", "\\", "%", "_", "0",
+                    "-1", "1e308", "true", "\u00e4", "\ud83d\ude00", " a ", "2000-01-01", longest.toString() };
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            String[] strings = values.strings();
+            int source = source(random);
+            switch (source) {
+                case BOUNDARY:
+                    strings[row] = boundaries[random.nextInt(0, boundaries.length)];
+                    break;
+                case CACHED:
+                    strings[row] = random.getCachedString(type);
+                    break;
+                default:
+                    int length = random.nextInt(0, 17);
+                    char[] chars = new char[length];
+                    for (int i = 0; i < length; i++) {
+                        chars[i] = ALPHABET[random.nextInt(0, ALPHABET.length)];
+                    }
+                    strings[row] = new String(chars);
+                    if (source == FRESH_CACHED) {
+                        random.addToCache(type, strings[row]);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static final class DateGenerator extends ValueGenerator {
+        private static final int[] BOUNDARIES = { 0, -1, 1, MIN_DAY, MAX_DAY, day(2000, 1, 1), day(2000, 2, 29),
+                day(1999, 12, 31), day(1900, 2, 28), day(2038, 1, 19), day(2024, 2, 29) };
+
+        DateGenerator(int nullPercent) {
+            super(DataType.DATE, nullPercent);
+        }
+
+        private static int day(int year, int month, int day) {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            int[] days = values.ints();
+            int source = source(random);
+            switch (source) {
+                case BOUNDARY:
+                    days[row] = BOUNDARIES[random.nextInt(0, BOUNDARIES.length)];
+                    break;
+                case CACHED:
+                    days[row] = (int) random.getCachedLong(type);
+                    break;
+                default:
+                    days[row] = random.nextInt(MIN_DAY, MAX_DAY + 1);
+                    if (source == FRESH_CACHED) {
+                        random.addToCache(type, days[row]);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static final class DateTimeGenerator extends ValueGenerator {
+        private final long[] boundaries;
+
+        DateTimeGenerator(TestDbms dbms, int nullPercent) {
+            super(DataType.DATETIME, nullPercent);
+            // MySQL rounds a fraction of a second away, 9999-12-31 23:59:59.999999 is out
+            // of range there
+            long last = (MAX_DAY + 1L) * MICROS_PER_DAY - (dbms == TestDbms.MYSQL ? 1_000_000 : 1);
+            this.boundaries = new long[] { 0, 1_000_000, -1, micros(2038, 1, 19, 3, 14, 7), micros(2038, 1, 19, 3, 14, 8),
+                    MIN_DAY * MICROS_PER_DAY, last, micros(2000, 2, 29, 12, 0, 0), micros(2016, 12, 31, 23, 59, 59),
+                    micros(1999, 12, 31, 23, 59, 59) + 999_999 };
+        }
+
+        private static long micros(int year, int month, int day, int hour, int minute, int second) {
+            return LocalDateTime.of(year, month, day, hour, minute, second).toEpochSecond(ZoneOffset.UTC) * 1_000_000;
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            long[] micros = values.longs();
+            int source = source(random);
+            switch (source) {
+                case BOUNDARY:
+                    micros[row] = boundaries[random.nextInt(0, boundaries.length)];
+                    break;
+                case CACHED:
+                    micros[row] = random.getCachedLong(type);
+                    break;
+                default:
+                    // whole seconds mostly, MySQL drops the fraction of DATETIME
+                    micros[row] = random.nextLong(MIN_DAY, MAX_DAY + 1L) * MICROS_PER_DAY
+                            + random.nextLong(0, 86_400) * 1_000_000
+                            + (random.nextLong(0, 4) == 0 ? random.nextLong(0, 1_000_000) : 0);
+                    if (source == FRESH_CACHED) {
+                        random.addToCache(type, micros[row]);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static final class TimeGenerator extends ValueGenerator {
+        private static final long[] BOUNDARIES = { 0, 1_000_000, MICROS_PER_DAY - 1_000_000, MICROS_PER_DAY - 1,
+                LocalTime.NOON.toNanoOfDay() / 1000, LocalTime.of(23, 59).toNanoOfDay() / 1000 };
+
+        TimeGenerator(int nullPercent) {
+            super(DataType.TIME, nullPercent);
+        }
+
+        @Override
+        protected void generateRow(Randomly random, ColumnValues values, int row) {
+            long[] micros = values.longs();
+            int source = source(random);
+            switch (source) {
+                case BOUNDARY:
+                    micros[row] = BOUNDARIES[random.nextInt(0, BOUNDARIES.length)];
+                    break;
+                case CACHED:
+                    micros[row] = random.getCachedLong(type);
+                    break;
+                default:
+                    micros[row] = random.nextLong(0, 86_400) * 1_000_000;
+                    if (source == FRESH_CACHED) {
+                        random.addToCache(type, micros[row]);
+                    }
+                    break;
+            }
+        }
+    }
+}
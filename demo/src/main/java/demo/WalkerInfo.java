@@ -0,0 +1,218 @@
+package demo;
+
+import java.sql.Connection;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import demo.Schema.Table;
+import demo.state.StateMachine;
+import demo.state.TransitionGraph;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+
+/**
+ * State owned by a single walker: its state machine, the backend it talks to and
+ * the connections, tables and schemas it has created so far.
+ *
+ * A WalkerInfo is confined to the thread that runs the walker, see
+ * {@link GlobalInfo#bind(WalkerInfo)}. Nothing in here is thread-safe.
+ */
+public final class WalkerInfo {
+    private final StateMachine stateMachine;
+    private final TestDbms testDbms;
+    private final TestUtil testUtil;
+
+    // print action details to System.out
+    private boolean verbose = true;
+
+    // reseeded for every walk, see demo.campaign.Walker
+    private Randomly random = new Randomly();
+
+    // basic, read only and replication connections, and the one privileged connection
+    private final ConnectionRegistry connections = new ConnectionRegistry();
+
+    // tables and schemas of the database, whichever connection created them
+    // TODO: handle views later
+    private final Catalog catalog = new Catalog();
+
+    public WalkerInfo(TestDbms testDbms, TestUtil testUtil) {
+        this(testDbms, testUtil, TransitionGraph.UNIFORM);
+    }
+
+    public WalkerInfo(TestDbms testDbms, TestUtil testUtil, TransitionGraph graph) {
+        this.stateMachine = new StateMachine(graph);
+        this.testDbms = testDbms;
+        this.testUtil = testUtil;
+    }
+
+    public StateMachine getStateMachine() {
+        return stateMachine;
+    }
+
+    public TestDbms getTestDbms() {
+        return testDbms;
+    }
+
+    public TestUtil getTestUtil() {
+        return testUtil;
+    }
+
+    public Randomly getRandom() {
+        return random;
+    }
+
+    public void setRandom(Randomly random) {
+        this.random = random;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Close every connection opened during the previous walk and start over from
+     * {@link demo.state.State#INITIAL}.
+     */
+    public void reset() {
+        for (Connection con : connections.all()) {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+        stateMachine.reset();
+        connections.clear();
+        catalog.clear();
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    public ConnectionRegistry getConnections() {
+        return connections;
+    }
+
+    @Nullable
+    public List<Connection> allConnections() {
+        return connections.size() == 0 ? null : connections.all();
+    }
+
+    // random pick a connection for replication
+    @Nullable
+    public Connection getAnyConnectionForReplication() {
+        return connections.pickForReplication();
+    }
+
+    @Nullable
+    public Connection getAnyConnection() {
+        return connections.pickAny();
+    }
+
+    public void setBasicConnection(Connection connection) {
+        connections.add(connection, ConnectionRegistry.Role.BASIC);
+    }
+
+    public void setReplicationConnection(Connection originalConnection, Connection replicationConnection) {
+        connections.addReplication(originalConnection, replicationConnection);
+    }
+
+    public void setReadOnlyConnection(Connection readOnlyConnection) {
+        connections.add(readOnlyConnection, ConnectionRegistry.Role.READ_ONLY);
+    }
+
+    public void setPrivilegedConnection(Connection privilegedConnection) {
+        Connection previous = getPrivilegedConnection();
+        if (previous != null && previous != privilegedConnection) {
+            // there is only one privileged connection, nothing can reach the previous one
+            testUtil.closeStatements(previous);
+            TestUtil.closeQuietly(previous);
+        }
+        connections.add(privilegedConnection, ConnectionRegistry.Role.PRIVILEGED);
+    }
+
+    @Nullable
+    public List<Connection> getBasicConnections() {
+        return connections.size(ConnectionRegistry.Role.BASIC) == 0 ? null
+                : connections.get(ConnectionRegistry.Role.BASIC);
+    }
+
+    @Nullable
+    public List<Connection> getReplicationConnections(Connection originalConnection) {
+        return connections.getReplicas(originalConnection);
+    }
+
+    @Nullable
+    public List<Connection> getReadOnlyConnections() {
+        return connections.size(ConnectionRegistry.Role.READ_ONLY) == 0 ? null
+                : connections.get(ConnectionRegistry.Role.READ_ONLY);
+    }
+
+    @Nullable
+    public Connection getPrivilegedConnection() {
+        List<Connection> privileged = connections.get(ConnectionRegistry.Role.PRIVILEGED);
+        return privileged.isEmpty() ? null : privileged.get(0);
+    }
+
+    public void removeConnection(Connection con) {
+        connections.remove(con);
+    }
+
+    public void addNewTable(Connection con, Table table) {
+        catalog.addTable(table);
+    }
+
+    /**
+     * @return the names of the tables in the database; con is ignored, tables
+     *         belong to the database
+     */
+    public NameAllocator getTableNames(Connection con) {
+        return catalog.getTableNames();
+    }
+
+    /**
+     * @return the names of the schemas in the database
+     */
+    public NameAllocator getSchemaNames(Connection con) {
+        return catalog.getSchemaNames();
+    }
+
+    public List<Table> getTables(Connection con) {
+        return catalog.getTables();
+    }
+
+    public void addNewSchema(Connection con, String schema) {
+        catalog.addSchema(schema);
+    }
+
+    public void removeSchema(Connection con, String schema) {
+        catalog.removeSchema(schema);
+    }
+
+    public List<String> getSchemas(Connection con) {
+        return catalog.getSchemas();
+    }
+
+    /**
+     * @param con the connection the schema is for, see {@link Catalog#pickTable}
+     */
+    @Nullable
+    public String getAnySchema(Connection con) {
+        return catalog.pickSchema(con);
+    }
+
+    /**
+     * @param con the connection the table is for, see {@link Catalog#pickTable}
+     */
+    @Nullable
+    public Table getAnyTable(Connection con) {
+        return catalog.pickTable(con);
+    }
+
+    public void removeTable(Connection con, Table table) {
+        catalog.removeTable(table.getName());
+    }
+}
@@ -0,0 +1,252 @@
+package demo.campaign;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import demo.state.Action;
+import demo.state.State;
+import demo.util.TestDbms;
+
+/**
+ * Binary, append-only log of every action performed by a campaign, one fixed-size
+ * record per action. Shared by all walkers of a campaign.
+ *
+ * The log is a sequence of memory-mapped segment files {@code base.000000},
+ * {@code base.000001}, ... of {@code recordsPerSegment} records each. A writer
+ * claims the next record with a single atomic add and fills it in with absolute
+ * puts, so walkers never wait for each other or for the disk; a new segment is
+ * mapped under a lock once every {@code recordsPerSegment} records. Exception
+ * classes are stored as small ids, {@code base.outcomes} lists the class name of
+ * id n on line n.
+ *
+ * Use {@link ActionLogReader} to read the log back.
+ */
+public final class ActionLog implements Closeable {
+    static final int MAGIC = 0x4a544c31; // "JTL1"
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 48;
+
+    // record layout, see ActionRecord
+    static final int WALK_ID = 0;
+    static final int START_NANOS = 8;
+    static final int END_NANOS = 16;
+    static final int STEP = 24;
+    static final int STATE = 28;
+    static final int ACTION = 30;
+    static final int OUTCOME = 32;
+    static final int DBMS = 34;
+    // written last, 0 marks a record that was claimed but never completed
+    static final int COMMITTED = 35;
+    static final int SQL_STATE = 36;
+    static final int SQL_STATE_LENGTH = 5;
+    static final int WALKER = 44;
+
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private final String base;
+    private final int recordsPerSegment;
+    private final AtomicLong nextRecord = new AtomicLong();
+
+    // all segments mapped so far, index = segment number
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    // the segment most writers are writing to, so the common case takes no lock
+    private volatile Segment current;
+
+    private final Map<Class<?>, Integer> outcomeIds = new ConcurrentHashMap<>();
+    private final Writer outcomes;
+    private boolean closed = false;
+
+    private static final class Segment {
+        final long index;
+        final ByteBuffer buffer;
+
+        Segment(long index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+
+    public ActionLog(String base) throws IOException {
+        this(base, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    public ActionLog(String base, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("recordsPerSegment must be positive: " + recordsPerSegment);
+        }
+        this.base = base;
+        this.recordsPerSegment = recordsPerSegment;
+        File parent = new File(base).getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        // the segments of an earlier run of the same base, the reader would read
+        // their records after ours and resolve their outcomes in our outcomes file
+        for (long index = 0;; index++) {
+            File segment = new File(segmentFile(base, index));
+            if (!segment.exists()) {
+                break;
+            }
+            if (!segment.delete()) {
+                throw new IOException("cannot delete " + segment);
+            }
+        }
+        this.outcomes = new OutputStreamWriter(new FileOutputStream(outcomesFile(base)), StandardCharsets.UTF_8);
+        // id 0 is success
+        this.outcomes.write("SUCCESS\n");
+        this.outcomes.flush();
+        this.current = new Segment(0, map(0));
+    }
+
+    static String segmentFile(String base, long index) {
+        return String.format("%s.%06d", base, index);
+    }
+
+    static String outcomesFile(String base) {
+        return base + ".outcomes";
+    }
+
+    public String getBase() {
+        return base;
+    }
+
+    /**
+     * @return number of records claimed so far
+     */
+    public long getRecords() {
+        return nextRecord.get();
+    }
+
+    /**
+     * Append the record of one action.
+     *
+     * @param outcome the exception the action ended with, null on success
+     */
+    public void append(int walker, long walkId, int step, State state, Action action, TestDbms testDbms,
+            long startNanos, long endNanos, @Nullable Exception outcome) {
+        long record = nextRecord.getAndIncrement();
+        long segmentIndex = record / recordsPerSegment;
+        Segment segment = current;
+        ByteBuffer buffer = segment.index == segmentIndex ? segment.buffer : segment(segmentIndex);
+        int at = HEADER_SIZE + (int) (record % recordsPerSegment) * RECORD_SIZE;
+
+        buffer.putLong(at + WALK_ID, walkId);
+        buffer.putLong(at + START_NANOS, startNanos);
+        buffer.putLong(at + END_NANOS, endNanos);
+        buffer.putInt(at + STEP, step);
+        buffer.putShort(at + STATE, (short) state.ordinal());
+        buffer.putShort(at + ACTION, (short) action.ordinal());
+        buffer.put(at + DBMS, (byte) testDbms.ordinal());
+        buffer.putInt(at + WALKER, walker);
+        if (outcome == null) {
+            buffer.putShort(at + OUTCOME, (short) 0);
+        } else {
+            buffer.putShort(at + OUTCOME, (short) outcomeId(outcome.getClass()));
+            String sqlState = outcome instanceof SQLException ? ((SQLException) outcome).getSQLState() : null;
+            // the rest stays zero, segments are new files
+            if (sqlState != null) {
+                for (int i = 0; i < SQL_STATE_LENGTH && i < sqlState.length(); i++) {
+                    buffer.put(at + SQL_STATE + i, (byte) sqlState.charAt(i));
+                }
+            }
+        }
+        buffer.put(at + COMMITTED, (byte) 1);
+    }
+
+    private int outcomeId(Class<?> type) {
+        Integer id = outcomeIds.get(type);
+        return id != null ? id : newOutcomeId(type);
+    }
+
+    private synchronized int newOutcomeId(Class<?> type) {
+        Integer id = outcomeIds.get(type);
+        if (id != null) {
+            return id;
+        }
+        // ids are line numbers of the outcomes file, SUCCESS is line 0
+        id = outcomeIds.size() + 1;
+        try {
+            outcomes.write(type.getSimpleName());
+            outcomes.write('\n');
+            outcomes.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        outcomeIds.put(type, id);
+        return id;
+    }
+
+    private ByteBuffer segment(long index) {
+        synchronized (segments) {
+            if (closed) {
+                throw new IllegalStateException("action log " + base + " is closed");
+            }
+            try {
+                while (segments.size() <= index) {
+                    map(segments.size());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot map " + segmentFile(base, segments.size()), e);
+            }
+            ByteBuffer buffer = segments.get((int) index);
+            if (index > current.index) {
+                current = new Segment(index, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    private MappedByteBuffer map(long index) throws IOException {
+        synchronized (segments) {
+            long size = HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE;
+            MappedByteBuffer buffer;
+            try (RandomAccessFile file = new RandomAccessFile(segmentFile(base, index), "rw")) {
+                file.setLength(size);
+                buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, RECORD_SIZE);
+            buffer.putInt(8, recordsPerSegment);
+            segments.add(buffer);
+            return buffer;
+        }
+    }
+
+    /**
+     * Flush all segments to disk. Records appended concurrently may or may not be
+     * part of the flushed state.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (segments) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+        synchronized (this) {
+            outcomes.close();
+        }
+    }
+}
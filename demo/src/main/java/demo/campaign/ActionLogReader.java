@@ -0,0 +1,99 @@
+package demo.campaign;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
+
+import demo.state.Action;
+import demo.state.State;
+import demo.util.TestDbms;
+
+/**
+ * Streams the records of an {@link ActionLog} back, segment by segment, in the
+ * order they were claimed. Records that were claimed but never completed, e.g.
+ * the unused tail of the last segment, are skipped.
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=demo.campaign.ActionLogReader -Dexec.args="actions.log"
+ * </pre>
+ */
+public final class ActionLogReader {
+    private static final State[] STATES = State.values();
+    private static final Action[] ACTIONS = Action.values();
+    private static final TestDbms[] DBMSS = TestDbms.values();
+
+    private ActionLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: ActionLogReader <action log>");
+            System.exit(2);
+        }
+        long records = read(args[0], System.out::println);
+        System.err.println(records + " records");
+    }
+
+    /**
+     * Pass every record of the log at base to consumer.
+     *
+     * @return number of records read
+     */
+    public static long read(String base, Consumer<ActionRecord> consumer) throws IOException {
+        List<String> outcomes = Files.readAllLines(Paths.get(ActionLog.outcomesFile(base)), StandardCharsets.UTF_8);
+        long records = 0;
+        for (long index = 0;; index++) {
+            File file = new File(ActionLog.segmentFile(base, index));
+            if (!file.exists()) {
+                return records;
+            }
+            records += readSegment(file, outcomes, consumer);
+        }
+    }
+
+    private static long readSegment(File file, List<String> outcomes, Consumer<ActionRecord> consumer)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+        if (buffer.getInt(0) != ActionLog.MAGIC || buffer.getInt(4) != ActionLog.RECORD_SIZE) {
+            throw new IOException(file + " is not an action log segment");
+        }
+        int recordsPerSegment = buffer.getInt(8);
+        long records = 0;
+        byte[] sqlState = new byte[ActionLog.SQL_STATE_LENGTH];
+        for (int i = 0; i < recordsPerSegment; i++) {
+            int at = ActionLog.HEADER_SIZE + i * ActionLog.RECORD_SIZE;
+            if (buffer.get(at + ActionLog.COMMITTED) == 0) {
+                continue;
+            }
+            int outcome = buffer.getShort(at + ActionLog.OUTCOME);
+            int sqlStateLength = 0;
+            while (sqlStateLength < sqlState.length && buffer.get(at + ActionLog.SQL_STATE + sqlStateLength) != 0) {
+                sqlState[sqlStateLength] = buffer.get(at + ActionLog.SQL_STATE + sqlStateLength);
+                sqlStateLength++;
+            }
+            consumer.accept(new ActionRecord(
+                    buffer.getInt(at + ActionLog.WALKER),
+                    buffer.getLong(at + ActionLog.WALK_ID),
+                    buffer.getInt(at + ActionLog.STEP),
+                    STATES[buffer.getShort(at + ActionLog.STATE)],
+                    ACTIONS[buffer.getShort(at + ActionLog.ACTION)],
+                    DBMSS[buffer.get(at + ActionLog.DBMS)],
+                    buffer.getLong(at + ActionLog.START_NANOS),
+                    buffer.getLong(at + ActionLog.END_NANOS),
+                    outcome == 0 ? null : outcomes.get(outcome),
+                    sqlStateLength == 0 ? null : new String(sqlState, 0, sqlStateLength, StandardCharsets.US_ASCII)));
+            records++;
+        }
+        return records;
+    }
+}
@@ -0,0 +1,100 @@
+package demo.campaign;
+
+import javax.annotation.Nullable;
+
+import demo.state.Action;
+import demo.state.State;
+import demo.util.TestDbms;
+
+/**
+ * One action read back from an {@link ActionLog}.
+ */
+public final class ActionRecord {
+    private final int walker;
+    private final long walkId;
+    private final int step;
+    private final State state;
+    private final Action action;
+    private final TestDbms testDbms;
+    private final long startNanos;
+    private final long endNanos;
+    // null for success
+    @Nullable
+    private final String outcome;
+    @Nullable
+    private final String sqlState;
+
+    public ActionRecord(int walker, long walkId, int step, State state, Action action, TestDbms testDbms,
+            long startNanos, long endNanos, @Nullable String outcome, @Nullable String sqlState) {
+        this.walker = walker;
+        this.walkId = walkId;
+        this.step = step;
+        this.state = state;
+        this.action = action;
+        this.testDbms = testDbms;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+        this.outcome = outcome;
+        this.sqlState = sqlState;
+    }
+
+    public int getWalker() {
+        return walker;
+    }
+
+    public long getWalkId() {
+        return walkId;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return the state the action was performed in
+     */
+    public State getState() {
+        return state;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public TestDbms getTestDbms() {
+        return testDbms;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * @return simple class name of the exception the action ended with, null if it
+     *         succeeded
+     */
+    @Nullable
+    public String getOutcome() {
+        return outcome;
+    }
+
+    @Nullable
+    public String getSqlState() {
+        return sqlState;
+    }
+
+    @Override
+    public String toString() {
+        return walker + " " + walkId + " " + step + " " + testDbms + " " + state + " " + action + " "
+                + getDurationNanos() + "ns " + (outcome == null ? "SUCCESS" : outcome)
+                + (sqlState == null ? "" : "[" + sqlState + "]");
+    }
+}
@@ -0,0 +1,262 @@
+package demo.campaign;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import demo.state.CoverageMap;
+import demo.state.ExpectedOutcomes;
+import demo.state.TransitionGraph;
+import demo.state.TransitionWeights;
+import demo.util.BulkLoadStats;
+import demo.util.FetchStats;
+import demo.util.ConnectionPool;
+import demo.util.StatementCache;
+import demo.util.TestUtil;
+
+/**
+ * Runs {@link CampaignConfig#getWalkers()} independent walkers on a worker pool
+ * until the time or walk budget is used up, then reports aggregate throughput.
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=demo.campaign.Campaign -Dcampaign.dbms=duckdb -Dcampaign.walkers=32
+ * </pre>
+ */
+public class Campaign {
+    private final CampaignConfig config;
+    private final CampaignStats stats = new CampaignStats();
+    private final TransitionGraph graph;
+    private final CoverageMap coverage = new CoverageMap();
+    private final ExceptionIndex exceptions = new ExceptionIndex();
+    private final ExpectedOutcomes oracle;
+    private final AtomicLong walksStarted = new AtomicLong();
+    private final AtomicLong walkIds = new AtomicLong();
+    @Nullable
+    private final TraceWriter traceWriter;
+    @Nullable
+    private final ActionLog actionLog;
+    private final boolean timeLimited;
+    private final long deadlineNanos;
+    private volatile boolean stopped = false;
+
+    public Campaign(CampaignConfig config) {
+        this.config = config;
+        // shared by all walkers, it is immutable
+        this.graph = new TransitionGraph(TransitionWeights.parse(config.getWeights()));
+        try {
+            this.oracle = config.getOracle().isEmpty() ? ExpectedOutcomes.NONE
+                    : ExpectedOutcomes.load(Paths.get(config.getOracle()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read oracle " + config.getOracle(), e);
+        }
+        this.timeLimited = config.getDurationSeconds() > 0;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        try {
+            this.traceWriter = config.getTraceFile().isEmpty() ? null : new TraceWriter(new File(config.getTraceFile()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open trace file " + config.getTraceFile(), e);
+        }
+        try {
+            this.actionLog = config.getActionLog().isEmpty() ? null : new ActionLog(config.getActionLog());
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open action log " + config.getActionLog(), e);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        CampaignConfig config = CampaignConfig.fromSystemProperties();
+        System.out.println("Campaign: " + config);
+        Campaign campaign = new Campaign(config);
+        campaign.run();
+        System.out.println(campaign.summary());
+    }
+
+    public CampaignConfig getConfig() {
+        return config;
+    }
+
+    public TransitionGraph getGraph() {
+        return graph;
+    }
+
+    public CoverageMap getCoverage() {
+        return coverage;
+    }
+
+    public ExpectedOutcomes getOracle() {
+        return oracle;
+    }
+
+    /**
+     * @return the buckets of the exceptions the oracle did not expect
+     */
+    public ExceptionIndex getExceptions() {
+        return exceptions;
+    }
+
+    @Nullable
+    public TraceWriter getTraceWriter() {
+        return traceWriter;
+    }
+
+    @Nullable
+    public ActionLog getActionLog() {
+        return actionLog;
+    }
+
+    public CampaignStats getStats() {
+        return stats;
+    }
+
+    public String summary() {
+        double cpuHours = stats.getCpuSeconds() / 3600;
+        return stats.summary() + String.format("%n%s, %.0f edges per CPU-hour%n%s%n%s%n%s%n%s%n%s", coverage.summary(),
+                cpuHours > 0 ? coverage.getEdges() / cpuHours : 0.0, exceptions.summary(), StatementCache.summary(),
+                ConnectionPool.summary(), BulkLoadStats.summary(), FetchStats.summary());
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    long nextWalkId() {
+        return walkIds.getAndIncrement();
+    }
+
+    /**
+     * @return the seed of walk walkId, derived from the campaign seed with splitmix64
+     *         so that neighbouring walks get unrelated streams
+     */
+    public long walkSeed(long walkId) {
+        long z = config.getSeed() + (walkId + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Claim the budget for one more walk.
+     *
+     * @return false once the campaign is over
+     */
+    boolean acquireWalk() {
+        if (stopped || timeLimited && System.nanoTime() - deadlineNanos >= 0) {
+            return false;
+        }
+        return config.getMaxWalks() <= 0 || walksStarted.incrementAndGet() <= config.getMaxWalks();
+    }
+
+    public CampaignStats run() throws InterruptedException, ExecutionException {
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(config.getWalkers(),
+                r -> new Thread(r, "walker-" + threadId.getAndIncrement()));
+        ScheduledExecutorService reporter = null;
+        if (config.getReportIntervalSeconds() > 0) {
+            reporter = Executors.newSingleThreadScheduledExecutor();
+            reporter.scheduleAtFixedRate(() -> System.out.println(stats.summary()),
+                    config.getReportIntervalSeconds(), config.getReportIntervalSeconds(), TimeUnit.SECONDS);
+        }
+        if (!config.getExceptionReport().isEmpty()) {
+            if (reporter == null) {
+                reporter = Executors.newSingleThreadScheduledExecutor();
+            }
+            reporter.scheduleAtFixedRate(this::flushExceptions, config.getExceptionFlushSeconds(),
+                    config.getExceptionFlushSeconds(), TimeUnit.SECONDS);
+        }
+        try {
+            List<Future<?>> walkers = new ArrayList<>();
+            for (int i = 0; i < config.getWalkers(); i++) {
+                walkers.add(pool.submit(new Walker(i, this)));
+            }
+            for (Future<?> walker : walkers) {
+                walker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+            finish();
+        }
+        return stats;
+    }
+
+    /**
+     * Write the exception buckets to the exception report, if there is one.
+     */
+    public void flushExceptions() {
+        if (config.getExceptionReport().isEmpty()) {
+            return;
+        }
+        try {
+            exceptions.flush(Paths.get(config.getExceptionReport()));
+        } catch (IOException e) {
+            System.err.println("cannot write " + config.getExceptionReport() + ": " + e);
+        }
+    }
+
+    /**
+     * Stop the clock and flush the traces, the action log and the exception report
+     * once no walker is running any more.
+     */
+    void finish() {
+        stop();
+        stats.finish();
+        TestUtil.closeQuietly(traceWriter);
+        TestUtil.closeQuietly(actionLog);
+        writeCorpus();
+        flushExceptions();
+    }
+
+    /**
+     * Minimize the representative walk of every unexpected exception bucket and
+     * append it to the corpus file, if there is one.
+     */
+    private void writeCorpus() {
+        if (config.getCorpusFile().isEmpty() || exceptions.size() == 0) {
+            return;
+        }
+        try (Minimizer minimizer = new Minimizer(config.getTestDbms(), Runtime.getRuntime().availableProcessors());
+                TraceWriter corpus = new TraceWriter(new File(config.getCorpusFile()))) {
+            for (ExceptionIndex.Bucket bucket : exceptions.buckets()) {
+                WalkTrace trace = bucket.getRepresentative();
+                if (trace != null) {
+                    corpus.write(minimize(minimizer, trace, bucket));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("cannot write " + config.getCorpusFile() + ": " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static WalkTrace minimize(Minimizer minimizer, WalkTrace trace, ExceptionIndex.Bucket bucket)
+            throws InterruptedException {
+        for (int step = 0; step < trace.length(); step++) {
+            if (trace.getAction(step) == bucket.getAction() && bucket.getOutcome().equals(trace.getOutcome(step))) {
+                try {
+                    return minimizer.minimize(trace, step);
+                } catch (IllegalArgumentException e) {
+                    // depends on what earlier walks left in the database
+                    System.err.println(e.getMessage() + ", keeping it as recorded");
+                    return trace;
+                }
+            }
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,282 @@
+package demo.campaign;
+
+import java.util.Random;
+
+import demo.util.TestDbms;
+
+/**
+ * Settings of a fuzzing campaign. Defaults can be overridden with -D system
+ * properties, see {@link #fromSystemProperties()}.
+ */
+public final class CampaignConfig {
+    public enum TraceFilter {
+        ALL, EXCEPTIONS, UNEXPECTED
+    }
+
+    private TestDbms testDbms = TestDbms.DUCKDB;
+    private int walkers = Runtime.getRuntime().availableProcessors();
+    // stop after this many seconds, 0 means no time limit
+    private long durationSeconds = 10;
+    // stop after this many walks in total, 0 means no walk limit
+    private long maxWalks = 0;
+    // a walk that has not reached State.FINAL after this many actions is cut off
+    private int maxActionsPerWalk = 1000;
+    // print a progress line every reportIntervalSeconds, 0 disables it
+    private long reportIntervalSeconds = 0;
+    private boolean verbose = false;
+    // true: bias actions towards rarely covered edges, false: pick by weight only
+    private boolean coverageGuided = false;
+    // walk seeds are derived from this one, see Campaign.walkSeed()
+    private long seed = new Random().nextLong();
+    // append a WalkTrace per walk to this file, empty for no traces
+    private String traceFile = "";
+    // which walks to trace
+    private TraceFilter traceFilter = TraceFilter.EXCEPTIONS;
+    // rules of the expected exceptions, see ExpectedOutcomes, empty for none
+    private String oracle = "";
+    // append a minimized walk per unexpected exception bucket to this file, empty for none
+    private String corpusFile = "";
+    // log every action to this binary ActionLog, empty for no log
+    private String actionLog = "";
+    // write the exception buckets to this file every exceptionFlushSeconds, empty for none
+    private String exceptionReport = "";
+    private long exceptionFlushSeconds = 30;
+    // edge weights of the state machine, see TransitionWeights
+    private String weights = "";
+    // virtual-thread mode only: report carrier pinning that lasts at least this long
+    private long pinnedThresholdMillis = 20;
+
+    public static CampaignConfig fromSystemProperties() {
+        CampaignConfig config = new CampaignConfig();
+        config.testDbms = TestDbms.valueOf(System.getProperty("campaign.dbms", config.testDbms.name()).toUpperCase());
+        config.walkers = Integer.parseInt(System.getProperty("campaign.walkers", Integer.toString(config.walkers)));
+        config.durationSeconds = Long.parseLong(
+                System.getProperty("campaign.duration", Long.toString(config.durationSeconds)));
+        config.maxWalks = Long.parseLong(System.getProperty("campaign.maxWalks", Long.toString(config.maxWalks)));
+        config.maxActionsPerWalk = Integer.parseInt(
+                System.getProperty("campaign.maxActionsPerWalk", Integer.toString(config.maxActionsPerWalk)));
+        config.reportIntervalSeconds = Long.parseLong(
+                System.getProperty("campaign.reportInterval", Long.toString(config.reportIntervalSeconds)));
+        config.verbose = Boolean.parseBoolean(System.getProperty("campaign.verbose", Boolean.toString(config.verbose)));
+        config.coverageGuided = "coverage".equalsIgnoreCase(System.getProperty("campaign.scheduler", "random"));
+        String seed = System.getProperty("campaign.seed");
+        if (seed != null) {
+            config.seed = Long.parseUnsignedLong(seed, 16);
+        }
+        config.traceFile = System.getProperty("campaign.traceFile", config.traceFile);
+        config.traceFilter = TraceFilter.valueOf(
+                System.getProperty("campaign.traceFilter", config.traceFilter.name()).toUpperCase());
+        config.oracle = System.getProperty("campaign.oracle", config.oracle);
+        config.corpusFile = System.getProperty("campaign.corpus", config.corpusFile);
+        config.actionLog = System.getProperty("campaign.actionLog", config.actionLog);
+        config.exceptionReport = System.getProperty("campaign.exceptionReport", config.exceptionReport);
+        config.exceptionFlushSeconds = Long.parseLong(
+                System.getProperty("campaign.exceptionFlushInterval", Long.toString(config.exceptionFlushSeconds)));
+        config.weights = System.getProperty("campaign.weights", config.weights);
+        config.pinnedThresholdMillis = Long.parseLong(
+                System.getProperty("campaign.pinnedThreshold", Long.toString(config.pinnedThresholdMillis)));
+        return config;
+    }
+
+    /**
+     * @return an independent copy of this config
+     */
+    public CampaignConfig copy() {
+        CampaignConfig copy = new CampaignConfig();
+        copy.testDbms = testDbms;
+        copy.walkers = walkers;
+        copy.durationSeconds = durationSeconds;
+        copy.maxWalks = maxWalks;
+        copy.maxActionsPerWalk = maxActionsPerWalk;
+        copy.reportIntervalSeconds = reportIntervalSeconds;
+        copy.verbose = verbose;
+        copy.coverageGuided = coverageGuided;
+        copy.seed = seed;
+        copy.traceFile = traceFile;
+        copy.traceFilter = traceFilter;
+        copy.oracle = oracle;
+        copy.corpusFile = corpusFile;
+        copy.actionLog = actionLog;
+        copy.exceptionReport = exceptionReport;
+        copy.exceptionFlushSeconds = exceptionFlushSeconds;
+        copy.weights = weights;
+        copy.pinnedThresholdMillis = pinnedThresholdMillis;
+        return copy;
+    }
+
+    public TestDbms getTestDbms() {
+        return testDbms;
+    }
+
+    public CampaignConfig setTestDbms(TestDbms testDbms) {
+        this.testDbms = testDbms;
+        return this;
+    }
+
+    public int getWalkers() {
+        return walkers;
+    }
+
+    public CampaignConfig setWalkers(int walkers) {
+        if (walkers < 1) {
+            throw new IllegalArgumentException("at least one walker is required: " + walkers);
+        }
+        this.walkers = walkers;
+        return this;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public CampaignConfig setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+        return this;
+    }
+
+    public long getMaxWalks() {
+        return maxWalks;
+    }
+
+    public CampaignConfig setMaxWalks(long maxWalks) {
+        this.maxWalks = maxWalks;
+        return this;
+    }
+
+    public int getMaxActionsPerWalk() {
+        return maxActionsPerWalk;
+    }
+
+    public CampaignConfig setMaxActionsPerWalk(int maxActionsPerWalk) {
+        this.maxActionsPerWalk = maxActionsPerWalk;
+        return this;
+    }
+
+    public long getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    public CampaignConfig setReportIntervalSeconds(long reportIntervalSeconds) {
+        this.reportIntervalSeconds = reportIntervalSeconds;
+        return this;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public CampaignConfig setVerbose(boolean verbose) {
+        this.verbose = verbose;
+        return this;
+    }
+
+    public boolean isCoverageGuided() {
+        return coverageGuided;
+    }
+
+    public CampaignConfig setCoverageGuided(boolean coverageGuided) {
+        this.coverageGuided = coverageGuided;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public CampaignConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public String getTraceFile() {
+        return traceFile;
+    }
+
+    public CampaignConfig setTraceFile(String traceFile) {
+        this.traceFile = traceFile;
+        return this;
+    }
+
+    public TraceFilter getTraceFilter() {
+        return traceFilter;
+    }
+
+    public CampaignConfig setTraceFilter(TraceFilter traceFilter) {
+        this.traceFilter = traceFilter;
+        return this;
+    }
+
+    public String getOracle() {
+        return oracle;
+    }
+
+    public CampaignConfig setOracle(String oracle) {
+        this.oracle = oracle;
+        return this;
+    }
+
+    public String getCorpusFile() {
+        return corpusFile;
+    }
+
+    public CampaignConfig setCorpusFile(String corpusFile) {
+        this.corpusFile = corpusFile;
+        return this;
+    }
+
+    public String getActionLog() {
+        return actionLog;
+    }
+
+    public CampaignConfig setActionLog(String actionLog) {
+        this.actionLog = actionLog;
+        return this;
+    }
+
+    public String getExceptionReport() {
+        return exceptionReport;
+    }
+
+    public CampaignConfig setExceptionReport(String exceptionReport) {
+        this.exceptionReport = exceptionReport;
+        return this;
+    }
+
+    public long getExceptionFlushSeconds() {
+        return exceptionFlushSeconds;
+    }
+
+    public CampaignConfig setExceptionFlushSeconds(long exceptionFlushSeconds) {
+        if (exceptionFlushSeconds < 1) {
+            throw new IllegalArgumentException("exception flush interval must be positive: " + exceptionFlushSeconds);
+        }
+        this.exceptionFlushSeconds = exceptionFlushSeconds;
+        return this;
+    }
+
+    public String getWeights() {
+        return weights;
+    }
+
+    public CampaignConfig setWeights(String weights) {
+        this.weights = weights;
+        return this;
+    }
+
+    public long getPinnedThresholdMillis() {
+        return pinnedThresholdMillis;
+    }
+
+    public CampaignConfig setPinnedThresholdMillis(long pinnedThresholdMillis) {
+        this.pinnedThresholdMillis = pinnedThresholdMillis;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "dbms=" + testDbms + ", seed=" + Long.toHexString(seed) + ", walkers=" + walkers + ", duration=" + durationSeconds + "s, maxWalks="
+                + maxWalks + ", maxActionsPerWalk=" + maxActionsPerWalk
+                + ", scheduler=" + (coverageGuided ? "coverage" : "random")
+                + (weights.isEmpty() ? "" : ", weights=" + weights);
+    }
+}
@@ -0,0 +1,111 @@
+package demo.campaign;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by all walkers of a campaign. Walkers only ever add to them, so
+ * LongAdder keeps the update cost off the hot path.
+ */
+public final class CampaignStats {
+    private final LongAdder walks = new LongAdder();
+    private final LongAdder actions = new LongAdder();
+    // walks that went through State.EXCEPTION
+    private final LongAdder exceptionWalks = new LongAdder();
+    // walks cut off by maxActionsPerWalk
+    private final LongAdder truncatedWalks = new LongAdder();
+    // exceptions the oracle did and did not expect
+    private final LongAdder expectedExceptions = new LongAdder();
+    private final LongAdder unexpectedExceptions = new LongAdder();
+
+    private final long startNanos = System.nanoTime();
+    private final long startCpuNanos = processCpuNanos();
+    private volatile long endNanos = 0;
+    private volatile long endCpuNanos = 0;
+
+    void walkFinished(int actionCount, boolean exception, boolean truncated) {
+        walks.increment();
+        actions.add(actionCount);
+        if (exception) {
+            exceptionWalks.increment();
+        }
+        if (truncated) {
+            truncatedWalks.increment();
+        }
+    }
+
+    void exception(boolean expected) {
+        if (expected) {
+            expectedExceptions.increment();
+        } else {
+            unexpectedExceptions.increment();
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        endCpuNanos = processCpuNanos();
+    }
+
+    private static long processCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    public long getWalks() {
+        return walks.sum();
+    }
+
+    public long getActions() {
+        return actions.sum();
+    }
+
+    public long getExceptionWalks() {
+        return exceptionWalks.sum();
+    }
+
+    public long getTruncatedWalks() {
+        return truncatedWalks.sum();
+    }
+
+    public long getExpectedExceptions() {
+        return expectedExceptions.sum();
+    }
+
+    public long getUnexpectedExceptions() {
+        return unexpectedExceptions.sum();
+    }
+
+    public double getElapsedSeconds() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return (end - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @return CPU time used by the whole process while the campaign ran
+     */
+    public double getCpuSeconds() {
+        long end = endCpuNanos != 0 ? endCpuNanos : processCpuNanos();
+        return (end - startCpuNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public double getWalksPerSecond() {
+        return getWalks() / Math.max(getElapsedSeconds(), 1e-9);
+    }
+
+    public double getActionsPerSecond() {
+        return getActions() / Math.max(getElapsedSeconds(), 1e-9);
+    }
+
+    public String summary() {
+        return String.format("%d walks, %d actions in %.1fs: %.1f walks/s, %.1f actions/s"
+                + " (%d walks hit an exception, %d truncated; %d expected, %d unexpected exceptions)",
+                getWalks(), getActions(), getElapsedSeconds(), getWalksPerSecond(), getActionsPerSecond(),
+                getExceptionWalks(), getTruncatedWalks(), getExpectedExceptions(), getUnexpectedExceptions());
+    }
+}
@@ -0,0 +1,223 @@
+package demo.campaign;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import demo.state.State;
+import demo.util.TestDbms;
+import demo.util.TestUtilFactory;
+
+/**
+ * Runs the same walk against several backends at once and compares them step by
+ * step. Every backend performs the walk with the same seed on its own thread, so
+ * the backends choose the same actions for as long as the actions end the same
+ * way; the first step where the outcome (success or failure) or the state the
+ * machine ends up in differs is reported as a divergence. A walk takes as long as
+ * its slowest backend rather than the sum of all of them.
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=demo.campaign.Differential -Ddifferential.dbms=postgres,duckdb,mysql -Dcampaign.maxWalks=1000
+ * </pre>
+ */
+public final class Differential implements AutoCloseable {
+    private final CampaignConfig config;
+    private final TestDbms[] backends;
+    // one campaign per backend, for its graph, oracle and counters
+    private final Campaign[] campaigns;
+    private final Walker[] walkers;
+    private final ExecutorService pool;
+    private long walks = 0;
+    private long divergentWalks = 0;
+
+    /**
+     * One step of a walk on which the backends disagree.
+     */
+    public static final class Divergence {
+        private final long walkId;
+        private final int step;
+        private final TestDbms[] backends;
+        private final WalkTrace[] traces;
+        private final State[][] states;
+
+        Divergence(long walkId, int step, TestDbms[] backends, WalkTrace[] traces, State[][] states) {
+            this.walkId = walkId;
+            this.step = step;
+            this.backends = backends;
+            this.traces = traces;
+            this.states = states;
+        }
+
+        public long getWalkId() {
+            return walkId;
+        }
+
+        public int getStep() {
+            return step;
+        }
+
+        /**
+         * @return the walk as performed by every backend, in the order of the backends
+         */
+        public List<WalkTrace> getTraces() {
+            return Arrays.asList(traces);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("walk ").append(walkId).append(" diverges at step ").append(step).append(':');
+            for (int i = 0; i < backends.length; i++) {
+                sb.append(String.format("%n\t%-8s ", backends[i]));
+                if (step < traces[i].length()) {
+                    String outcome = traces[i].getOutcome(step);
+                    sb.append(traces[i].getAction(step)).append(" -> ").append(outcome == null ? "SUCCESS" : outcome)
+                            .append(", now in ").append(states[i][step]);
+                } else {
+                    sb.append("walk over after ").append(traces[i].length()).append(" steps");
+                }
+            }
+            for (WalkTrace trace : traces) {
+                sb.append(String.format("%n\t%s", trace.encode()));
+            }
+            return sb.toString();
+        }
+    }
+
+    public Differential(CampaignConfig config, TestDbms... backends) {
+        if (backends.length < 2) {
+            throw new IllegalArgumentException("need at least two backends to compare: " + Arrays.toString(backends));
+        }
+        this.config = config;
+        this.backends = backends;
+        this.campaigns = new Campaign[backends.length];
+        this.walkers = new Walker[backends.length];
+        for (int i = 0; i < backends.length; i++) {
+            // same seed everywhere, so walk n gets the same seed on every backend; the
+            // divergences carry the traces, the backends do not write files of their own
+            CampaignConfig backendConfig = config.copy().setTestDbms(backends[i]).setWalkers(1).setTraceFile("")
+                    .setActionLog("").setExceptionReport("").setCorpusFile("");
+            campaigns[i] = new Campaign(backendConfig);
+            walkers[i] = new Walker(i, campaigns[i],
+                    TestUtilFactory.createIsolated(backends[i], "differential_" + i));
+        }
+        AtomicInteger threadId = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(backends.length,
+                r -> new Thread(r, "differential-" + backends[threadId.getAndIncrement()]));
+    }
+
+    public static void main(String[] args) throws Exception {
+        CampaignConfig config = CampaignConfig.fromSystemProperties();
+        String[] names = System.getProperty("differential.dbms", "postgres,duckdb,mysql").split(",");
+        TestDbms[] backends = new TestDbms[names.length];
+        for (int i = 0; i < names.length; i++) {
+            backends[i] = TestDbms.valueOf(names[i].trim().toUpperCase());
+        }
+        System.out.println("Differential: " + Arrays.toString(backends) + ", " + config);
+        try (Differential differential = new Differential(config, backends)) {
+            differential.run();
+            System.out.println(differential.summary());
+        }
+    }
+
+    /**
+     * Compare walks until the walk or time budget of the config is used up.
+     */
+    public void run() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        for (long walkId = 0; config.getMaxWalks() <= 0 || walkId < config.getMaxWalks(); walkId++) {
+            if (config.getDurationSeconds() > 0 && System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            Divergence divergence = compare(walkId);
+            if (divergence != null) {
+                System.out.println(divergence);
+            }
+        }
+    }
+
+    /**
+     * Run walk walkId on every backend in parallel and compare the results.
+     *
+     * @return where the backends first disagree, null if they agree on every step
+     */
+    @Nullable
+    public Divergence compare(long walkId) throws InterruptedException {
+        long seed = campaigns[0].walkSeed(walkId);
+        List<Future<?>> running = new ArrayList<>();
+        for (Walker walker : walkers) {
+            running.add(pool.submit(() -> walker.walkOnce(walkId, seed)));
+        }
+        try {
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("walk " + walkId + " failed", e.getCause());
+        }
+
+        WalkTrace[] traces = new WalkTrace[walkers.length];
+        State[][] states = new State[walkers.length][];
+        for (int i = 0; i < walkers.length; i++) {
+            traces[i] = walkers[i].getLastTrace();
+            states[i] = walkers[i].getLastStates();
+        }
+        walks++;
+        int step = firstDivergence(traces, states);
+        if (step < 0) {
+            return null;
+        }
+        divergentWalks++;
+        return new Divergence(walkId, step, backends, traces, states);
+    }
+
+    private static int firstDivergence(WalkTrace[] traces, State[][] states) {
+        for (int step = 0;; step++) {
+            boolean over = step >= traces[0].length();
+            for (int i = 1; i < traces.length; i++) {
+                if (over != step >= traces[i].length()) {
+                    return step;
+                }
+                if (!over && (traces[i].getAction(step) != traces[0].getAction(step)
+                        || (traces[i].getOutcome(step) == null) != (traces[0].getOutcome(step) == null)
+                        || states[i][step] != states[0][step])) {
+                    return step;
+                }
+            }
+            if (over) {
+                return -1;
+            }
+        }
+    }
+
+    public long getWalks() {
+        return walks;
+    }
+
+    public long getDivergentWalks() {
+        return divergentWalks;
+    }
+
+    public String summary() {
+        return walks + " walks compared on " + Arrays.toString(backends) + ", " + divergentWalks + " diverged";
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        for (Walker walker : walkers) {
+            walker.getInfo().getTestUtil().closePools();
+        }
+        for (Campaign campaign : campaigns) {
+            campaign.finish();
+        }
+    }
+}
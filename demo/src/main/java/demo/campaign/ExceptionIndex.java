@@ -0,0 +1,241 @@
+package demo.campaign;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import demo.state.Action;
+import demo.state.CoverageMap;
+import demo.util.TestDbms;
+
+/**
+ * Buckets the exceptions of a campaign by signature: backend, failing action,
+ * exception class, SQLState, message with quoted names and numbers stripped, the top
+ * stack frames inside the driver. Every bucket counts its hits and keeps the first
+ * walk that hit it as a representative, so a campaign reports each distinct
+ * failure once instead of once per walk.
+ *
+ * Shared by all walkers; a hit on a known bucket is a lock-free map lookup and an
+ * increment.
+ */
+public final class ExceptionIndex {
+    // stack frames of the driver that are part of the signature
+    static final int DRIVER_FRAMES = 3;
+
+    private static final Pattern QUOTED = Pattern.compile("'[^']*'|\"[^\"]*\"");
+    private static final Pattern HEX = Pattern.compile("0x[0-9a-fA-F]+|@[0-9a-fA-F]+");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public static final class Bucket {
+        private final TestDbms testDbms;
+        private final Action action;
+        private final String exceptionClass;
+        @Nullable
+        private final String sqlState;
+        private final String message;
+        private final String frames;
+        // as in a WalkTrace, see CoverageMap.outcomeOf()
+        private final String outcome;
+        // message of the first hit, before normalization
+        @Nullable
+        private final String example;
+        private final LongAdder hits = new LongAdder();
+        private final AtomicReference<WalkTrace> representative = new AtomicReference<>();
+
+        Bucket(TestDbms testDbms, Action action, Exception exception, String message, String frames) {
+            this.testDbms = testDbms;
+            this.action = action;
+            this.exceptionClass = exception.getClass().getName();
+            this.sqlState = sqlStateOf(exception);
+            this.message = message;
+            this.frames = frames;
+            this.outcome = CoverageMap.outcomeOf(exception);
+            this.example = exception.getMessage();
+        }
+
+        public TestDbms getTestDbms() {
+            return testDbms;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public String getExceptionClass() {
+            return exceptionClass;
+        }
+
+        @Nullable
+        public String getSqlState() {
+            return sqlState;
+        }
+
+        /**
+         * @return the normalized message
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        public String getFrames() {
+            return frames;
+        }
+
+        /**
+         * @return the outcome class of the bucket as recorded in walk traces
+         */
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        /**
+         * @return the first walk that completed after hitting this bucket, null until
+         *         that walk is over
+         */
+        @Nullable
+        public WalkTrace getRepresentative() {
+            return representative.get();
+        }
+
+        /**
+         * Make trace the representative of this bucket unless it already has one.
+         */
+        public boolean offerRepresentative(WalkTrace trace) {
+            return representative.compareAndSet(null, trace);
+        }
+
+        @Override
+        public String toString() {
+            WalkTrace trace = representative.get();
+            return getHits() + "x " + testDbms + " " + action + " " + exceptionClass
+                    + (sqlState != null ? "[" + sqlState + "]" : "") + ": " + message
+                    + (example != null && !example.equals(message) ? "\n\te.g. " + example : "")
+                    + "\n\tat " + frames
+                    + (trace != null ? "\n\twalk " + trace.encode() : "");
+        }
+    }
+
+    /**
+     * Count one exception that action ended with on testDbms.
+     *
+     * @return the bucket of the exception
+     */
+    public Bucket record(TestDbms testDbms, Action action, Exception exception) {
+        String message = normalize(exception.getMessage());
+        String frames = driverFrames(exception);
+        String sqlState = sqlStateOf(exception);
+        String key = testDbms.ordinal() + "|" + action.ordinal() + "|" + exception.getClass().getName() + "|"
+                + sqlState + "|" + message + "|" + frames;
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(testDbms, action, exception, message, frames));
+        }
+        bucket.hits.increment();
+        return bucket;
+    }
+
+    @Nullable
+    private static String sqlStateOf(Exception exception) {
+        return exception instanceof SQLException ? ((SQLException) exception).getSQLState() : null;
+    }
+
+    /**
+     * Strip what differs between two occurrences of the same failure: quoted names and
+     * values, numbers and object addresses.
+     */
+    public static String normalize(@Nullable String message) {
+        if (message == null) {
+            return "";
+        }
+        String normalized = QUOTED.matcher(message).replaceAll("?");
+        normalized = HEX.matcher(normalized).replaceAll("#");
+        return NUMBER.matcher(normalized).replaceAll("N");
+    }
+
+    /**
+     * @return the top stack frames that belong to the driver, or to whatever threw the
+     *         exception if no driver frame is on the stack
+     */
+    static String driverFrames(Throwable exception) {
+        StackTraceElement[] trace = exception.getStackTrace();
+        StringBuilder sb = new StringBuilder();
+        int frames = 0;
+        for (StackTraceElement frame : trace) {
+            if (frames < DRIVER_FRAMES && !isHarnessFrame(frame.getClassName())) {
+                if (frames++ > 0) {
+                    sb.append(" < ");
+                }
+                sb.append(frame.getClassName()).append('.').append(frame.getMethodName());
+            }
+        }
+        if (frames == 0 && trace.length > 0) {
+            sb.append(trace[0].getClassName()).append('.').append(trace[0].getMethodName());
+        }
+        return sb.toString();
+    }
+
+    private static boolean isHarnessFrame(String className) {
+        return className.startsWith("demo.") || className.startsWith("java.") || className.startsWith("javax.")
+                || className.startsWith("sun.") || className.startsWith("jdk.")
+                || className.startsWith("net.sf.log4jdbc.");
+    }
+
+    /**
+     * @return number of distinct signatures seen so far
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * @return all buckets, most hit first
+     */
+    public List<Bucket> buckets() {
+        List<Bucket> result = new ArrayList<>(buckets.values());
+        result.sort((a, b) -> Long.compare(b.getHits(), a.getHits()));
+        return result;
+    }
+
+    public String summary() {
+        long hits = 0;
+        for (Bucket bucket : buckets.values()) {
+            hits += bucket.getHits();
+        }
+        return hits + " exceptions in " + buckets.size() + " buckets";
+    }
+
+    /**
+     * Write a report of all buckets to file, replacing the previous report at once.
+     */
+    public void flush(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            out.write(summary());
+            out.write('\n');
+            for (Bucket bucket : buckets()) {
+                out.write(bucket.toString());
+                out.write('\n');
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,257 @@
+package demo.campaign;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import demo.state.Action;
+import demo.util.DuckDbTestUtil;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+/**
+ * Shrinks a recorded walk that failed to a shorter action sequence that still fails
+ * the same way, with delta debugging (ddmin): split the sequence into n chunks, try
+ * every chunk and every complement of a chunk, keep the first one that still fails
+ * and refine the split when none does.
+ *
+ * A candidate fails the same way if its replay, with the seed of the recorded walk,
+ * performs the target action and gets the same outcome class from it. Candidates
+ * are replayed in strict mode, so a candidate ends at its first action that the
+ * state machine could not have chosen. All candidates of a round are replayed in
+ * parallel, each worker on its own empty DuckDB file; other backends are shared
+ * and use a single worker.
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=demo.campaign.Minimizer -Dexec.args="traces.txt 1234 [threads]"
+ * </pre>
+ */
+public final class Minimizer implements Closeable {
+    private final TestDbms testDbms;
+    private final ExecutorService pool;
+    // one database per worker, taken for the duration of a replay
+    private final BlockingQueue<TestUtil> testUtils;
+    private final AtomicLong replays = new AtomicLong();
+
+    public Minimizer(TestDbms testDbms, int threads) {
+        this.testDbms = testDbms;
+        int workers = testDbms == TestDbms.DUCKDB ? Math.max(threads, 1) : 1;
+        AtomicInteger threadId = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "minimizer-" + threadId.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.testUtils = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; i++) {
+            testUtils.add(TestUtilFactory.createIsolated(testDbms, "minimize_" + i));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: Minimizer <trace file> <walk id> [threads]");
+            System.exit(2);
+        }
+        WalkTrace recorded = Replay.find(args[0], Long.parseLong(args[1]));
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        try (Minimizer minimizer = new Minimizer(recorded.getTestDbms(), threads)) {
+            WalkTrace minimized = minimizer.minimize(recorded);
+            System.out.println("Minimized: " + minimized);
+            System.out.println(minimized.encode());
+            System.out.printf("%d -> %d actions, %d replays in %.1fs%n", recorded.length(), minimized.length(),
+                    minimizer.getReplays(), (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    /**
+     * @return number of candidate replays so far
+     */
+    public long getReplays() {
+        return replays.get();
+    }
+
+    /**
+     * Minimize recorded with respect to the last action that ended with an exception.
+     */
+    public WalkTrace minimize(WalkTrace recorded) throws InterruptedException {
+        for (int step = recorded.length() - 1; step >= 0; step--) {
+            if (recorded.getOutcome(step) != null) {
+                return minimize(recorded, step);
+            }
+        }
+        throw new IllegalArgumentException("walk " + recorded.getWalkId() + " has no exception");
+    }
+
+    /**
+     * Minimize recorded with respect to the action at targetStep and its outcome.
+     *
+     * @return the replay of the smallest failing sequence found, it ends with the
+     *         target action
+     */
+    public WalkTrace minimize(WalkTrace recorded, int targetStep) throws InterruptedException {
+        Action target = recorded.getAction(targetStep);
+        String outcome = recorded.getOutcome(targetStep);
+        if (outcome == null) {
+            throw new IllegalArgumentException("step " + targetStep + " of walk " + recorded.getWalkId()
+                    + " did not fail");
+        }
+
+        Action[] actions = new Action[targetStep + 1];
+        for (int i = 0; i <= targetStep; i++) {
+            actions[i] = recorded.getAction(i);
+        }
+        List<Action[]> first = new ArrayList<>();
+        first.add(actions);
+        Failure current = firstFailure(recorded, first, target, outcome);
+        if (current == null) {
+            throw new IllegalArgumentException("walk " + recorded.getWalkId() + " does not fail with " + target
+                    + " -> " + outcome + " on a fresh " + testDbms + " database");
+        }
+
+        int n = 2;
+        while (current.trace.length() >= 2) {
+            Action[] sequence = actions(current.trace);
+            n = Math.min(n, sequence.length);
+            List<Action[]> candidates = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                candidates.add(chunk(sequence, n, i));
+            }
+            // with two chunks the complements are the chunks themselves
+            if (n > 2) {
+                for (int i = 0; i < n; i++) {
+                    candidates.add(complement(sequence, n, i));
+                }
+            }
+            Failure failure = firstFailure(recorded, candidates, target, outcome);
+            if (failure != null) {
+                current = failure;
+                n = failure.candidate < n ? 2 : Math.max(n - 1, 2);
+            } else if (n >= sequence.length) {
+                break;
+            } else {
+                n = Math.min(n * 2, sequence.length);
+            }
+        }
+        return current.trace;
+    }
+
+    private static final class Failure {
+        // index of the candidate that failed
+        final int candidate;
+        // its replay, cut off after the target action
+        final WalkTrace trace;
+
+        Failure(int candidate, WalkTrace trace) {
+            this.candidate = candidate;
+            this.trace = trace;
+        }
+    }
+
+    /**
+     * Replay all candidates in parallel.
+     *
+     * @return the failure of the first candidate, in list order, that still fails,
+     *         null if none does
+     */
+    @Nullable
+    private Failure firstFailure(WalkTrace recorded, List<Action[]> candidates, Action target, String outcome)
+            throws InterruptedException {
+        List<Future<WalkTrace>> replayed = new ArrayList<>();
+        for (Action[] candidate : candidates) {
+            WalkTrace trace = new WalkTrace(recorded.getWalkId(), recorded.getSeed(), testDbms, candidate,
+                    new String[candidate.length]);
+            replayed.add(pool.submit(() -> replay(trace)));
+        }
+        try {
+            for (int i = 0; i < replayed.size(); i++) {
+                WalkTrace trace = replayed.get(i).get();
+                for (int step = 0; step < trace.length(); step++) {
+                    if (trace.getAction(step) == target && outcome.equals(trace.getOutcome(step))) {
+                        return new Failure(i, prefix(trace, step + 1));
+                    }
+                }
+            }
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("replay failed", e.getCause());
+        } finally {
+            for (Future<WalkTrace> future : replayed) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private WalkTrace replay(WalkTrace candidate) throws InterruptedException, SQLException {
+        TestUtil testUtil = testUtils.take();
+        try {
+            if (testUtil instanceof DuckDbTestUtil) {
+                // every candidate starts from an empty database
+                ((DuckDbTestUtil) testUtil).resetDatabase();
+            }
+            replays.incrementAndGet();
+            return Replay.replay(candidate, testDbms, testUtil, false, true);
+        } finally {
+            testUtils.put(testUtil);
+        }
+    }
+
+    private static Action[] actions(WalkTrace trace) {
+        Action[] actions = new Action[trace.length()];
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = trace.getAction(i);
+        }
+        return actions;
+    }
+
+    private static WalkTrace prefix(WalkTrace trace, int length) {
+        String[] outcomes = new String[length];
+        for (int i = 0; i < length; i++) {
+            outcomes[i] = trace.getOutcome(i);
+        }
+        return new WalkTrace(trace.getWalkId(), trace.getSeed(), trace.getTestDbms(),
+                Arrays.copyOf(actions(trace), length), outcomes);
+    }
+
+    private static int chunkStart(int length, int n, int i) {
+        return (int) ((long) length * i / n);
+    }
+
+    private static Action[] chunk(Action[] sequence, int n, int i) {
+        return Arrays.copyOfRange(sequence, chunkStart(sequence.length, n, i), chunkStart(sequence.length, n, i + 1));
+    }
+
+    private static Action[] complement(Action[] sequence, int n, int i) {
+        int from = chunkStart(sequence.length, n, i);
+        int to = chunkStart(sequence.length, n, i + 1);
+        Action[] complement = new Action[sequence.length - (to - from)];
+        System.arraycopy(sequence, 0, complement, 0, from);
+        System.arraycopy(sequence, to, complement, from, sequence.length - to);
+        return complement;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
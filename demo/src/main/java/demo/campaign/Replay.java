@@ -0,0 +1,89 @@
+package demo.campaign;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+/**
+ * Re-executes a recorded walk: same seed, same actions, in the same order, and
+ * reports the first step at which the outcome differs from the recording.
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=demo.campaign.Replay -Dexec.args="traces.txt 1234 [postgres]"
+ * </pre>
+ */
+public final class Replay {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: Replay <trace file> <walk id> [dbms]");
+            System.exit(2);
+        }
+        WalkTrace recorded = find(args[0], Long.parseLong(args[1]));
+        TestDbms testDbms = args.length > 2 ? TestDbms.valueOf(args[2].toUpperCase()) : recorded.getTestDbms();
+
+        WalkTrace replayed = replay(recorded, testDbms, true);
+        int divergence = recorded.firstDivergence(replayed);
+        System.out.println("Recorded: " + recorded);
+        System.out.println("Replayed: " + replayed);
+        if (divergence < 0) {
+            System.out.println("Reproduced walk " + recorded.getWalkId() + " exactly on " + testDbms);
+        } else {
+            System.out.println("Diverged at step " + divergence);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return the walk with the given id from a trace file written by a campaign
+     */
+    public static WalkTrace find(String traceFile, long walkId) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(traceFile), StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.startsWith(walkId + " ")) {
+                return WalkTrace.decode(line);
+            }
+        }
+        throw new IllegalArgumentException("walk " + walkId + " is not in " + traceFile);
+    }
+
+    /**
+     * Replay recorded against testDbms, starting from an empty embedded database.
+     *
+     * @return the trace of the replayed walk
+     */
+    public static WalkTrace replay(WalkTrace recorded, TestDbms testDbms, boolean verbose) {
+        return replay(recorded, testDbms, TestUtilFactory.createIsolated(testDbms, "replay"), verbose);
+    }
+
+    /**
+     * Replay recorded against the database behind testUtil.
+     *
+     * @return the trace of the replayed walk
+     */
+    public static WalkTrace replay(WalkTrace recorded, TestDbms testDbms, TestUtil testUtil, boolean verbose) {
+        return replay(recorded, testDbms, testUtil, verbose, false);
+    }
+
+    /**
+     * @param strict stop at the first recorded action that the state machine would
+     *        not have chosen in the state it is in
+     */
+    static WalkTrace replay(WalkTrace recorded, TestDbms testDbms, TestUtil testUtil, boolean verbose,
+            boolean strict) {
+        CampaignConfig config = new CampaignConfig()
+                .setTestDbms(testDbms)
+                .setWalkers(1)
+                .setMaxActionsPerWalk(Math.max(recorded.length(), 1))
+                .setVerbose(verbose);
+        Walker walker = new Walker(0, new Campaign(config), testUtil);
+        walker.getInfo().getStateMachine().setScheduler(new ReplayScheduler(recorded, strict));
+        walker.walkOnce(recorded.getWalkId(), recorded.getSeed());
+        return walker.getLastTrace();
+    }
+}
@@ -0,0 +1,56 @@
+package demo.campaign;
+
+import javax.annotation.Nullable;
+
+import demo.Randomly;
+import demo.state.Action;
+import demo.state.ActionScheduler;
+import demo.state.State;
+import demo.state.TransitionGraph;
+
+/**
+ * Feeds the actions of a recorded walk back to the state machine, whatever state
+ * it is in, or in strict mode only as long as every action is a candidate of the
+ * state the machine is in.
+ */
+final class ReplayScheduler implements ActionScheduler {
+    private final WalkTrace trace;
+    private final boolean strict;
+    private int step = 0;
+
+    ReplayScheduler(WalkTrace trace) {
+        this(trace, false);
+    }
+
+    ReplayScheduler(WalkTrace trace, boolean strict) {
+        this.trace = trace;
+        this.strict = strict;
+    }
+
+    @Override
+    @Nullable
+    public Action selectAction(TransitionGraph graph, State state) {
+        // keep the random stream in step with the recorded walk
+        Randomly.getUniformDouble();
+        if (step >= trace.length()) {
+            return null;
+        }
+        Action action = trace.getAction(step);
+        if (strict && !isCandidate(graph.actionCandidates(state), action)) {
+            return null;
+        }
+        step++;
+        return action;
+    }
+
+    private static boolean isCandidate(@Nullable Action[] candidates, Action action) {
+        if (candidates != null) {
+            for (Action candidate : candidates) {
+                if (candidate == action) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package demo.campaign;
+
+import java.sql.Connection;
+
+import demo.util.ResultDigest;
+import demo.util.ResultSpill;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+/**
+ * Runs one query on two backends and compares the digests of their results,
+ * which take the same memory for any number of rows. When the digests differ,
+ * the query runs again with its rows spilled to disk and the rows that are in
+ * only one of the results are printed, the first {@code resultDiff.limit} (20)
+ * of them. Unordered by default, "ordered" compares the rows in order.
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=demo.campaign.ResultDiff -Dexec.args="postgres duckdb 'SELECT ...' [ordered]"
+ * </pre>
+ */
+public final class ResultDiff {
+    private static final int LIMIT = Integer.getInteger("resultDiff.limit", 20);
+
+    private ResultDiff() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: ResultDiff <dbms> <dbms> <query> [ordered]");
+            System.exit(2);
+        }
+        TestUtil first = TestUtilFactory.create(TestDbms.valueOf(args[0].toUpperCase()));
+        TestUtil second = TestUtilFactory.create(TestDbms.valueOf(args[1].toUpperCase()));
+        String sql = args[2];
+        boolean ordered = args.length > 3 && args[3].equalsIgnoreCase("ordered");
+
+        ResultDigest a = digest(first, sql, new ResultDigest(ordered));
+        ResultDigest b = digest(second, sql, new ResultDigest(ordered));
+        System.out.println(args[0] + ": " + a);
+        System.out.println(args[1] + ": " + b);
+        if (a.equals(b)) {
+            return;
+        }
+        try (ResultSpill x = new ResultSpill(ordered); ResultSpill y = new ResultSpill(ordered)) {
+            digest(first, sql, new ResultDigest(ordered, x));
+            digest(second, sql, new ResultDigest(ordered, y));
+            System.out.println(ResultSpill.compare(x, y, LIMIT));
+        }
+        System.exit(1);
+    }
+
+    private static ResultDigest digest(TestUtil testUtil, String sql, ResultDigest digest) throws Exception {
+        Connection con = testUtil.openConnection();
+        try {
+            testUtil.digestQuery(con, sql, null, digest);
+            return digest;
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package demo.campaign;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import demo.state.Action;
+import demo.util.TestDbms;
+
+/**
+ * What a walk did: the seed it ran with and the action it performed at every step,
+ * together with the outcome class of that action (see
+ * {@link demo.state.CoverageMap#outcomeOf(Exception)}).
+ *
+ * Encoded as one line: {@code walkId seed dbms steps}, where the seed is hex and
+ * steps is a comma separated list of action ordinals, each followed by
+ * {@code !OUTCOME} if the action did not succeed, e.g.
+ * {@code 17 5deece66d DUCKDB 3,6,6!SQLException[42P07],13}.
+ */
+public final class WalkTrace {
+    private static final Action[] ACTIONS = Action.values();
+
+    private final long walkId;
+    private final long seed;
+    private final TestDbms testDbms;
+    private final Action[] actions;
+    // null for success
+    private final String[] outcomes;
+
+    public WalkTrace(long walkId, long seed, TestDbms testDbms, Action[] actions, String[] outcomes) {
+        if (actions.length != outcomes.length) {
+            throw new IllegalArgumentException(actions.length + " actions but " + outcomes.length + " outcomes");
+        }
+        this.walkId = walkId;
+        this.seed = seed;
+        this.testDbms = testDbms;
+        this.actions = actions;
+        this.outcomes = outcomes;
+    }
+
+    public long getWalkId() {
+        return walkId;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public TestDbms getTestDbms() {
+        return testDbms;
+    }
+
+    public int length() {
+        return actions.length;
+    }
+
+    public Action getAction(int step) {
+        return actions[step];
+    }
+
+    /**
+     * @return the outcome class of step, null if the action succeeded
+     */
+    @Nullable
+    public String getOutcome(int step) {
+        return outcomes[step];
+    }
+
+    public boolean hasException() {
+        for (String outcome : outcomes) {
+            if (outcome != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the first step at which the two walks performed a different action or
+     *         got a different outcome, -1 if they are identical
+     */
+    public int firstDivergence(WalkTrace other) {
+        int common = Math.min(length(), other.length());
+        for (int i = 0; i < common; i++) {
+            if (actions[i] != other.actions[i] || !equal(outcomes[i], other.outcomes[i])) {
+                return i;
+            }
+        }
+        return length() == other.length() ? -1 : common;
+    }
+
+    private static boolean equal(@Nullable String a, @Nullable String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    public String encode() {
+        StringBuilder sb = new StringBuilder(16 + actions.length * 3);
+        sb.append(walkId).append(' ').append(Long.toHexString(seed)).append(' ').append(testDbms).append(' ');
+        for (int i = 0; i < actions.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(actions[i].ordinal());
+            if (outcomes[i] != null) {
+                sb.append('!').append(outcomes[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    public static WalkTrace decode(String line) {
+        String[] parts = line.trim().split(" ", 4);
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("not a walk trace: " + line);
+        }
+        long walkId = Long.parseLong(parts[0]);
+        long seed = Long.parseUnsignedLong(parts[1], 16);
+        TestDbms testDbms = TestDbms.valueOf(parts[2]);
+        List<Action> actions = new ArrayList<>();
+        List<String> outcomes = new ArrayList<>();
+        if (parts.length == 4 && !parts[3].isEmpty()) {
+            for (String step : parts[3].split(",")) {
+                int bang = step.indexOf('!');
+                actions.add(ACTIONS[Integer.parseInt(bang < 0 ? step : step.substring(0, bang))]);
+                outcomes.add(bang < 0 ? null : step.substring(bang + 1));
+            }
+        }
+        return new WalkTrace(walkId, seed, testDbms, actions.toArray(new Action[0]),
+                outcomes.toArray(new String[0]));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("walk ").append(walkId).append(" seed ").append(Long.toHexString(seed)).append(" on ")
+                .append(testDbms);
+        for (int i = 0; i < actions.length; i++) {
+            sb.append(String.format("%n\t%3d %s%s", i, actions[i], outcomes[i] != null ? " -> " + outcomes[i] : ""));
+        }
+        return sb.toString();
+    }
+}
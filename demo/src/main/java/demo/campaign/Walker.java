@@ -0,0 +1,212 @@
+package demo.campaign;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import demo.GlobalInfo;
+import demo.WalkerInfo;
+import demo.state.Action;
+import demo.state.CoverageMap;
+import demo.state.CoverageScheduler;
+import demo.state.State;
+import demo.state.StateMachine;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+/**
+ * Runs random walks through the state machine, one after another, on the thread
+ * that calls {@link #run()}. Each walker owns its state machine, its connection
+ * and table registry and its random stream, so walkers never share mutable state.
+ *
+ * Every walk is seeded with {@link Campaign#walkSeed(long)} of its walk id and its
+ * steps are recorded, see {@link #getLastTrace()}.
+ */
+public class Walker implements Runnable {
+    private final int id;
+    private final Campaign campaign;
+    private final WalkerInfo info;
+
+    // steps of the last walk, reused from walk to walk
+    private final Action[] stepActions;
+    private final String[] stepOutcomes;
+    private final State[] stepStates;
+    private int steps = 0;
+    private long walkId = -1;
+    private long seed = 0;
+    // exception buckets of the current walk that still lack a representative walk
+    private final List<ExceptionIndex.Bucket> unrepresented = new ArrayList<>();
+
+    public Walker(int id, Campaign campaign) {
+        this(id, campaign, TestUtilFactory.createForWalker(campaign.getConfig().getTestDbms(), id));
+    }
+
+    public Walker(int id, Campaign campaign, TestUtil testUtil) {
+        this.id = id;
+        this.campaign = campaign;
+        CampaignConfig config = campaign.getConfig();
+        this.info = new WalkerInfo(config.getTestDbms(), testUtil, campaign.getGraph());
+        this.info.setVerbose(config.isVerbose());
+        if (config.isCoverageGuided()) {
+            this.info.getStateMachine().setScheduler(new CoverageScheduler(campaign.getCoverage()));
+        }
+        this.stepActions = new Action[config.getMaxActionsPerWalk()];
+        this.stepOutcomes = new String[config.getMaxActionsPerWalk()];
+        this.stepStates = new State[config.getMaxActionsPerWalk()];
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public WalkerInfo getInfo() {
+        return info;
+    }
+
+    @Override
+    public void run() {
+        GlobalInfo.bind(info);
+        try {
+            while (campaign.acquireWalk()) {
+                walk();
+            }
+        } finally {
+            info.reset();
+            info.getTestUtil().closePools();
+            GlobalInfo.unbind();
+        }
+    }
+
+    /**
+     * Perform a single walk on whatever thread calls this, e.g. a thread started for
+     * this walk only, and close the connections of the walk afterwards.
+     *
+     * @return number of actions performed
+     */
+    public int walkOnce() {
+        long walkId = campaign.nextWalkId();
+        return walkOnce(walkId, campaign.walkSeed(walkId));
+    }
+
+    /**
+     * Like {@link #walkOnce()} but with a given walk id and seed, e.g. to replay a
+     * recorded walk.
+     */
+    public int walkOnce(long walkId, long seed) {
+        GlobalInfo.bind(info);
+        try {
+            return walk(walkId, seed);
+        } finally {
+            info.reset();
+            GlobalInfo.unbind();
+        }
+    }
+
+    /**
+     * Perform a single walk from {@link State#INITIAL} to {@link State#FINAL}. Must be
+     * called on a thread the walker is bound to.
+     *
+     * @return number of actions performed
+     */
+    public int walk() {
+        long walkId = campaign.nextWalkId();
+        return walk(walkId, campaign.walkSeed(walkId));
+    }
+
+    private int walk(long walkId, long seed) {
+        info.reset();
+        // a fresh random stream for every walk, so the walk only depends on its seed
+        info.getRandom().setSeed(seed);
+        this.walkId = walkId;
+        this.seed = seed;
+        this.steps = 0;
+
+        StateMachine stateMachine = info.getStateMachine();
+        CoverageMap coverage = campaign.getCoverage();
+        ActionLog actionLog = campaign.getActionLog();
+        int maxActions = stepActions.length;
+        boolean exception = false;
+        boolean unexpected = false;
+        while (stateMachine.getCurrentState() != State.FINAL && steps < maxActions) {
+            State state = stateMachine.getCurrentState();
+            Action action = stateMachine.selectAction();
+            if (action == null) {
+                break;
+            }
+            GlobalInfo.println("\t Perform Action: " + action);
+            long startNanos = System.nanoTime();
+            try {
+                action.invoke();
+            } catch (Exception e) {
+                // an action failed without routing itself to State.EXCEPTION
+                stateMachine.setException(e);
+                stateMachine.advanceState(State.EXCEPTION);
+            }
+            Exception outcome = stateMachine.getCurrentState() == State.EXCEPTION ? stateMachine.getException() : null;
+            coverage.record(state, action, outcome);
+            if (actionLog != null) {
+                actionLog.append(id, walkId, steps, state, action, info.getTestDbms(), startNanos, System.nanoTime(),
+                        outcome);
+            }
+            if (outcome != null) {
+                exception = true;
+                boolean expected = campaign.getOracle().isExpected(info.getTestDbms(), state, action, outcome);
+                campaign.getStats().exception(expected);
+                if (!expected) {
+                    unexpected = true;
+                    ExceptionIndex.Bucket bucket = campaign.getExceptions().record(info.getTestDbms(), action,
+                            outcome);
+                    if (bucket.getRepresentative() == null) {
+                        unrepresented.add(bucket);
+                    }
+                }
+            }
+            stepActions[steps] = action;
+            stepOutcomes[steps] = outcome == null ? null : CoverageMap.outcomeOf(outcome);
+            stepStates[steps] = stateMachine.getCurrentState();
+            steps++;
+        }
+        boolean truncated = stateMachine.getCurrentState() != State.FINAL;
+        campaign.getStats().walkFinished(steps, exception, truncated);
+
+        TraceWriter traceWriter = campaign.getTraceWriter();
+        boolean traced = traceWriter != null && isTraced(exception, unexpected);
+        if (traced || !unrepresented.isEmpty()) {
+            WalkTrace trace = getLastTrace();
+            if (traced) {
+                traceWriter.write(trace);
+            }
+            for (ExceptionIndex.Bucket bucket : unrepresented) {
+                bucket.offerRepresentative(trace);
+            }
+            unrepresented.clear();
+        }
+        return steps;
+    }
+
+    private boolean isTraced(boolean exception, boolean unexpected) {
+        switch (campaign.getConfig().getTraceFilter()) {
+            case ALL:
+                return true;
+            case EXCEPTIONS:
+                return exception;
+            default:
+                return unexpected;
+        }
+    }
+
+    /**
+     * @return the state the machine was in after every step of the last walk
+     */
+    public State[] getLastStates() {
+        return Arrays.copyOf(stepStates, steps);
+    }
+
+    /**
+     * @return the seed, actions and outcomes of the last walk of this walker
+     */
+    public WalkTrace getLastTrace() {
+        return new WalkTrace(walkId, seed, info.getTestDbms(), Arrays.copyOf(stepActions, steps),
+                Arrays.copyOf(stepOutcomes, steps));
+    }
+}
@@ -5,11 +5,16 @@ import java.sql.SQLException;
 
 import javax.annotation.Nullable;
 
+import demo.ColumnValues;
+import demo.Dml;
 import demo.GlobalInfo;
 import demo.Randomly;
 import demo.Schema;
 import demo.Schema.Table;
+import demo.util.FetchMode;
+import demo.util.MySqlTestUtil;
 import demo.util.TestDbms;
+import demo.util.TestUtil;
 
 public enum Action {
     OPEN_PRIVILEGED_CONNECTION {
@@ -17,16 +22,16 @@ public enum Action {
         public void invoke() throws Exception {
             Connection con;
             try {
-                con = GlobalInfo.testUtil.openPriviligedConnection();
+                con = GlobalInfo.getTestUtil().openPriviligedConnection();
             } catch (SQLException e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.setException(e);
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
                 return;
             }
             GlobalInfo.setPrivilegedConnection(con);
             // make sure we update state only if statement execution was successful
-            GlobalInfo.stateMachine.advanceState(State.CONNECTION_OPENED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.CONNECTION_OPENED);
         }
     },
     OPEN_REPLICATION_CONNECTION {
@@ -34,43 +39,45 @@ public enum Action {
         public void invoke() throws Exception {
             Connection con = GlobalInfo.getAnyConnectionForReplication();
             if (con == null) {
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(new IllegalStateException("no connection available for replication"));
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(new IllegalStateException("no connection available for replication"));
             }
             Connection replicationConnection;
             try {
-                replicationConnection = GlobalInfo.testUtil.openReplicationConnection(con);
+                replicationConnection = GlobalInfo.getTestUtil().openReplicationConnection(con);
             } catch (SQLException e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.setException(e);
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
                 return;
             }
             GlobalInfo.setReplicationConnection(con, replicationConnection);
             // make sure we update state only if statement execution was successful
-            GlobalInfo.stateMachine.advanceState(State.CONNECTION_OPENED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.CONNECTION_OPENED);
         }
     },
     OPEN_READ_ONLY_CONNECTION {
         @Override
         public void invoke() throws Exception {
-            // only postgres has options for read-only connections
-            String option = null;
-            if (GlobalInfo.testDbms == TestDbms.POSTGRES) {
-                option = Randomly.fromOptions("ignore", "transaction", "always");
-                System.out.println("\t option: " + option);
+            // only postgres has options for read-only connections, but draw one for
+            // every backend so that the random stream of a walk does not depend on it
+            String option = Randomly.fromOptions("ignore", "transaction", "always");
+            if (GlobalInfo.getTestDbms() == TestDbms.POSTGRES) {
+                GlobalInfo.println("\t option: " + option);
+            } else {
+                option = null;
             }
             Connection readOnlyConnection;
             try {
-                readOnlyConnection = GlobalInfo.testUtil.openReadOnlyConnection(option);
+                readOnlyConnection = GlobalInfo.getTestUtil().openReadOnlyConnection(option);
             } catch (Exception e) {
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
             GlobalInfo.setReadOnlyConnection(readOnlyConnection);
             // make sure we update state only if statement execution was successful
-            GlobalInfo.stateMachine.advanceState(State.CONNECTION_OPENED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.CONNECTION_OPENED);
 
         }
     },
@@ -79,15 +86,15 @@ public enum Action {
         public void invoke() throws Exception {
             Connection con;
             try {
-                con = GlobalInfo.testUtil.openConnection();
+                con = GlobalInfo.getTestUtil().openConnection();
             } catch (Exception e) {
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
             GlobalInfo.setBasicConnection(con);
             // make sure we update state only if statement execution was successful
-            GlobalInfo.stateMachine.advanceState(State.CONNECTION_OPENED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.CONNECTION_OPENED);
         }
     },
     CREATE_SCHEMA {
@@ -96,16 +103,16 @@ public enum Action {
             Connection con = getAnyConnectionOrThrows();
             String schema = Schema.generateSchemaName(con);
             try {
-                GlobalInfo.testUtil.createSchema(con, schema);
+                GlobalInfo.getTestUtil().createSchema(con, schema);
             } catch (SQLException e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
-            System.out.println("\t Create schema: " + schema);
+            GlobalInfo.println("\t Create schema: " + schema);
             GlobalInfo.addNewSchema(con, schema);
-            GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
         }
     },
     DROP_SCHEMA {
@@ -114,21 +121,21 @@ public enum Action {
             Connection con = getAnyConnectionOrThrows();
             String schema = GlobalInfo.getAnySchema(con);
             if (schema == null) {
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(new IllegalStateException("no schema available"));
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(new IllegalStateException("no schema available"));
                 return;
             }
             try {
-                GlobalInfo.testUtil.dropSchema(con, schema);
+                GlobalInfo.getTestUtil().dropSchema(con, schema);
             } catch (SQLException e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
-            System.out.println("\t Drop schema: " + schema);
+            GlobalInfo.println("\t Drop schema: " + schema);
             GlobalInfo.removeSchema(con, schema);
-            GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
         }
     },
     CREATE_TABLE {
@@ -137,17 +144,17 @@ public enum Action {
             Connection con = getAnyConnectionOrThrows();
             Table table = Schema.generateTable(con);
             try {
-                GlobalInfo.testUtil.createTable(con, table.getName(),
+                GlobalInfo.getTestUtil().createTable(con, table.getName(),
                         table.columnsToString());
             } catch (SQLException e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
-            System.out.println("\t Create table: " + table.getName() + " with columns: " + table.columnsToString());
+            GlobalInfo.println("\t Create table: " + table.getName() + " with columns: " + table.columnsToString());
             GlobalInfo.addNewTable(con, table);
-            GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
         }
     },
     DROP_TABLE {
@@ -156,33 +163,33 @@ public enum Action {
             Connection con = getAnyConnectionOrThrows();
             Table table = GlobalInfo.getAnyTable(con);
             if (table == null) {
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(new IllegalStateException("no table available"));
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(new IllegalStateException("no table available"));
                 return;
             }
             try {
-                GlobalInfo.testUtil.dropTable(con, table.getName());
-                System.out.println("\t Drop table: " + table.getName());
+                GlobalInfo.getTestUtil().dropTable(con, table.getName());
+                GlobalInfo.println("\t Drop table: " + table.getName());
 
             } catch (Exception e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
             GlobalInfo.removeTable(con, table);
-            GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
         }
     },
     CREATE_VIEW {
         @Override
         public void invoke() throws Exception {
             if (Randomly.getBooleanWithSmallProbability()) {
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(new UnsupportedOperationException("not implemented yet"));
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(new UnsupportedOperationException("not implemented yet"));
                 return;
             } else {
-                GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+                GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
             }
         }
     },
@@ -190,11 +197,11 @@ public enum Action {
         @Override
         public void invoke() throws Exception {
             if (Randomly.getBooleanWithSmallProbability()) {
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(new UnsupportedOperationException("not implemented yet"));
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(new UnsupportedOperationException("not implemented yet"));
                 return;
             } else {
-                GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+                GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
             }
         }
     },
@@ -203,15 +210,15 @@ public enum Action {
         public void invoke() throws Exception {
             Connection con = getAnyConnectionOrThrows();
             try {
-                GlobalInfo.testUtil.createFunction(con, "test_blob", "REFCURSOR, int4",
+                GlobalInfo.getTestUtil().createFunction(con, "test_blob", "REFCURSOR, int4",
                         "RETURN BOOLEAN AS $$ BEGIN  SELECT * FROM pg_catalog.pg_tables; END; $$ LANGUAGE plpgsql;");
             } catch (Exception e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
-            GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
         }
     },
     DROP_FUNCTION {
@@ -219,15 +226,15 @@ public enum Action {
         public void invoke() throws Exception {
             Connection con = getAnyConnectionOrThrows();
             try {
-                GlobalInfo.testUtil.dropFunction(con, "test_blob", "REFCURSOR, int4");
+                GlobalInfo.getTestUtil().dropFunction(con, "test_blob", "REFCURSOR, int4");
             } catch (Exception e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
 
-            GlobalInfo.stateMachine.advanceState(State.STATEMENT_EXECUTED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
         }
     },
     // leaving out CREATE_OBJECT and DROP_OBJECT for now
@@ -237,18 +244,18 @@ public enum Action {
         public void invoke() throws Exception {
             Connection con = getAnyConnectionOrThrows();
             try {
-                GlobalInfo.testUtil.closeConnection(con);
+                GlobalInfo.getTestUtil().closeConnection(con);
 
             } catch (Exception e) {
                 // jump to EXCEPTION state if exception is caught
-                GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-                GlobalInfo.stateMachine.setException(e);
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
                 return;
             }
             // maybe close a connection multiple times, do not remove it from the list
             // GlobalInfo.removeConnection(con);
 
-            GlobalInfo.stateMachine.advanceState(State.CONNECTION_CLOSED.nextState());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.CONNECTION_CLOSED);
 
         }
     },
@@ -256,21 +263,183 @@ public enum Action {
         @Override
         public void invoke() throws Exception {
             // log exception
-            System.out.println("\t Exception: " + GlobalInfo.stateMachine.getException());
-            // TODO: compare with expected exception
-            GlobalInfo.stateMachine.advanceState(State.EXCEPTION.nextState());
+            GlobalInfo.println("\t Exception: " + GlobalInfo.getStateMachine().getException());
+            // campaigns tell expected from unexpected exceptions with ExpectedOutcomes
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.EXCEPTION);
+        }
+    },
+    // new actions go last, traces store actions by ordinal
+    BULK_INSERT {
+        @Override
+        public void invoke() throws Exception {
+            Connection con = getAnyConnectionOrThrows();
+            Table table = GlobalInfo.getAnyTable(con);
+            if (table == null) {
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(new IllegalStateException("no table available"));
+                return;
+            }
+            int rows = (int) Randomly.getNotCachedInteger(1, BULK_INSERT_MAX_ROWS + 1);
+            ColumnValues[] values = table.generateValues(Randomly.current(), GlobalInfo.getTestDbms(), rows,
+                    BULK_INSERT_NULL_PERCENT);
+            try {
+                GlobalInfo.getTestUtil().bulkInsert(con, table.getName(), values);
+            } catch (SQLException e) {
+                // jump to EXCEPTION state if exception is caught
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
+                return;
+            }
+            GlobalInfo.println("\t Bulk insert: " + rows + " rows into " + table.getName());
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
+        }
+    },
+    BATCH_INSERT {
+        @Override
+        public void invoke() throws Exception {
+            Connection con = getAnyConnectionOrThrows();
+            Table table = GlobalInfo.getAnyTable(con);
+            if (table == null) {
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(new IllegalStateException("no table available"));
+                return;
+            }
+            Randomly random = Randomly.current();
+            int batchSize = TestUtil.BATCH_SIZE_SWEEP[random.nextInt(0, TestUtil.BATCH_SIZE_SWEEP.length)];
+            int rows = random.nextInt(1, BULK_INSERT_MAX_ROWS + 1);
+            ColumnValues[] values = table.generateValues(random, GlobalInfo.getTestDbms(), rows,
+                    BULK_INSERT_NULL_PERCENT);
+            // how Connector/J sends the batch, drawn on every backend so that the
+            // random stream of a walk does not depend on it
+            boolean rewrite = random.nextBoolean();
+            boolean serverPrepared = random.nextBoolean();
+            TestUtil testUtil = GlobalInfo.getTestUtil();
+            String settings = "";
+            try {
+                if (testUtil instanceof MySqlTestUtil) {
+                    // on a connection of its own, as the statements cached on con
+                    // were prepared with the old settings
+                    settings = ", rewriteBatchedStatements=" + rewrite + ", useServerPrepStmts=" + serverPrepared;
+                    Connection batchCon = ((MySqlTestUtil) testUtil).openBatchConnection(rewrite, serverPrepared);
+                    try {
+                        testUtil.batchInsert(batchCon, table.getName(), batchSize, values);
+                    } finally {
+                        testUtil.closeConnection(batchCon);
+                    }
+                } else {
+                    testUtil.batchInsert(con, table.getName(), batchSize, values);
+                }
+            } catch (SQLException e) {
+                // jump to EXCEPTION state if exception is caught
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
+                return;
+            }
+            GlobalInfo.println("\t Batch insert: " + rows + " rows into " + table.getName() + " in batches of "
+                    + batchSize + settings);
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.STATEMENT_EXECUTED);
+        }
+    },
+    INSERT_ROWS {
+        @Override
+        public void invoke() throws Exception {
+            executeDml(Dml.Kind.INSERT, State.ROWS_INSERTED);
+        }
+    },
+    UPDATE_ROWS {
+        @Override
+        public void invoke() throws Exception {
+            executeDml(Dml.Kind.UPDATE, State.ROWS_UPDATED);
+        }
+    },
+    DELETE_ROWS {
+        @Override
+        public void invoke() throws Exception {
+            executeDml(Dml.Kind.DELETE, State.ROWS_DELETED);
+        }
+    },
+    SELECT_ROWS {
+        @Override
+        public void invoke() throws Exception {
+            executeDml(Dml.Kind.SELECT, State.ROWS_SELECTED);
+        }
+    },
+    STREAM_QUERY {
+        @Override
+        public void invoke() throws Exception {
+            Connection con = getAnyConnectionOrThrows();
+            TestUtil testUtil = GlobalInfo.getTestUtil();
+            Randomly random = Randomly.current();
+            // drawn from all modes on every backend, so that the random stream of a
+            // walk does not depend on it
+            FetchMode mode = FetchMode.values()[random.nextInt(0, FetchMode.values().length)];
+            if (!testUtil.fetchModes().contains(mode)) {
+                mode = FetchMode.DEFAULT;
+            }
+            int fetchSize = FETCH_SIZES[random.nextInt(0, FETCH_SIZES.length)];
+            long rows = random.nextLong(1, STREAM_QUERY_MAX_ROWS + 1);
+            int width = random.nextInt(0, STREAM_QUERY_MAX_WIDTH + 1);
+            try {
+                testUtil.streamQuery(con, testUtil.seriesQuery(rows, width), mode, fetchSize);
+            } catch (SQLException e) {
+                // jump to EXCEPTION state if exception is caught
+                GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+                GlobalInfo.getStateMachine().setException(e);
+                return;
+            }
+            GlobalInfo.println("\t Stream query: " + rows + " rows of " + width + " characters, " + mode
+                    + (mode == FetchMode.FETCH_SIZE || mode == FetchMode.CURSOR ? " " + fetchSize : ""));
+            GlobalInfo.getStateMachine().advanceToSuccessorOf(State.ROWS_SELECTED);
         }
     };
 
+    // most rows of one BULK_INSERT or BATCH_INSERT, the number is drawn uniformly from 1 to this
+    private static final int BULK_INSERT_MAX_ROWS = Integer.getInteger("bulkInsert.maxRows", 1000);
+    private static final int BULK_INSERT_NULL_PERCENT = 5;
+    // largest result of one STREAM_QUERY, rows and width are drawn uniformly up to these
+    private static final long STREAM_QUERY_MAX_ROWS = Long.getLong("streamQuery.maxRows", 10_000L);
+    private static final int STREAM_QUERY_MAX_WIDTH = Integer.getInteger("streamQuery.maxWidth", 100);
+    private static final int[] FETCH_SIZES = { 1, 10, 100, 1000, 10000 };
+
     public abstract void invoke() throws Exception;
 
+    /**
+     * Run a generated statement of kind on a table of the catalog, as a
+     * PreparedStatement or a plain Statement with 50 percent each, and move on from
+     * outcome.
+     */
+    void executeDml(Dml.Kind kind, State outcome) throws Exception {
+        Connection con = getAnyConnectionOrThrows();
+        Table table = GlobalInfo.getAnyTable(con);
+        if (table == null) {
+            GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+            GlobalInfo.getStateMachine().setException(new IllegalStateException("no table available"));
+            return;
+        }
+        Randomly random = Randomly.current();
+        Dml dml = Dml.generate(kind, table, random, GlobalInfo.getTestDbms());
+        boolean prepared = random.nextBoolean();
+        long rows;
+        try {
+            rows = GlobalInfo.getTestUtil().executeDml(con, dml, prepared);
+        } catch (SQLException e) {
+            // jump to EXCEPTION state if exception is caught
+            GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+            GlobalInfo.getStateMachine().setException(e);
+            return;
+        }
+        GlobalInfo.println("\t " + kind + (prepared ? " (prepared)" : "") + " on " + table.getName() + ": " + rows
+                + " rows");
+        GlobalInfo.getStateMachine().advanceToSuccessorOf(outcome);
+    }
+
     @Nullable
     Connection getAnyConnectionOrThrows() {
         Connection con = GlobalInfo.getAnyConnection();
         if (con == null) {
-            GlobalInfo.stateMachine.advanceState(State.EXCEPTION);
-            GlobalInfo.stateMachine.setException(new Exception(
-                    GlobalInfo.stateMachine.getCurrentState() + " getAnyConnectionOrThrows: no connection available"));
+            GlobalInfo.getStateMachine().advanceState(State.EXCEPTION);
+            GlobalInfo.getStateMachine().setException(new Exception(
+                    GlobalInfo.getStateMachine().getCurrentState() + " getAnyConnectionOrThrows: no connection available"));
             return null;
         }
         return con;
@@ -0,0 +1,19 @@
+package demo.state;
+
+import javax.annotation.Nullable;
+
+/**
+ * Strategy used by {@link StateMachine#selectAction()} to pick the next action.
+ *
+ * Implementations must draw exactly one {@link demo.Randomly#getUniformDouble()}
+ * per call, like {@link TransitionGraph#selectAction(State)} does, so that a walk
+ * consumes the same random stream whichever scheduler drives it and can be
+ * replayed from its seed.
+ */
+public interface ActionScheduler {
+    /**
+     * @return the action to perform in state, null to end the walk
+     */
+    @Nullable
+    Action selectAction(TransitionGraph graph, State state);
+}
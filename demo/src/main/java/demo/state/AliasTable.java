@@ -0,0 +1,85 @@
+package demo.state;
+
+import java.util.Arrays;
+
+/**
+ * Walker/Vose alias table: picks index i with probability weights[i] / sum(weights)
+ * in constant time from a single uniform random number, without allocating.
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("no weights");
+        }
+        double sum = 0;
+        for (double w : weights) {
+            if (w < 0 || Double.isNaN(w) || Double.isInfinite(w)) {
+                throw new IllegalArgumentException("invalid weight " + w + " in " + Arrays.toString(weights));
+            }
+            sum += w;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("all weights are zero: " + Arrays.toString(weights));
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / sum;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = scaled[l] + scaled[s] - 1.0;
+            if (scaled[l] < 1.0) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // leftovers are 1.0 up to rounding errors
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            probability[l] = 1.0;
+            alias[l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            probability[s] = 1.0;
+            alias[s] = s;
+        }
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * @param uniform a random number in [0, 1)
+     * @return the sampled index
+     */
+    public int sample(double uniform) {
+        double x = uniform * probability.length;
+        int i = (int) x;
+        if (i >= probability.length) {
+            i = probability.length - 1;
+        }
+        return x - i < probability[i] ? i : alias[i];
+    }
+}
@@ -0,0 +1,167 @@
+package demo.state;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Counts how often every (State, Action, outcome) edge was taken. The outcome is
+ * either success or the class of the exception the action ended with, i.e. the
+ * exception type plus its SQLState.
+ *
+ * Edges live in an open-addressing table of atomic longs, so recording an edge
+ * that was seen before is a hash, a probe and an atomic increment, without locks
+ * or allocation. Shared by all walkers of a campaign.
+ */
+public final class CoverageMap {
+    private static final int ACTIONS = Action.values().length;
+    private static final int PAIRS = State.values().length * ACTIONS;
+
+    // per (State, Action): how often it was performed and how many outcomes it had
+    private final AtomicLongArray attempts = new AtomicLongArray(PAIRS);
+    private final AtomicIntegerArray distinctOutcomes = new AtomicIntegerArray(PAIRS);
+
+    // per edge, 0 marks an empty slot
+    private final int mask;
+    private final AtomicLongArray keys;
+    private final AtomicLongArray hits;
+    private final LongAdder edges = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+    // only written the first time an edge is seen
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    public CoverageMap() {
+        this(1 << 14);
+    }
+
+    /**
+     * @param capacity maximum number of distinct edges, rounded up to a power of two
+     */
+    public CoverageMap(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.keys = new AtomicLongArray(size);
+        this.hits = new AtomicLongArray(size);
+    }
+
+    /**
+     * Record that action was performed in state and ended with outcome.
+     *
+     * @param outcome the exception the action ended with, null on success
+     * @return true if the edge had never been seen before
+     */
+    public boolean record(State state, Action action, @Nullable Exception outcome) {
+        int pair = state.ordinal() * ACTIONS + action.ordinal();
+        attempts.incrementAndGet(pair);
+        long key = edgeKey(pair, outcomeHash(outcome));
+        int slot = (int) key & mask;
+        for (int probes = 0; probes <= mask;) {
+            long current = keys.get(slot);
+            if (current == key) {
+                hits.incrementAndGet(slot);
+                return false;
+            }
+            if (current == 0) {
+                if (!keys.compareAndSet(slot, 0, key)) {
+                    // another walker claimed the slot, look at it again
+                    continue;
+                }
+                hits.incrementAndGet(slot);
+                distinctOutcomes.incrementAndGet(pair);
+                edges.increment();
+                names.put(key, state + " " + action + " " + outcomeOf(outcome));
+                return true;
+            }
+            slot = (slot + 1) & mask;
+            probes++;
+        }
+        overflow.increment();
+        return false;
+    }
+
+    /**
+     * @return the outcome class of an action: SUCCESS or exception type and SQLState
+     */
+    public static String outcomeOf(@Nullable Exception outcome) {
+        if (outcome == null) {
+            return "SUCCESS";
+        }
+        String sqlState = outcome instanceof SQLException ? ((SQLException) outcome).getSQLState() : null;
+        return outcome.getClass().getSimpleName() + (sqlState != null ? "[" + sqlState + "]" : "");
+    }
+
+    private static long outcomeHash(@Nullable Exception outcome) {
+        if (outcome == null) {
+            return 0;
+        }
+        // String caches its hash code, so this does not allocate
+        long h = outcome.getClass().getName().hashCode();
+        if (outcome instanceof SQLException) {
+            String sqlState = ((SQLException) outcome).getSQLState();
+            h = h * 31 + (sqlState != null ? sqlState.hashCode() : 0);
+        }
+        return h * 0x9E3779B97F4A7C15L + 1;
+    }
+
+    private static long edgeKey(int pair, long outcomeHash) {
+        // splitmix64 finalizer
+        long z = outcomeHash + (pair + 1) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return z == 0 ? 1 : z;
+    }
+
+    public long getAttempts(State state, Action action) {
+        return attempts.get(state.ordinal() * ACTIONS + action.ordinal());
+    }
+
+    public int getDistinctOutcomes(State state, Action action) {
+        return distinctOutcomes.get(state.ordinal() * ACTIONS + action.ordinal());
+    }
+
+    /**
+     * How much a walker should favour performing action in state: rarely tried
+     * pairs and pairs that keep producing new outcomes rank high.
+     */
+    public double priority(State state, Action action) {
+        int pair = state.ordinal() * ACTIONS + action.ordinal();
+        return (1 + distinctOutcomes.get(pair)) / Math.sqrt(1 + attempts.get(pair));
+    }
+
+    /**
+     * @return number of distinct edges seen so far
+     */
+    public long getEdges() {
+        return edges.sum();
+    }
+
+    /**
+     * @return the edges seen so far, rarest first, as "STATE ACTION OUTCOME hits"
+     */
+    public List<String> rarestEdges(int limit) {
+        List<long[]> slots = new ArrayList<>();
+        for (int slot = 0; slot <= mask; slot++) {
+            if (keys.get(slot) != 0) {
+                slots.add(new long[] { keys.get(slot), hits.get(slot) });
+            }
+        }
+        slots.sort((a, b) -> Long.compare(a[1], b[1]));
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, slots.size()); i++) {
+            result.add(names.get(slots.get(i)[0]) + " " + slots.get(i)[1]);
+        }
+        return result;
+    }
+
+    public String summary() {
+        return edges.sum() + " edges covered" + (overflow.sum() > 0 ? " (" + overflow.sum() + " dropped, table full)" : "");
+    }
+}
@@ -0,0 +1,44 @@
+package demo.state;
+
+import javax.annotation.Nullable;
+
+import demo.Randomly;
+
+/**
+ * Picks actions in proportion to their graph weight times their
+ * {@link CoverageMap#priority(State, Action) coverage priority}, so that walks
+ * drift towards edges that have been taken rarely. One instance per walker.
+ */
+public final class CoverageScheduler implements ActionScheduler {
+    private final CoverageMap coverage;
+    // reused on every step, hence one scheduler per walker
+    private final double[] weights = new double[Action.values().length];
+
+    public CoverageScheduler(CoverageMap coverage) {
+        this.coverage = coverage;
+    }
+
+    @Override
+    @Nullable
+    public Action selectAction(TransitionGraph graph, State state) {
+        Action[] candidates = graph.actionCandidates(state);
+        if (candidates == null) {
+            return null;
+        }
+        double total = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            weights[i] = graph.actionWeight(state, i) * coverage.priority(state, candidates[i]);
+            total += weights[i];
+        }
+        // few candidates and weights change on every step, a linear scan beats
+        // rebuilding an alias table
+        double r = Randomly.getUniformDouble() * total;
+        for (int i = 0; i < candidates.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return candidates[i];
+            }
+        }
+        return candidates[candidates.length - 1];
+    }
+}
@@ -0,0 +1,186 @@
+package demo.state;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import demo.util.TestDbms;
+
+/**
+ * Oracle of the exceptions an action is expected to end with, e.g. DROP_TABLE of a
+ * table that does not exist. Everything else is unexpected and worth a closer look.
+ *
+ * Loaded from a file with one rule per line, {@code DBMS STATE ACTION SQLSTATE},
+ * where {@code *} matches any value, SQLSTATE {@code -} matches exceptions
+ * without an SQLState and a two character SQLSTATE matches the whole class, e.g.
+ *
+ * <pre>
+ * # dropping an unknown table
+ * POSTGRES * DROP_TABLE 42P01
+ * DUCKDB * OPEN_PRIVILEGED_CONNECTION -
+ * * * CREATE_FUNCTION 42
+ * </pre>
+ *
+ * The rules are compiled into one cell per (TestDbms, State, Action), so
+ * classifying an exception is an array lookup and a scan of the few SQLStates of
+ * that cell, without allocation.
+ */
+public final class ExpectedOutcomes {
+    private static final TestDbms[] DBMSS = TestDbms.values();
+    private static final State[] STATES = State.values();
+    private static final Action[] ACTIONS = Action.values();
+    private static final int[] EMPTY = new int[0];
+
+    public static final ExpectedOutcomes NONE = new ExpectedOutcomes();
+
+    // index: (dbms * STATES + state) * ACTIONS + action, null if nothing is expected
+    private final Cell[] cells = new Cell[DBMSS.length * STATES.length * ACTIONS.length];
+
+    private static final class Cell {
+        boolean anyOutcome;
+        boolean noSqlState;
+        // encoded SQLStates and SQLState classes
+        int[] sqlStates = EMPTY;
+        int[] sqlStateClasses = EMPTY;
+    }
+
+    private ExpectedOutcomes() {
+    }
+
+    public static ExpectedOutcomes load(Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    public static ExpectedOutcomes parse(List<String> lines) {
+        ExpectedOutcomes oracle = new ExpectedOutcomes();
+        for (String line : lines) {
+            int hash = line.indexOf('#');
+            String rule = (hash >= 0 ? line.substring(0, hash) : line).trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            String[] fields = rule.split("\\s+");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("expected DBMS STATE ACTION SQLSTATE but found: " + line);
+            }
+            for (TestDbms testDbms : DBMSS) {
+                if (!matches(fields[0], testDbms.name())) {
+                    continue;
+                }
+                for (State state : STATES) {
+                    if (!matches(fields[1], state.name())) {
+                        continue;
+                    }
+                    for (Action action : ACTIONS) {
+                        if (matches(fields[2], action.name())) {
+                            oracle.add(index(testDbms, state, action), fields[3].toUpperCase());
+                        }
+                    }
+                }
+            }
+            // catch typos, a rule naming something that does not exist matches nothing
+            checkName(fields[0], DBMSS);
+            checkName(fields[1], STATES);
+            checkName(fields[2], ACTIONS);
+        }
+        return oracle;
+    }
+
+    private static boolean matches(String pattern, String name) {
+        return pattern.equals("*") || pattern.equalsIgnoreCase(name);
+    }
+
+    private static void checkName(String pattern, Enum<?>[] values) {
+        if (!pattern.equals("*")) {
+            for (Enum<?> value : values) {
+                if (value.name().equalsIgnoreCase(pattern)) {
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("unknown " + values[0].getDeclaringClass().getSimpleName() + ": "
+                    + pattern);
+        }
+    }
+
+    private void add(int index, String sqlState) {
+        Cell cell = cells[index];
+        if (cell == null) {
+            cell = cells[index] = new Cell();
+        }
+        if (sqlState.equals("*")) {
+            cell.anyOutcome = true;
+        } else if (sqlState.equals("-")) {
+            cell.noSqlState = true;
+        } else if (sqlState.length() == 2) {
+            cell.sqlStateClasses = append(cell.sqlStateClasses, encode(sqlState, 2));
+        } else if (sqlState.length() == 5) {
+            cell.sqlStates = append(cell.sqlStates, encode(sqlState, 5));
+        } else {
+            throw new IllegalArgumentException("SQLSTATE must be *, -, a class or a 5 character code: " + sqlState);
+        }
+    }
+
+    private static int[] append(int[] codes, int code) {
+        if (code < 0) {
+            throw new IllegalArgumentException("SQLSTATE may only contain digits and letters");
+        }
+        int[] result = Arrays.copyOf(codes, codes.length + 1);
+        result[codes.length] = code;
+        return result;
+    }
+
+    private static int index(TestDbms testDbms, State state, Action action) {
+        return (testDbms.ordinal() * STATES.length + state.ordinal()) * ACTIONS.length + action.ordinal();
+    }
+
+    /**
+     * @return the first length characters of an SQLState as a base 36 number, -1 if
+     *         it is shorter or contains anything but digits and letters
+     */
+    private static int encode(String sqlState, int length) {
+        if (sqlState.length() < length) {
+            return -1;
+        }
+        int code = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = Character.digit(sqlState.charAt(i), 36);
+            if (digit < 0) {
+                return -1;
+            }
+            code = code * 36 + digit;
+        }
+        return code;
+    }
+
+    private static boolean contains(int[] codes, int code) {
+        for (int c : codes) {
+            if (c == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if action, performed in state on testDbms, is expected to be able
+     *         to fail with outcome
+     */
+    public boolean isExpected(TestDbms testDbms, State state, Action action, Exception outcome) {
+        Cell cell = cells[index(testDbms, state, action)];
+        if (cell == null) {
+            return false;
+        }
+        if (cell.anyOutcome) {
+            return true;
+        }
+        String sqlState = outcome instanceof SQLException ? ((SQLException) outcome).getSQLState() : null;
+        if (sqlState == null) {
+            return cell.noSqlState;
+        }
+        return contains(cell.sqlStates, encode(sqlState, 5)) || contains(cell.sqlStateClasses, encode(sqlState, 2));
+    }
+}
@@ -1,7 +1,5 @@
 package demo.state;
 
-import demo.Randomly;
-
 public enum State {
     INITIAL {
         @Override
@@ -27,8 +25,8 @@ public enum State {
                     Action.OPEN_READ_ONLY_CONNECTION, Action.OPEN_CONNECTION };
         }
     },
-    STATEMENT_EXECUTED { // TODO: maybe break this down to more states: table created, table dropped,
-                         // select, insert, update, delete?
+    STATEMENT_EXECUTED { // TODO: maybe break this down to more states: table created, table dropped?
+                         // the row data has ROWS_INSERTED, ... below
         @Override
         State[] nextStateCandidates() {
             return new State[] { CONNECTION_OPENED, CONNECTION_CLOSED, STATEMENT_EXECUTED };
@@ -37,7 +35,9 @@ public enum State {
         @Override
         public Action[] actionCandidates() {
             return new Action[] { Action.CREATE_SCHEMA, Action.DROP_SCHEMA, Action.CREATE_TABLE, Action.DROP_TABLE,
-                    Action.CREATE_VIEW, Action.DROP_VIEW, Action.CREATE_FUNCTION, Action.DROP_FUNCTION };
+                    Action.CREATE_VIEW, Action.DROP_VIEW, Action.CREATE_FUNCTION, Action.DROP_FUNCTION,
+                    Action.BULK_INSERT, Action.BATCH_INSERT, Action.INSERT_ROWS, Action.UPDATE_ROWS,
+                    Action.DELETE_ROWS, Action.SELECT_ROWS, Action.STREAM_QUERY };
         }
     },
     CONNECTION_CLOSED {
@@ -72,16 +72,66 @@ public enum State {
         public Action[] actionCandidates() {
             return null;
         }
+    },
+    // new states go last, the action log stores states by ordinal
+    ROWS_INSERTED {
+        @Override
+        State[] nextStateCandidates() {
+            return dmlSuccessors(this);
+        }
+
+        @Override
+        public Action[] actionCandidates() {
+            return dmlActions();
+        }
+    },
+    ROWS_UPDATED {
+        @Override
+        State[] nextStateCandidates() {
+            return dmlSuccessors(this);
+        }
+
+        @Override
+        public Action[] actionCandidates() {
+            return dmlActions();
+        }
+    },
+    ROWS_DELETED {
+        @Override
+        State[] nextStateCandidates() {
+            return dmlSuccessors(this);
+        }
+
+        @Override
+        public Action[] actionCandidates() {
+            return dmlActions();
+        }
+    },
+    ROWS_SELECTED {
+        @Override
+        State[] nextStateCandidates() {
+            return dmlSuccessors(this);
+        }
+
+        @Override
+        public Action[] actionCandidates() {
+            return dmlActions();
+        }
     };
 
+    // after a DML statement: more of them, or back to DDL and the connections
+    private static State[] dmlSuccessors(State state) {
+        return new State[] { CONNECTION_OPENED, CONNECTION_CLOSED, STATEMENT_EXECUTED, state };
+    }
+
+    private static Action[] dmlActions() {
+        return new Action[] { Action.INSERT_ROWS, Action.UPDATE_ROWS, Action.DELETE_ROWS, Action.SELECT_ROWS };
+    }
+
     // states that can be reached from this state
     abstract State[] nextStateCandidates();
 
     // actions that can be performed in this state
+    // both candidate lists are read once into a TransitionGraph, see StateMachine
     public abstract Action[] actionCandidates();
-
-    State nextState() {
-        State[] candidates = nextStateCandidates();
-        return candidates != null ? Randomly.fromOptions(candidates) : null;
-    }
 }
\ No newline at end of file
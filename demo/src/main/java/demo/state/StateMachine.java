@@ -1,13 +1,34 @@
 package demo.state;
 
-import demo.Randomly;
+import javax.annotation.Nullable;
 
 public final class StateMachine {
-    private static State currentState = State.INITIAL;
-    private static Action currentAction = null;
-    
+    // each walker owns its own machine, so the walk position must not be static
+    private State currentState = State.INITIAL;
+    private Action currentAction = null;
+
     private Exception exception = null;
 
+    private final TransitionGraph graph;
+    // null picks actions by graph weight only
+    private ActionScheduler scheduler = null;
+
+    public StateMachine() {
+        this(TransitionGraph.UNIFORM);
+    }
+
+    public StateMachine(TransitionGraph graph) {
+        this.graph = graph;
+    }
+
+    public TransitionGraph getGraph() {
+        return graph;
+    }
+
+    public void setScheduler(@Nullable ActionScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
     public State getCurrentState() {
         return currentState;
     }
@@ -25,17 +46,17 @@ public final class StateMachine {
     }
 
     public State nextState() {
-        return currentState = currentState.nextState();
+        return currentState = graph.nextState(currentState);
     }
 
     public Action selectAction() {
-        Action[] candidates = currentState.actionCandidates();
-        currentAction = candidates != null ? Randomly.fromOptions(candidates) : null;
+        currentAction = scheduler != null ? scheduler.selectAction(graph, currentState)
+                : graph.selectAction(currentState);
         return currentAction;
     }
 
     public void showActionCandidates() {
-        Action[] actions = currentState.actionCandidates();
+        Action[] actions = graph.actionCandidates(currentState);
         if (actions == null) {
             return;
         }
@@ -50,11 +71,19 @@ public final class StateMachine {
     }
 
     public void advanceState(State targetState) {
-        StateMachine.currentState = targetState;
+        this.currentState = targetState;
+    }
+
+    /**
+     * Move to a weighted random successor of state.
+     */
+    public void advanceToSuccessorOf(State state) {
+        this.currentState = graph.nextState(state);
     }
 
     public void reset() {
         currentState = State.INITIAL;
         currentAction = null;
+        exception = null;
     }
 }
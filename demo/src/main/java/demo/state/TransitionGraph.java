@@ -0,0 +1,89 @@
+package demo.state;
+
+import javax.annotation.Nullable;
+
+import demo.Randomly;
+
+/**
+ * Immutable, precomputed view of the state machine: the successor states and
+ * actions of every state together with an alias table over their weights. Built
+ * once per campaign and shared by all walkers; picking an edge is O(1) and does
+ * not allocate.
+ */
+public final class TransitionGraph {
+    public static final TransitionGraph UNIFORM = new TransitionGraph(TransitionWeights.UNIFORM);
+
+    private final State[][] nextStates = new State[State.values().length][];
+    private final AliasTable[] nextStateTables = new AliasTable[State.values().length];
+    private final Action[][] actions = new Action[State.values().length][];
+    private final AliasTable[] actionTables = new AliasTable[State.values().length];
+    private final double[][] actionWeights = new double[State.values().length][];
+
+    public TransitionGraph(TransitionWeights weights) {
+        for (State state : State.values()) {
+            int i = state.ordinal();
+            State[] states = state.nextStateCandidates();
+            if (states != null) {
+                double[] w = new double[states.length];
+                for (int j = 0; j < states.length; j++) {
+                    w[j] = weights.transitionWeight(state, states[j]);
+                }
+                nextStates[i] = states;
+                nextStateTables[i] = table(state, w);
+            }
+            Action[] candidates = state.actionCandidates();
+            if (candidates != null) {
+                double[] w = new double[candidates.length];
+                for (int j = 0; j < candidates.length; j++) {
+                    w[j] = weights.actionWeight(state, candidates[j]);
+                }
+                actions[i] = candidates;
+                actionWeights[i] = w;
+                actionTables[i] = table(state, w);
+            }
+        }
+    }
+
+    private static AliasTable table(State state, double[] weights) {
+        try {
+            return new AliasTable(weights);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid weights for state " + state + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return a weighted random successor of state, null for {@link State#FINAL}
+     */
+    @Nullable
+    public State nextState(State state) {
+        AliasTable table = nextStateTables[state.ordinal()];
+        return table == null ? null : nextStates[state.ordinal()][table.sample(Randomly.getUniformDouble())];
+    }
+
+    /**
+     * @return a weighted random action to perform in state, null for
+     *         {@link State#FINAL}
+     */
+    @Nullable
+    public Action selectAction(State state) {
+        AliasTable table = actionTables[state.ordinal()];
+        return table == null ? null : actions[state.ordinal()][table.sample(Randomly.getUniformDouble())];
+    }
+
+    /**
+     * @return the weight of the index-th entry of {@link #actionCandidates(State)}
+     */
+    public double actionWeight(State state, int index) {
+        return actionWeights[state.ordinal()][index];
+    }
+
+    /**
+     * @return the actions available in state; the array is shared and must not be
+     *         modified
+     */
+    @Nullable
+    public Action[] actionCandidates(State state) {
+        return actions[state.ordinal()];
+    }
+}
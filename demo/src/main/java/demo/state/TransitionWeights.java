@@ -0,0 +1,81 @@
+package demo.state;
+
+import java.util.Arrays;
+
+/**
+ * Relative weights of the edges of the state machine, 1 for every edge unless
+ * configured otherwise. Weights are only compared between the candidates of one
+ * state: with {@code CREATE_TABLE=12,DROP_TABLE=12} and the other statement
+ * actions left at 1, CREATE_TABLE alone is as likely as twelve of them together.
+ *
+ * The spec is a comma separated list of
+ * <ul>
+ * <li>{@code ACTION=w}: weight of ACTION in every state that offers it</li>
+ * <li>{@code STATE/ACTION=w}: weight of ACTION in STATE only</li>
+ * <li>{@code FROM>TO=w}: weight of the transition from FROM to TO</li>
+ * </ul>
+ * e.g. {@code CREATE_TABLE=40,DROP_TABLE=40,STATEMENT_EXECUTED>STATEMENT_EXECUTED=18}.
+ */
+public final class TransitionWeights {
+    public static final TransitionWeights UNIFORM = new TransitionWeights();
+
+    private final double[][] actionWeights = new double[State.values().length][Action.values().length];
+    private final double[][] transitionWeights = new double[State.values().length][State.values().length];
+
+    private TransitionWeights() {
+        for (double[] weights : actionWeights) {
+            Arrays.fill(weights, 1.0);
+        }
+        for (double[] weights : transitionWeights) {
+            Arrays.fill(weights, 1.0);
+        }
+    }
+
+    public static TransitionWeights parse(String spec) {
+        TransitionWeights weights = new TransitionWeights();
+        if (spec == null || spec.trim().isEmpty()) {
+            return weights;
+        }
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("expected NAME=weight but found: " + entry);
+            }
+            String name = entry.substring(0, eq).trim().toUpperCase();
+            double weight = Double.parseDouble(entry.substring(eq + 1).trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("negative weight: " + entry);
+            }
+
+            int arrow = name.indexOf('>');
+            int slash = name.indexOf('/');
+            if (arrow >= 0) {
+                State from = State.valueOf(name.substring(0, arrow).trim());
+                State to = State.valueOf(name.substring(arrow + 1).trim());
+                weights.transitionWeights[from.ordinal()][to.ordinal()] = weight;
+            } else if (slash >= 0) {
+                State state = State.valueOf(name.substring(0, slash).trim());
+                Action action = Action.valueOf(name.substring(slash + 1).trim());
+                weights.actionWeights[state.ordinal()][action.ordinal()] = weight;
+            } else {
+                Action action = Action.valueOf(name);
+                for (double[] perState : weights.actionWeights) {
+                    perState[action.ordinal()] = weight;
+                }
+            }
+        }
+        return weights;
+    }
+
+    public double actionWeight(State state, Action action) {
+        return actionWeights[state.ordinal()][action.ordinal()];
+    }
+
+    public double transitionWeight(State from, State to) {
+        return transitionWeights[from.ordinal()][to.ordinal()];
+    }
+}
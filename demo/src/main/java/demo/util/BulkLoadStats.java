@@ -0,0 +1,81 @@
+package demo.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rows, bytes and time of the bulk loads of the whole process by load method, e.g.
+ * "appender" or "jdbc batch", so that the summary of a campaign shows the
+ * throughput each backend reached with each method.
+ */
+public final class BulkLoadStats {
+    private static final Map<String, Counters> methods = new ConcurrentHashMap<>();
+
+    private static final class Counters {
+        final LongAdder loads = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    /**
+     * @param bytes bytes sent to the server, 0 if the method does not know
+     */
+    public static void record(String method, long rows, long bytes, long nanos) {
+        Counters counters = methods.computeIfAbsent(method, m -> new Counters());
+        counters.loads.increment();
+        counters.rows.add(rows);
+        counters.bytes.add(bytes);
+        counters.nanos.add(nanos);
+    }
+
+    public static long getRows(String method) {
+        Counters counters = methods.get(method);
+        return counters == null ? 0 : counters.rows.sum();
+    }
+
+    public static long getLoads(String method) {
+        Counters counters = methods.get(method);
+        return counters == null ? 0 : counters.loads.sum();
+    }
+
+    /**
+     * @return rows per second over all loads with method, 0 if there were none
+     */
+    public static double rowsPerSecond(String method) {
+        Counters counters = methods.get(method);
+        long nanos = counters == null ? 0 : counters.nanos.sum();
+        return nanos == 0 ? 0 : counters.rows.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * @return MB (10^6 bytes) per second over all loads with method, 0 if the method
+     *         does not count bytes
+     */
+    public static double megabytesPerSecond(String method) {
+        Counters counters = methods.get(method);
+        long nanos = counters == null ? 0 : counters.nanos.sum();
+        return nanos == 0 ? 0 : counters.bytes.sum() * 1e3 / nanos;
+    }
+
+    public static String summary() {
+        if (methods.isEmpty()) {
+            return "bulk loads: none";
+        }
+        StringBuilder sb = new StringBuilder("bulk loads:");
+        for (Map.Entry<String, Counters> e : new TreeMap<>(methods).entrySet()) {
+            String method = e.getKey();
+            sb.append(String.format("%n\t%s: %d loads, %d rows, %.0f rows/s", method, e.getValue().loads.sum(),
+                    e.getValue().rows.sum(), rowsPerSecond(method)));
+            if (e.getValue().bytes.sum() > 0) {
+                sb.append(String.format(", %.1f MB/s", megabytesPerSecond(method)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private BulkLoadStats() {
+    }
+}
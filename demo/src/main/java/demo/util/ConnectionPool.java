@@ -0,0 +1,415 @@
+package demo.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Physical connections to one URL with one set of properties, handed out again
+ * after they are closed. A borrowed connection is a proxy whose close() rolls back
+ * what is left of its transaction, restores auto-commit, read-only and isolation
+ * and puts the physical connection back; everything else goes to the physical
+ * connection.
+ *
+ * At most maxSize connections exist at a time, borrowing more waits for one to be
+ * returned. A thread that already holds all maxSize connections waits for none:
+ * nobody else could return one, e.g. a walk keeps every connection it opened
+ * until it ends, so it gets a connection of its own outside the pool instead,
+ * closed when it is closed. A connection idle for more than half a second is validated before it
+ * is handed out, connections idle for longer than the idle timeout are closed down
+ * to minSize, and a connection borrowed for longer than the leak threshold is
+ * reported once, with the stack of the borrower.
+ *
+ * Configured with the system properties pool.minSize (0), pool.maxSize (8),
+ * pool.idleTimeout (60 seconds), pool.leakThreshold (0 seconds, off) and
+ * pool.borrowTimeout (30 seconds).
+ */
+public final class ConnectionPool implements AutoCloseable {
+    public static final int MIN_SIZE = Integer.getInteger("pool.minSize", 0);
+    public static final int MAX_SIZE = Integer.getInteger("pool.maxSize", 8);
+    public static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("pool.idleTimeout", 60));
+    public static final long LEAK_THRESHOLD_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("pool.leakThreshold", 0));
+    public static final long BORROW_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(Long.getLong("pool.borrowTimeout", 30));
+
+    // connections used more recently than this are handed out without validation
+    private static final long VALIDATE_AFTER_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private static final LongAdder connects = new LongAdder();
+    private static final LongAdder borrows = new LongAdder();
+    private static final LongAdder discarded = new LongAdder();
+    private static final LongAdder evicted = new LongAdder();
+    private static final LongAdder leaks = new LongAdder();
+    private static final LongAdder overflows = new LongAdder();
+
+    // evicts idle connections and looks for leaks in all pools
+    private static final ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "connection-pool-housekeeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String url;
+    private final Properties properties;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    // one permit per connection that may still be borrowed
+    private final Semaphore available;
+    // most recently returned first, so that the least used ones go idle
+    private final ConcurrentLinkedDeque<Pooled> idle = new ConcurrentLinkedDeque<>();
+    private final Set<Pooled> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ScheduledFuture<?> housekeeping;
+    private volatile boolean closed = false;
+
+    /**
+     * A physical connection and what its borrower may have changed.
+     */
+    private static final class Pooled {
+        final Connection physical;
+        final boolean readOnly;
+        final int isolation;
+        volatile long lastUsedMillis;
+        volatile long borrowedMillis;
+        @Nullable
+        volatile Throwable borrower;
+        @Nullable
+        volatile Thread owner;
+        volatile boolean leakReported;
+
+        Pooled(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.readOnly = physical.isReadOnly();
+            this.isolation = physical.getTransactionIsolation();
+            this.lastUsedMillis = System.currentTimeMillis();
+        }
+    }
+
+    public ConnectionPool(String url, Properties properties) throws SQLException {
+        this(url, properties, MIN_SIZE, MAX_SIZE, IDLE_TIMEOUT_MILLIS, LEAK_THRESHOLD_MILLIS);
+    }
+
+    public ConnectionPool(String url, Properties properties, int minSize, int maxSize, long idleTimeoutMillis,
+            long leakThresholdMillis) throws SQLException {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("need 0 <= minSize <= maxSize and 1 <= maxSize: " + minSize + ", "
+                    + maxSize);
+        }
+        this.url = url;
+        this.properties = (Properties) properties.clone();
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.available = new Semaphore(maxSize, true);
+        for (int i = 0; i < minSize; i++) {
+            idle.add(connect());
+        }
+        long period = Math.max(Math.min(idleTimeoutMillis, leakThresholdMillis > 0 ? leakThresholdMillis
+                : Long.MAX_VALUE) / 2, 100);
+        this.housekeeping = housekeeper.scheduleWithFixedDelay(this::housekeep, period, period,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private Pooled connect() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, properties);
+        connects.increment();
+        try {
+            Pooled pooled = new Pooled(physical);
+            size.incrementAndGet();
+            return pooled;
+        } catch (SQLException e) {
+            TestUtil.closeQuietly(physical);
+            throw e;
+        }
+    }
+
+    /**
+     * @return an idle connection of the pool or a new one, closing it returns it to
+     *         the pool
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("connection pool for " + url + " is closed", "08003");
+        }
+        try {
+            if (!available.tryAcquire()) {
+                if (ownsAll()) {
+                    overflows.increment();
+                    return DriverManager.getConnection(url, properties);
+                }
+                if (!available.tryAcquire(BORROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException("no connection to " + url + " returned within "
+                            + BORROW_TIMEOUT_MILLIS + "ms, " + borrowed.size() + " borrowed", "08004");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted while waiting for a connection to " + url, "08004", e);
+        }
+        try {
+            Pooled pooled = takeIdle();
+            if (pooled == null) {
+                pooled = connect();
+            }
+            pooled.borrowedMillis = System.currentTimeMillis();
+            pooled.borrower = leakThresholdMillis > 0 ? new Throwable("connection borrowed here") : null;
+            pooled.leakReported = false;
+            pooled.owner = Thread.currentThread();
+            borrowed.add(pooled);
+            borrows.increment();
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Handle(pooled));
+        } catch (SQLException | RuntimeException e) {
+            available.release();
+            throw e;
+        }
+    }
+
+    // true if the current thread holds every permit, so that waiting for one could not end
+    private boolean ownsAll() {
+        Thread current = Thread.currentThread();
+        int owned = 0;
+        for (Pooled pooled : borrowed) {
+            if (pooled.owner == current) {
+                owned++;
+            }
+        }
+        return owned >= maxSize;
+    }
+
+    /**
+     * @return a valid idle connection, null if there is none
+     */
+    @Nullable
+    private Pooled takeIdle() {
+        for (Pooled pooled; (pooled = idle.pollFirst()) != null;) {
+            if (System.currentTimeMillis() - pooled.lastUsedMillis < VALIDATE_AFTER_MILLIS || isValid(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private static boolean isValid(Pooled pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLFeatureNotSupportedException e) {
+            try {
+                return !pooled.physical.isClosed();
+            } catch (SQLException ignore) {
+                return false;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(Pooled pooled) {
+        discarded.increment();
+        size.decrementAndGet();
+        TestUtil.closeQuietly(pooled.physical);
+    }
+
+    private void release(Pooled pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (!closed && reset(pooled)) {
+                pooled.lastUsedMillis = System.currentTimeMillis();
+                pooled.borrower = null;
+                pooled.owner = null;
+                idle.offerFirst(pooled);
+            } else {
+                discard(pooled);
+            }
+        } finally {
+            available.release();
+        }
+    }
+
+    /**
+     * Undo what the borrower may have left behind.
+     *
+     * @return false if the connection is not worth keeping
+     */
+    private static boolean reset(Pooled pooled) {
+        Connection con = pooled.physical;
+        try {
+            if (con.isClosed()) {
+                return false;
+            }
+            if (!con.getAutoCommit()) {
+                con.rollback();
+                con.setAutoCommit(true);
+            }
+            if (con.isReadOnly() != pooled.readOnly) {
+                con.setReadOnly(pooled.readOnly);
+            }
+            if (con.getTransactionIsolation() != pooled.isolation) {
+                con.setTransactionIsolation(pooled.isolation);
+            }
+            con.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Pooled> it = idle.descendingIterator(); it.hasNext();) {
+            Pooled pooled = it.next();
+            if (size.get() <= minSize) {
+                break;
+            }
+            if (now - pooled.lastUsedMillis > idleTimeoutMillis && idle.removeLastOccurrence(pooled)) {
+                evicted.increment();
+                size.decrementAndGet();
+                TestUtil.closeQuietly(pooled.physical);
+            }
+        }
+        if (leakThresholdMillis > 0) {
+            for (Pooled pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedMillis > leakThresholdMillis) {
+                    pooled.leakReported = true;
+                    leaks.increment();
+                    System.err.println("connection to " + url + " borrowed for more than " + leakThresholdMillis
+                            + "ms, possibly leaked");
+                    Throwable borrower = pooled.borrower;
+                    if (borrower != null) {
+                        borrower.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of physical connections, borrowed or idle
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public int idleSize() {
+        return idle.size();
+    }
+
+    public int borrowedSize() {
+        return borrowed.size();
+    }
+
+    /**
+     * Close the idle connections and every borrowed connection once it is returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeping.cancel(false);
+        for (Pooled pooled; (pooled = idle.pollFirst()) != null;) {
+            size.decrementAndGet();
+            TestUtil.closeQuietly(pooled.physical);
+        }
+    }
+
+    public static long getConnects() {
+        return connects.sum();
+    }
+
+    public static long getBorrows() {
+        return borrows.sum();
+    }
+
+    public static long getLeaks() {
+        return leaks.sum();
+    }
+
+    /**
+     * @return number of connections outside the pools, to threads that held every
+     *         connection of a pool
+     */
+    public static long getOverflows() {
+        return overflows.sum();
+    }
+
+    public static String summary() {
+        return String.format("connection pools: %d borrows, %d physical connects, %d invalid, %d evicted idle,"
+                + " %d leaks, %d overflows", borrows.sum(), connects.sum(), discarded.sum(), evicted.sum(),
+                leaks.sum(), overflows.sum());
+    }
+
+    /**
+     * The connection a borrower sees: the physical connection until close().
+     */
+    private final class Handle implements InvocationHandler {
+        private final Pooled pooled;
+        private boolean released = false;
+
+        Handle(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "pooled " + pooled.physical;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(pooled.physical)) {
+                        return pooled.physical;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(pooled.physical)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (released) {
+                throw new SQLException("connection is closed", "08003");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package demo.util;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import javax.annotation.Nullable;
+
+import demo.ColumnValues;
+
+/**
+ * Encodes rows of {@link ColumnValues} in the text format of PostgreSQL's COPY
+ * (tab between values, newline after a row, \N for NULL, backslash escapes) as
+ * UTF-8 into one reusable buffer, which is handed to a {@link Sink} whenever it
+ * is full. Numbers, dates and times are written digit by digit, strings char by
+ * char, so no text of a row or a table is built on the way.
+ *
+ * Not thread safe, every walker has its own.
+ */
+public final class CopyTextEncoder {
+    /**
+     * Takes the bytes of the buffer, e.g. CopyIn.writeToCopy().
+     */
+    public interface Sink {
+        void write(byte[] bytes, int offset, int length) throws SQLException;
+    }
+
+    private final byte[] buffer;
+    private int position;
+    private long written;
+    @Nullable
+    private Sink sink;
+
+    public CopyTextEncoder(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Encode rows from (inclusive) to to (exclusive) of columns and write them to
+     * sink.
+     *
+     * @return number of bytes written
+     */
+    public long encode(ColumnValues[] columns, int from, int to, Sink sink) throws SQLException {
+        this.sink = sink;
+        position = 0;
+        written = 0;
+        try {
+            for (int row = from; row < to; row++) {
+                for (int c = 0; c < columns.length; c++) {
+                    if (c > 0) {
+                        put('\t');
+                    }
+                    encodeValue(columns[c], row);
+                }
+                put('\n');
+            }
+            flush();
+            return written;
+        } finally {
+            this.sink = null;
+            position = 0;
+        }
+    }
+
+    private void encodeValue(ColumnValues values, int row) throws SQLException {
+        if (values.isNull(row)) {
+            put('\\');
+            put('N');
+            return;
+        }
+        switch (values.getType()) {
+            case INT:
+                putLong(values.ints()[row]);
+                break;
+            case BOOLEAN:
+                put(values.booleans()[row] ? 't' : 'f');
+                break;
+            case FLOAT:
+                // NaN, Infinity and 1.0E10 are all valid input of real
+                putAscii(Float.toString(values.floats()[row]));
+                break;
+            case DOUBLE:
+                putAscii(Double.toString(values.doubles()[row]));
+                break;
+            case TEXT:
+            case VARCHAR:
+                putEscaped(values.strings()[row]);
+                break;
+            case DATE:
+                putDate(ColumnValues.toLocalDate(values.ints()[row]));
+                break;
+            case DATETIME:
+                LocalDateTime dateTime = ColumnValues.toLocalDateTime(values.longs()[row]);
+                putDate(dateTime.toLocalDate());
+                put(' ');
+                putTime(dateTime.toLocalTime());
+                break;
+            case TIME:
+                putTime(ColumnValues.toLocalTime(values.longs()[row]));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + values.getType());
+        }
+    }
+
+    private void putDate(LocalDate date) throws SQLException {
+        int year = date.getYear();
+        if (year < 1 || year > 9999) {
+            // BC or more than four digits, rare enough for the general format
+            putAscii(date.toString());
+            return;
+        }
+        putDigits(year, 4);
+        put('-');
+        putDigits(date.getMonthValue(), 2);
+        put('-');
+        putDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void putTime(LocalTime time) throws SQLException {
+        putDigits(time.getHour(), 2);
+        put(':');
+        putDigits(time.getMinute(), 2);
+        put(':');
+        putDigits(time.getSecond(), 2);
+        int micros = time.getNano() / 1000;
+        if (micros != 0) {
+            put('.');
+            putDigits(micros, 6);
+        }
+    }
+
+    // value >= 0 with leading zeros to width digits
+    private void putDigits(int value, int width) throws SQLException {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            put((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    private void putLong(long value) throws SQLException {
+        if (value < 0) {
+            put('-');
+        } else {
+            value = -value;
+        }
+        // on the negative side, so that Long.MIN_VALUE needs no special case
+        long divisor = 1;
+        while (value / divisor <= -10) {
+            divisor *= 10;
+        }
+        for (; divisor != 0; divisor /= 10) {
+            put((char) ('0' - value / divisor % 10));
+        }
+    }
+
+    private void putAscii(String s) throws SQLException {
+        for (int i = 0; i < s.length(); i++) {
+            put(s.charAt(i));
+        }
+    }
+
+    private void putEscaped(String s) throws SQLException {
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '\\':
+                    put('\\');
+                    put('\\');
+                    break;
+                case '\t':
+                    put('\\');
+                    put('t');
+                    break;
+                case '\n':
+                    put('\\');
+                    put('n');
+                    break;
+                case '\r':
+                    put('\\');
+                    put('r');
+                    break;
+                default:
+                    if (ch < 0x80) {
+                        put(ch);
+                    } else if (ch < 0x800) {
+                        putByte(0xc0 | ch >> 6);
+                        putByte(0x80 | ch & 0x3f);
+                    } else if (Character.isHighSurrogate(ch) && i + 1 < s.length()
+                            && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(ch, s.charAt(++i));
+                        putByte(0xf0 | codePoint >> 18);
+                        putByte(0x80 | codePoint >> 12 & 0x3f);
+                        putByte(0x80 | codePoint >> 6 & 0x3f);
+                        putByte(0x80 | codePoint & 0x3f);
+                    } else if (Character.isSurrogate(ch)) {
+                        // unpaired, as String.getBytes(UTF_8) does
+                        put('?');
+                    } else {
+                        putByte(0xe0 | ch >> 12);
+                        putByte(0x80 | ch >> 6 & 0x3f);
+                        putByte(0x80 | ch & 0x3f);
+                    }
+            }
+        }
+    }
+
+    private void put(char ascii) throws SQLException {
+        putByte(ascii);
+    }
+
+    private void putByte(int b) throws SQLException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void flush() throws SQLException {
+        if (position > 0) {
+            sink.write(buffer, 0, position);
+            written += position;
+            position = 0;
+        }
+    }
+}
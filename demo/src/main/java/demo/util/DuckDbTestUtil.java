@@ -1,24 +1,66 @@
 package demo.util;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.Properties;
 
 import javax.annotation.Nullable;
 
+import org.duckdb.DuckDBAppender;
 import org.duckdb.DuckDBConnection;
 
-import net.sf.log4jdbc.log.slf4j.Slf4jSpyLogDelegator;
+import demo.ColumnValues;
+
+import net.sf.log4jdbc.log.log4j2.Log4j2SpyLogDelegator;
 import net.sf.log4jdbc.sql.jdbcapi.ConnectionSpy;
 
 public final class DuckDbTestUtil extends TestUtil {
-    
+    // store duckdb data in a file otherwise it will be stored in memory
+    // using relative path without leading slash here
+    public static final String DATA_DIR = "src/test/java/demo/data/duckdb/";
+
+    private final String dbFile;
+    private final String url;
+
+    public DuckDbTestUtil() {
+        this(DATA_DIR + "tmp.db");
+    }
+
+    /**
+     * @param dbFile database file to use, so that concurrent walkers do not share
+     *               one database
+     */
+    public DuckDbTestUtil(String dbFile) {
+        this.dbFile = dbFile;
+        this.url = "jdbc:log4jdbc:duckdb:" + dbFile;
+        File parent = new File(dbFile).getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            // duckdb creates the database file but not its directory
+            parent.mkdirs();
+        }
+    }
+
+    public String getDbFile() {
+        return dbFile;
+    }
+
+    /**
+     * Replace the database file with an empty database, so that every walk on it
+     * starts from the same place. Only call this while no connection is open; idle
+     * pooled connections are closed.
+     */
+    public void resetDatabase() throws SQLException {
+        closePools();
+        new File(dbFile).delete();
+        new File(dbFile + ".wal").delete();
+        // read-only connections fail on a database that does not exist yet
+        DriverManager.getConnection("jdbc:duckdb:" + dbFile).close();
+    }
+
     public String getURL() {
-        // store duckdb data in tmp.db file otherwise it will be stored in memory
-        // using relative path without leading slash here
-        return "jdbc:log4jdbc:duckdb:src/test/java/demo/data/duckdb/tmp.db";
+        return url;
     }
 
     @Override
@@ -46,85 +88,46 @@ public final class DuckDbTestUtil extends TestUtil {
     public Connection openConnection() throws SQLException {
         // TODO: write our own log4jdbc and directly configure it in the logging component.
         // Currently duckdb is not logged.
-        Connection con= DriverManager.getConnection(getURL());
-        return new ConnectionSpy(con, new Slf4jSpyLogDelegator());
+        Connection con= connect(getURL(), new Properties());
+        return new ConnectionSpy(con, new Log4j2SpyLogDelegator());
         // DriverSpy duckdbDriverSpy = new DriverSpy();
         // return duckdbDriverSpy.connect(getURL(), new Properties());
     }
 
     @Override
     public Connection openConnection(Properties properties) throws SQLException {
-        Connection con= DriverManager.getConnection(getURL(), properties);
-        return new ConnectionSpy(con, new Slf4jSpyLogDelegator());
+        Connection con= connect(getURL(), properties);
+        return new ConnectionSpy(con, new Log4j2SpyLogDelegator());
     }
 
     @Override
     public void createSchema(Connection con, String schema) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            dropSchema(con, schema);
-            String sql = "CREATE SCHEMA " + schema;
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        executeDdl(con, "DROP SCHEMA IF EXISTS " + schema + " CASCADE", "CREATE SCHEMA " + schema);
     }
 
     @Override
     public void dropSchema(Connection con, String schema) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            String sql = "DROP SCHEMA IF EXISTS " + schema + " CASCADE";
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        executeDdl(con, "DROP SCHEMA IF EXISTS " + schema + " CASCADE");
     }
 
     @Override
     public void createTable(Connection con, String table, String columns) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            dropTable(con, table);
-            String sql = "CREATE TABLE " + table + " (" + columns + ")";
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        executeDdl(con, "DROP TABLE IF EXISTS " + table, "CREATE TABLE " + table + " (" + columns + ")");
     }
 
     @Override
     public void dropTable(Connection con, String table) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            String sql = "DROP TABLE IF EXISTS " + table;
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        executeDdl(con, "DROP TABLE IF EXISTS " + table);
     }
 
     @Override
     public void createView(Connection con, String view, String query) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            dropView(con, view);
-            String sql = "CREATE VIEW " + view + " AS " + query;
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        executeDdl(con, "DROP VIEW IF EXISTS " + view, "CREATE VIEW " + view + " AS " + query);
     }
 
     @Override
     public void dropView(Connection con, String view) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            String sql = "DROP VIEW IF EXISTS " + view;
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        executeDdl(con, "DROP VIEW IF EXISTS " + view);
     }
 
     @Override
@@ -136,57 +139,130 @@ public final class DuckDbTestUtil extends TestUtil {
 
     @Override
     public void createFunction(Connection con, String name, String arguments, String query) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            String sql = "CREATE FUNCTION " + name + "(" + arguments + ") AS " + query;
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        statementCache(con).statement().executeUpdate("CREATE FUNCTION " + name + "(" + arguments + ") AS " + query);
     }
 
     @Override
     public void dropFunction(Connection con, String function, String arguments) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            String sql = "DROP FUNCTION IF EXISTS " + function;
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        statementCache(con).statement().executeUpdate("DROP FUNCTION IF EXISTS " + function);
     }
 
     @Override
     public void createObject(Connection con, String objectType, String objectName, String columnsAndOtherStuff)
             throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            dropObject(con, objectType, objectName);
-            String sql = "CREATE " + objectType + " " + objectName + " " + columnsAndOtherStuff;
-            stmt.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        executeDdl(con, dropObjectSql(con, objectType, objectName),
+                "CREATE " + objectType + " " + objectName + " " + columnsAndOtherStuff);
     }
 
     @Override
     public void dropObject(Connection con, String objectType, String objectName) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            if (con.getAutoCommit()) {
-                // Not in a transaction so ignore error for missing object
-                stmt.executeUpdate("DROP " + objectType + " IF EXISTS " + objectName + " CASCADE");
-            } else {
-                // In a transaction so do not ignore errors for missing object
-                stmt.executeUpdate("DROP " + objectType + " " + objectName + " CASCADE");
+        executeDdl(con, dropObjectSql(con, objectType, objectName));
+    }
+
+    private static String dropObjectSql(Connection con, String objectType, String objectName) throws SQLException {
+        if (con.getAutoCommit()) {
+            // Not in a transaction so ignore error for missing object
+            return "DROP " + objectType + " IF EXISTS " + objectName + " CASCADE";
+        }
+        // In a transaction so do not ignore errors for missing object
+        return "DROP " + objectType + " " + objectName + " CASCADE";
+    }
+
+    /**
+     * DuckDB does not support Statement batches, batched DDL is sent as one
+     * multi-statement string instead.
+     */
+    @Override
+    protected void executeDdl(Connection con, String... sqls) throws SQLException {
+        if (!isBatchedDdl() || sqls.length < 2) {
+            super.executeDdl(con, sqls);
+            return;
+        }
+        statementCache(con).statement().execute(String.join(";\n", sqls));
+    }
+
+    /**
+     * Streams the rows through DuckDB's Appender, which writes them straight into
+     * the table's storage without parsing or planning an INSERT.
+     */
+    @Override
+    public long bulkInsert(Connection con, String table, ColumnValues... columns) throws SQLException {
+        return appendRows(con, table, columns);
+    }
+
+    /**
+     * Append the rows of columns to table in the default schema with a
+     * {@link DuckDBAppender}. The rows become visible when the appender is closed,
+     * at the end.
+     *
+     * @return number of rows appended
+     */
+    public long appendRows(Connection con, String table, ColumnValues... columns) throws SQLException {
+        int rows = columns.length == 0 ? 0 : columns[0].size();
+        long start = System.nanoTime();
+        try (DuckDBAppender appender = duckDbConnection(con).createAppender("main", table)) {
+            for (int row = 0; row < rows; row++) {
+                appender.beginRow();
+                for (ColumnValues column : columns) {
+                    append(appender, column, row);
+                }
+                appender.endRow();
             }
-        } finally {
-            TestUtil.closeQuietly(stmt);
         }
+        BulkLoadStats.record("appender", rows, 0, System.nanoTime() - start);
+        return rows;
+    }
+
+    private static void append(DuckDBAppender appender, ColumnValues column, int row) throws SQLException {
+        if (column.isNull(row)) {
+            appender.append((String) null);
+            return;
+        }
+        switch (column.getType()) {
+            case INT:
+                appender.append(column.ints()[row]);
+                break;
+            case BOOLEAN:
+                appender.append(column.booleans()[row]);
+                break;
+            case FLOAT:
+                appender.append(column.floats()[row]);
+                break;
+            case DOUBLE:
+                appender.append(column.doubles()[row]);
+                break;
+            case TEXT:
+            case VARCHAR:
+                appender.append(column.strings()[row]);
+                break;
+            case DATE:
+            case DATETIME:
+            case TIME:
+                // the appender has no temporal types, DuckDB casts the text
+                appender.append(column.toText(row));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + column.getType());
+        }
+    }
+
+    /**
+     * @return the DuckDB connection behind the log4jdbc spies and a pooled handle
+     */
+    public static DuckDBConnection duckDbConnection(Connection con) throws SQLException {
+        // one spy from openConnection(), one from the jdbc:log4jdbc URL
+        while (con instanceof ConnectionSpy) {
+            con = ((ConnectionSpy) con).getRealConnection();
+        }
+        if (con instanceof DuckDBConnection) {
+            return (DuckDBConnection) con;
+        }
+        return con.unwrap(DuckDBConnection.class);
     }
 
     @Override
     public void closeConnection(Connection con) throws SQLException {
+        closeStatements(con);
         ((DuckDBConnection) con).close();
     }
 }
@@ -0,0 +1,19 @@
+package demo.util;
+
+/**
+ * How a query's rows get from the server to the driver, see
+ * {@link TestUtil#streamQuery}. Which of them actually stream depends on the
+ * driver: pgjdbc only uses a cursor with a fetch size in a transaction, MySQL's
+ * Connector/J only with useCursorFetch or row by row with a fetch size of
+ * Integer.MIN_VALUE, every other combination reads the whole result first.
+ */
+public enum FetchMode {
+    // no fetch size, the driver's default
+    DEFAULT,
+    // a fetch size in autocommit mode
+    FETCH_SIZE,
+    // a fetch size in a transaction, on MySQL with useCursorFetch
+    CURSOR,
+    // MySQL only, a fetch size of Integer.MIN_VALUE streams one row at a time
+    STREAMING
+}
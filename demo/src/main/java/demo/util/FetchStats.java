@@ -0,0 +1,82 @@
+package demo.util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queries, rows, time to the first row and the peak heap growth while reading of
+ * the queries of {@link TestUtil#streamQuery} for the whole process by
+ * {@link FetchMode}. A mode whose peak heap grows with the result while the
+ * others stay flat is a driver that reads the whole result before the first
+ * row.
+ */
+public final class FetchStats {
+    private static final Counters[] modes = new Counters[FetchMode.values().length];
+
+    static {
+        for (int i = 0; i < modes.length; i++) {
+            modes[i] = new Counters();
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder queries = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder nanosToFirstRow = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator peakHeap = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * @param peakHeapBytes most the used heap grew over its size before the query,
+     *                      sampled while reading
+     */
+    public static void record(FetchMode mode, long rows, long nanosToFirstRow, long nanos, long peakHeapBytes) {
+        Counters counters = modes[mode.ordinal()];
+        counters.queries.increment();
+        counters.rows.add(rows);
+        counters.nanosToFirstRow.add(nanosToFirstRow);
+        counters.nanos.add(nanos);
+        counters.peakHeap.accumulate(peakHeapBytes);
+    }
+
+    public static long getQueries(FetchMode mode) {
+        return modes[mode.ordinal()].queries.sum();
+    }
+
+    public static long getRows(FetchMode mode) {
+        return modes[mode.ordinal()].rows.sum();
+    }
+
+    /**
+     * @return the largest peak heap growth of a query with mode
+     */
+    public static long getPeakHeapBytes(FetchMode mode) {
+        return modes[mode.ordinal()].peakHeap.get();
+    }
+
+    public static double meanMillisToFirstRow(FetchMode mode) {
+        Counters counters = modes[mode.ordinal()];
+        long queries = counters.queries.sum();
+        return queries == 0 ? 0 : counters.nanosToFirstRow.sum() / 1e6 / queries;
+    }
+
+    public static String summary() {
+        StringBuilder sb = new StringBuilder("fetches:");
+        for (FetchMode mode : FetchMode.values()) {
+            Counters counters = modes[mode.ordinal()];
+            long queries = counters.queries.sum();
+            if (queries == 0) {
+                continue;
+            }
+            long nanos = counters.nanos.sum();
+            sb.append(String.format("%n\t%s: %d queries, %d rows, %.0f rows/s, %.1fms to first row, peak heap +%.1fMB",
+                    mode, queries, counters.rows.sum(), nanos == 0 ? 0 : counters.rows.sum() * 1e9 / nanos,
+                    meanMillisToFirstRow(mode), counters.peakHeap.get() / 1e6));
+        }
+        return sb.length() == "fetches:".length() ? "fetches: none" : sb.toString();
+    }
+
+    private FetchStats() {
+    }
+}
@@ -0,0 +1,119 @@
+package demo.util;
+
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+/**
+ * Settings of a MySQL test database, read once from mysql.build.properties and the
+ * system properties, which take precedence. Immutable: the JDBC URL and the
+ * default connection properties are built here, opening a connection only copies
+ * them.
+ */
+public final class MySqlConfig {
+    private final String server;
+    private final int port;
+    private final String database;
+    @Nullable
+    private final String user;
+    private final String password;
+    @Nullable
+    private final String privilegedUser;
+    @Nullable
+    private final String privilegedPassword;
+    // built from the above
+    private final String url;
+    private final Properties connectionProperties;
+
+    private static final class Defaults {
+        static final MySqlConfig INSTANCE = load();
+    }
+
+    public MySqlConfig(Properties p) {
+        this.server = p.getProperty("server", "localhost");
+        this.port = Integer.parseInt(p.getProperty("port", "3306"));
+        this.database = p.getProperty("database", "test");
+        this.user = p.getProperty("user");
+        this.password = p.getProperty("password", "");
+        this.privilegedUser = p.getProperty("privilegedUser");
+        this.privilegedPassword = p.getProperty("privilegedPassword");
+
+        this.url = "jdbc:log4jdbc:mysql://" + server + ":" + port + "/" + database
+                + "?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true";
+        Properties props = new Properties();
+        if (user != null) {
+            props.setProperty("user", user);
+        }
+        props.setProperty("password", password);
+        props.setProperty("sslMode", "DISABLED"); // testsuite is built upon non-SSL default connection
+        props.setProperty("allowPublicKeyRetrieval", "true");
+        props.setProperty("createDatabaseIfNotExist", "true");
+        // off by default in Connector/J, batches then go statement by statement
+        for (String key : new String[] { "rewriteBatchedStatements", "useServerPrepStmts" }) {
+            if (p.getProperty(key) != null) {
+                props.setProperty(key, p.getProperty(key));
+            }
+        }
+        this.connectionProperties = props;
+    }
+
+    /**
+     * @return the configuration of the mysql.build.properties file and the system
+     *         properties, loaded on first use
+     */
+    public static MySqlConfig defaults() {
+        return Defaults.INSTANCE;
+    }
+
+    public static MySqlConfig load() {
+        Properties p = TestUtil.loadPropertyFiles("mysql.build.properties");
+        p.putAll(System.getProperties());
+        return new MySqlConfig(p);
+    }
+
+    /**
+     * @return the JDBC URL of the configured database
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return a copy of the default connection properties: user, password and the
+     *         driver settings
+     */
+    public Properties newConnectionProperties() {
+        return (Properties) connectionProperties.clone();
+    }
+
+    public String getServer() {
+        return server;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getDatabase() {
+        return database;
+    }
+
+    @Nullable
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    @Nullable
+    public String getPrivilegedUser() {
+        return privilegedUser;
+    }
+
+    @Nullable
+    public String getPrivilegedPassword() {
+        return privilegedPassword;
+    }
+}
@@ -1,14 +1,17 @@
 package demo.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.EnumSet;
 import java.util.Properties;
+import java.util.Set;
 
 import javax.annotation.Nullable;
 
 import com.mysql.cj.conf.ConnectionUrl;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.PropertySet;
 import com.mysql.cj.jdbc.JdbcConnection;
 import com.mysql.cj.jdbc.NonRegisteringDriver;
 
@@ -47,36 +50,35 @@ public final class MySqlTestUtil extends TestUtil {
         dropObject(con, "VIEW", view);
     }
 
+    private final MySqlConfig config;
+
+    public MySqlTestUtil() {
+        this(MySqlConfig.defaults());
+    }
+
+    public MySqlTestUtil(MySqlConfig config) {
+        this.config = config;
+    }
+
+    public MySqlConfig getConfig() {
+        return config;
+    }
+
     @Override
     public String getDatabase() {
-        return System.getProperty("database", "test");
+        return config.getDatabase();
     }
 
-    
     public int getPort() {
-        return Integer.parseInt(System.getProperty("port", "3306"));
+        return config.getPort();
     }
 
-    
     public String getServer() {
-        return System.getProperty("server", "localhost");
+        return config.getServer();
     }
 
-    
     public String getURL() {
-        String server = getServer();
-        int port = getPort();
-        String database = getDatabase();
-
-        return "jdbc:log4jdbc:mysql://"
-        + server + ":" + port + "/"
-        + database+ "?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true";
-    }
-
-    public void initDriver() {
-        Properties p = TestUtil.loadPropertyFiles("mysql.build.properties");
-        p.putAll(System.getProperties());
-        System.getProperties().putAll(p);
+        return config.getUrl();
     }
 
     @Override
@@ -86,41 +88,126 @@ public final class MySqlTestUtil extends TestUtil {
 
     @Override
     public Connection openConnection(Properties props) throws SQLException {
-        initDriver();
-
-        // Allow properties to override the user name.
-        String user = props.getProperty("user");
-        if (user == null) {
-            user = System.getProperty("user");
-        }
-        if (user == null) {
+        Properties effective = connectionProperties(props);
+        if (effective.getProperty("user") == null) {
             throw new IllegalArgumentException(
                     "user name is not specified. Please specify 'user' property via -D or build.properties");
         }
-        props.setProperty("user", user);
 
-        // Allow properties to override the password.
-        String password = props.getProperty("passowrd");
-        if (password == null) {
-            password = System.getProperty("password") != null ? System.getProperty("password") : "";
+        return connect(getURL(), effective);
+    }
+
+    /**
+     * @return the configured user, password and driver settings unless props
+     *         override them; with batched DDL also allowMultiQueries, for
+     *         {@link #executeDdl}
+     */
+    public Properties connectionProperties(Properties props) {
+        Properties effective = config.newConnectionProperties();
+        effective.putAll(props);
+        if (isBatchedDdl() && effective.getProperty("allowMultiQueries") == null) {
+            effective.setProperty("allowMultiQueries", "true");
+        }
+        return effective;
+    }
+
+    /**
+     * Connector/J sends a Statement batch statement by statement unless
+     * rewriteBatchedStatements is set and it has more than 4 statements, batched
+     * DDL is sent as one multi-statement string instead. The results of all
+     * statements are read, an error of a later one is thrown by
+     * getMoreResults().
+     */
+    @Override
+    protected void executeDdl(Connection con, String... sqls) throws SQLException {
+        if (!isBatchedDdl() || sqls.length < 2) {
+            super.executeDdl(con, sqls);
+            return;
+        }
+        Statement stmt = statementCache(con).statement();
+        stmt.execute(String.join(";\n", sqls));
+        while (stmt.getMoreResults() || stmt.getUpdateCount() != -1) {
+            // next result
         }
-        props.setProperty("password", password);
+    }
 
-        props.setProperty("sslMode", "DISABLED"); // testsuite is built upon non-SSL default connection
-        props.setProperty("allowPublicKeyRetrieval", "true");
-        props.setProperty("createDatabaseIfNotExist", "true");
+    /**
+     * Open a connection that sends a batch of a PreparedStatement as multi-row
+     * INSERTs or statement by statement, with server-side or client-side prepared
+     * statements.
+     */
+    public Connection openBatchConnection(boolean rewriteBatchedStatements, boolean useServerPrepStmts)
+            throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("rewriteBatchedStatements", Boolean.toString(rewriteBatchedStatements));
+        properties.setProperty("useServerPrepStmts", Boolean.toString(useServerPrepStmts));
+        return openConnection(properties);
+    }
+
+    // a derived table of the digits 0 to 9, for seriesQuery()
+    private static final String DIGITS = "(SELECT 0 AS i UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3"
+            + " UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8"
+            + " UNION ALL SELECT 9)";
 
-        String url = getURL();
-        return DriverManager.getConnection(url, props);
+    @Override
+    public Set<FetchMode> fetchModes() {
+        return EnumSet.allOf(FetchMode.class);
+    }
+
+    /**
+     * Connector/J has no generate_series(), the rows are a cross join of digits.
+     */
+    @Override
+    public String seriesQuery(long rows, int width) {
+        StringBuilder sql = new StringBuilder("SELECT 1");
+        StringBuilder from = new StringBuilder();
+        long multiplier = 1;
+        for (int d = 0; multiplier < rows; d++, multiplier *= 10) {
+            sql.append(" + d").append(d).append(".i * ").append(multiplier);
+            from.append(d == 0 ? " FROM " : " CROSS JOIN ").append(DIGITS).append(" d").append(d);
+        }
+        return sql.append(" AS i, REPEAT('x', ").append(width).append(")").append(from).append(" LIMIT ").append(rows)
+                .toString();
+    }
+
+    /**
+     * Connector/J only fetches with a server cursor on a connection with
+     * useCursorFetch, CURSOR runs on one of its own.
+     */
+    @Override
+    public long streamQuery(Connection con, String sql, FetchMode mode, int fetchSize) throws SQLException {
+        if (mode != FetchMode.CURSOR) {
+            return super.streamQuery(con, sql, mode, fetchSize);
+        }
+        Properties properties = new Properties();
+        properties.setProperty("useCursorFetch", "true");
+        Connection cursorCon = openConnection(properties);
+        try {
+            return super.streamQuery(cursorCon, sql, mode, fetchSize);
+        } finally {
+            closeConnection(cursorCon);
+        }
+    }
+
+    @Override
+    protected String batchInsertMethod(Connection con, int batchSize) throws SQLException {
+        PropertySet properties = con.unwrap(JdbcConnection.class).getPropertySet();
+        String method = super.batchInsertMethod(con, batchSize);
+        if (properties.getBooleanProperty(PropertyKey.rewriteBatchedStatements).getValue()) {
+            method += ", rewritten";
+        }
+        if (properties.getBooleanProperty(PropertyKey.useServerPrepStmts).getValue()) {
+            method += ", server prepared";
+        }
+        return method;
     }
 
     @Override
     public Connection openPriviligedConnection() throws SQLException {
-        initDriver();
         Properties properties = new Properties();
 
-        properties.setProperty("user", System.getProperty("privilegedUser"));
-        properties.setProperty("password", System.getProperty("privilegedPassword"));
+        properties.setProperty("user", config.getPrivilegedUser());
+        properties.setProperty("password", config.getPrivilegedPassword());
 
         return openConnection(properties);
     }
@@ -128,8 +215,8 @@ public final class MySqlTestUtil extends TestUtil {
     @Override
     public Connection openReadOnlyConnection(@Nullable String option) throws Exception {
         Properties properties = new Properties();
-        properties.setProperty("user", System.getProperty("user"));
-        properties.setProperty("password", System.getProperty("password"));
+        properties.setProperty("user", config.getUser());
+        properties.setProperty("password", config.getPassword());
         properties.setProperty("sslMode", "DISABLED"); // testsuite is built upon non-SSL default connection
         properties.setProperty("allowPublicKeyRetrieval", "true");
         properties.setProperty("readOnly", "true");
@@ -143,8 +230,8 @@ public final class MySqlTestUtil extends TestUtil {
         
         Properties properties = new Properties();
         
-        properties.setProperty("user", System.getProperty("privilegedUser"));
-        properties.setProperty("password", System.getProperty("privilegedPassword"));
+        properties.setProperty("user", config.getPrivilegedUser());
+        properties.setProperty("password", config.getPrivilegedPassword());
         properties.setProperty("sslMode", "DISABLED"); // testsuite is built upon non-SSL default connection
         properties.setProperty("allowPublicKeyRetrieval", "true");
         Connection replConn = new NonRegisteringDriver().connect(replicationUrl, properties);
@@ -170,54 +257,53 @@ public final class MySqlTestUtil extends TestUtil {
     @Override
     public void createObject(Connection con, String objectType, String objectName, String columnsAndOtherStuff)
             throws SQLException {
-        Statement st = con.createStatement();
-
         StringBuilder createSql = new StringBuilder(
                 objectName.length() + objectType.length() + columnsAndOtherStuff.length() + 10);
+        createSql.append("CREATE ");
+        createSql.append(objectType);
+        createSql.append(" ");
+        createSql.append(objectName);
+        createSql.append(" ");
+        createSql.append(columnsAndOtherStuff);
+
+        String[] dropSql = dropObjectSql(con, objectType, objectName);
+        String[] sqls = new String[dropSql.length + 1];
+        System.arraycopy(dropSql, 0, sqls, 0, dropSql.length);
+        sqls[dropSql.length] = createSql.toString();
         try {
-            dropObject(con, objectType, objectName);
-            createSql.append("CREATE ");
-            createSql.append(objectType);
-            createSql.append(" ");
-            createSql.append(objectName);
-            createSql.append(" ");
-            createSql.append(columnsAndOtherStuff);
-
-            st.executeUpdate(createSql.toString());
+            executeDdl(con, sqls);
         } catch (SQLException sqlEx) {
             if ("42S01".equals(sqlEx.getSQLState())) {
                 System.err.println(
                         "WARN: Stale mysqld table cache preventing table creation - flushing tables and trying again");
-                st.executeUpdate("FLUSH TABLES"); // some bug in 5.1 on the mac causes tables to not disappear from the
-                                                  // cache
-                st.executeUpdate(createSql.toString());
+                // some bug in 5.1 on the mac causes tables to not disappear from the cache
+                executeDdl(con, "FLUSH TABLES", createSql.toString());
             } else {
                 throw sqlEx;
             }
-        } finally {
-            TestUtil.closeQuietly(st);
         }
     }
 
     @Override
     public void dropObject(Connection con, String objectType, String objectName) throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            if (!objectType.equalsIgnoreCase("USER")
-                    || ((JdbcConnection) con).getSession().versionMeetsMinimum(5, 7, 8)) {
-                st.executeUpdate("DROP " + objectType + " IF EXISTS " + objectName);
-            } else {
-                st.executeUpdate("DROP " + objectType + " " + objectName);
-            }
-            st.executeUpdate("flush privileges");
-        } finally {
-            TestUtil.closeQuietly(st);
+        executeDdl(con, dropObjectSql(con, objectType, objectName));
+    }
+
+    private static String[] dropObjectSql(Connection con, String objectType, String objectName) throws SQLException {
+        if (!objectType.equalsIgnoreCase("USER")) {
+            // only dropping a user touches the grant tables
+            return new String[] { "DROP " + objectType + " IF EXISTS " + objectName };
         }
+        String drop = ((JdbcConnection) con).getSession().versionMeetsMinimum(5, 7, 8)
+                ? "DROP USER IF EXISTS " + objectName
+                : "DROP USER " + objectName;
+        return new String[] { drop, "flush privileges" };
     }
 
     @Override
     public void closeConnection(Connection con) throws SQLException {
         if (con != null) {
+            closeStatements(con);
             con.close();
         }
     }
@@ -0,0 +1,219 @@
+package demo.util;
+
+import java.util.Properties;
+
+import javax.annotation.Nullable;
+
+/**
+ * Settings of a Postgres test database, read once from postgresql.build.properties
+ * and the system properties, which take precedence. Immutable: the JDBC URL and
+ * the default connection properties are built here, opening a connection only
+ * copies them.
+ */
+public final class PostgresConfig {
+    private final String server;
+    private final int port;
+    @Nullable
+    private final String database;
+    @Nullable
+    private final String user;
+    private final String password;
+    @Nullable
+    private final String sslPassword;
+    @Nullable
+    private final String privilegedUser;
+    @Nullable
+    private final String privilegedPassword;
+    @Nullable
+    private final String sspiUser;
+    private final String gssEncMode;
+    private final int prepareThreshold;
+    private final int protocolVersion;
+    @Nullable
+    private final String options;
+    @Nullable
+    private final String binaryTransfer;
+    private final int sendBufferSize;
+    private final int receiveBufferSize;
+    @Nullable
+    private final String ssl;
+    @Nullable
+    private final String preferQueryMode;
+    // built from the above
+    private final String url;
+    private final Properties connectionProperties;
+
+    private static final class Defaults {
+        static final PostgresConfig INSTANCE = load();
+    }
+
+    public PostgresConfig(Properties p) {
+        this.server = p.getProperty("server", "localhost");
+        this.port = Integer.parseInt(p.getProperty("port", p.getProperty("def_pgport", "5432")));
+        this.database = p.getProperty("database");
+        this.user = p.getProperty("user");
+        this.password = p.getProperty("password", "");
+        this.sslPassword = p.getProperty("sslpassword");
+        this.privilegedUser = p.getProperty("privilegedUser");
+        this.privilegedPassword = p.getProperty("privilegedPassword");
+        this.sspiUser = p.getProperty("sspiusername");
+        this.gssEncMode = p.getProperty("gssEncMode", "allow"); // adapted from pgjdbc GSSEncMode, default to allow
+        this.prepareThreshold = Integer.parseInt(p.getProperty("preparethreshold", "5"));
+        this.protocolVersion = Integer.parseInt(p.getProperty("protocolVersion", "0"));
+        this.options = p.getProperty("options");
+        this.binaryTransfer = p.getProperty("binaryTransfer");
+        this.sendBufferSize = Integer.parseInt(p.getProperty("sendBufferSize", "-1"));
+        this.receiveBufferSize = Integer.parseInt(p.getProperty("receiveBufferSize", "-1"));
+        this.ssl = p.getProperty("ssl");
+        this.preferQueryMode = p.getProperty("preferQueryMode");
+
+        this.url = buildUrl(server + ":" + port, database);
+        Properties props = new Properties();
+        if (user != null) {
+            props.setProperty("user", user);
+        }
+        props.setProperty("password", password);
+        if (sslPassword != null) {
+            props.setProperty("sslpassword", sslPassword);
+        }
+        props.setProperty("prepareThreshold", Integer.toString(prepareThreshold));
+        if (preferQueryMode != null) {
+            props.setProperty("preferQueryMode", preferQueryMode);
+        }
+        props.setProperty("gssEncMode", gssEncMode);
+        this.connectionProperties = props;
+    }
+
+    /**
+     * @return the configuration of the postgresql.build.properties file and the
+     *         system properties, loaded on first use
+     */
+    public static PostgresConfig defaults() {
+        return Defaults.INSTANCE;
+    }
+
+    public static PostgresConfig load() {
+        Properties p = TestUtil.loadPropertyFiles("postgresql.build.properties");
+        p.putAll(System.getProperties());
+        return new PostgresConfig(p);
+    }
+
+    /**
+     * @return the JDBC URL of a database on a server other than the configured one
+     */
+    public String buildUrl(String hostport, @Nullable String database) {
+        StringBuilder sb = new StringBuilder("jdbc:log4jdbc:postgresql://").append(hostport).append('/')
+                .append(database).append("?ApplicationName=Driver Tests");
+        if (protocolVersion != 0) {
+            sb.append("&protocolVersion=").append(protocolVersion);
+        }
+        if (options != null) {
+            sb.append("&options=").append(options);
+        }
+        if (binaryTransfer != null && !binaryTransfer.equals("")) {
+            sb.append("&binaryTransfer=").append(binaryTransfer);
+        }
+        if (receiveBufferSize != -1) {
+            sb.append("&receiveBufferSize=").append(receiveBufferSize);
+        }
+        if (sendBufferSize != -1) {
+            sb.append("&sendBufferSize=").append(sendBufferSize);
+        }
+        if (ssl != null) {
+            sb.append("&ssl=").append(ssl);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the JDBC URL of the configured database
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return a copy of the default connection properties: user, password and the
+     *         driver settings
+     */
+    public Properties newConnectionProperties() {
+        return (Properties) connectionProperties.clone();
+    }
+
+    public String getServer() {
+        return server;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Nullable
+    public String getDatabase() {
+        return database;
+    }
+
+    @Nullable
+    public String getUser() {
+        return user;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    @Nullable
+    public String getSslPassword() {
+        return sslPassword;
+    }
+
+    @Nullable
+    public String getPrivilegedUser() {
+        return privilegedUser;
+    }
+
+    @Nullable
+    public String getPrivilegedPassword() {
+        return privilegedPassword;
+    }
+
+    @Nullable
+    public String getSspiUser() {
+        return sspiUser;
+    }
+
+    public String getGssEncMode() {
+        return gssEncMode;
+    }
+
+    public int getPrepareThreshold() {
+        return prepareThreshold;
+    }
+
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    @Nullable
+    public String getOptions() {
+        return options;
+    }
+
+    @Nullable
+    public String getBinaryTransfer() {
+        return binaryTransfer;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    @Nullable
+    public String getSsl() {
+        return ssl;
+    }
+}
@@ -6,15 +6,20 @@ package demo.util;
  */
 
 import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.postgresql.core.TransactionState;
 import org.postgresql.core.BaseConnection;
 import org.postgresql.jdbc.PgConnection;
 
+import demo.ColumnValues;
 import demo.GlobalInfo;
 import demo.ResourceLock;
 import demo.state.State;
 
 import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -45,14 +50,34 @@ public final class PostgresTestUtil extends TestUtil {
     public final String SERVER_HOST_PORT_PROP = "_test_hostport";
     public final String DATABASE_PROP = "_test_database";
 
+    // bytes of COPY data sent to the server at a time
+    public static final int COPY_BUFFER_SIZE = Integer.getInteger("copy.bufferSize", 65536);
+
     private final ResourceLock lock = new ResourceLock();
 
+    // reused by every copyIn(), a walker has its own PostgresTestUtil
+    private final CopyTextEncoder copyEncoder = new CopyTextEncoder(COPY_BUFFER_SIZE);
+
+    private final PostgresConfig config;
+
+    public PostgresTestUtil() {
+        this(PostgresConfig.defaults());
+    }
+
+    public PostgresTestUtil(PostgresConfig config) {
+        this.config = config;
+    }
+
+    public PostgresConfig getConfig() {
+        return config;
+    }
+
     /*
      * Returns the Test database JDBC URL
      */
 
     public String getURL() {
-        return getURL(getServer(), +getPort());
+        return config.getUrl();
     }
 
     public String getURL(String server, int port) {
@@ -60,46 +85,7 @@ public final class PostgresTestUtil extends TestUtil {
     }
 
     public String getURL(String hostport, String database) {
-        String protocolVersion = "";
-        if (getProtocolVersion() != 0) {
-            protocolVersion = "&protocolVersion=" + getProtocolVersion();
-        }
-
-        String options = "";
-        if (getOptions() != null) {
-            options = "&options=" + getOptions();
-        }
-
-        String binaryTransfer = "";
-        if (getBinaryTransfer() != null && !getBinaryTransfer().equals("")) {
-            binaryTransfer = "&binaryTransfer=" + getBinaryTransfer();
-        }
-
-        String receiveBufferSize = "";
-        if (getReceiveBufferSize() != -1) {
-            receiveBufferSize = "&receiveBufferSize=" + getReceiveBufferSize();
-        }
-
-        String sendBufferSize = "";
-        if (getSendBufferSize() != -1) {
-            sendBufferSize = "&sendBufferSize=" + getSendBufferSize();
-        }
-
-        String ssl = "";
-        if (getSSL() != null) {
-            ssl = "&ssl=" + getSSL();
-        }
-
-        return "jdbc:log4jdbc:postgresql://"
-                + hostport + "/"
-                + database
-                + "?ApplicationName=Driver Tests"
-                + protocolVersion
-                + options
-                + binaryTransfer
-                + receiveBufferSize
-                + sendBufferSize
-                + ssl;
+        return config.buildUrl(hostport, database);
     }
 
     /*
@@ -107,7 +93,7 @@ public final class PostgresTestUtil extends TestUtil {
      */
 
     public String getServer() {
-        return System.getProperty("server", "localhost");
+        return config.getServer();
     }
 
     /*
@@ -115,22 +101,22 @@ public final class PostgresTestUtil extends TestUtil {
      */
 
     public int getPort() {
-        return Integer.parseInt(System.getProperty("port", System.getProperty("def_pgport")));
+        return config.getPort();
     }
 
     /*
      * Returns the server side prepared statement threshold.
      */
     public int getPrepareThreshold() {
-        return Integer.parseInt(System.getProperty("preparethreshold", "5"));
+        return config.getPrepareThreshold();
     }
 
     public int getProtocolVersion() {
-        return Integer.parseInt(System.getProperty("protocolVersion", "0"));
+        return config.getProtocolVersion();
     }
 
     public String getOptions() {
-        return System.getProperty("options");
+        return config.getOptions();
     }
 
     /*
@@ -138,86 +124,74 @@ public final class PostgresTestUtil extends TestUtil {
      */
     @Override
     public String getDatabase() {
-        return System.getProperty("database");
+        return config.getDatabase();
     }
 
     /*
      * Returns the Postgresql username
      */
     public String getUser() {
-        return System.getProperty("user");
+        return config.getUser();
     }
 
     /*
      * Returns the user's password
      */
     public String getPassword() {
-        return System.getProperty("password");
+        return config.getPassword();
     }
 
     /*
      * Returns password for default callbackhandler
      */
     public String getSslPassword() {
-        return System.getProperty("sslpassword");
+        return config.getSslPassword();
     }
 
     /*
      * Return the GSSEncMode for the tests
      */
     public String getGSSEncMode() {
-        return System.getProperty("gssEncMode", "allow"); // adapted from pgjdbc GSSEncMode, default to allow
+        return config.getGssEncMode();
     }
 
     /*
      * Returns the user for SSPI authentication tests
      */
     public String getSSPIUser() {
-        return System.getProperty("sspiusername");
+        return config.getSspiUser();
     }
 
     /*
      * postgres like user
      */
     public String getPrivilegedUser() {
-        return System.getProperty("privilegedUser");
+        return config.getPrivilegedUser();
     }
 
     public String getPrivilegedPassword() {
-        return System.getProperty("privilegedPassword");
+        return config.getPrivilegedPassword();
     }
 
     /*
      * Returns the binary transfer mode to use
      */
     public String getBinaryTransfer() {
-        return System.getProperty("binaryTransfer");
+        return config.getBinaryTransfer();
     }
 
     public int getSendBufferSize() {
-        return Integer.parseInt(System.getProperty("sendBufferSize", "-1"));
+        return config.getSendBufferSize();
     }
 
     public int getReceiveBufferSize() {
-        return Integer.parseInt(System.getProperty("receiveBufferSize", "-1"));
+        return config.getReceiveBufferSize();
     }
 
     public String getSSL() {
-        return System.getProperty("ssl");
+        return config.getSsl();
     }
 
-    {
-        try {
-            initDriver();
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to initialize driver", e);
-        }
-    }
-
-    private boolean initialized = false;
-
     private Properties sslTestProperties = null;
 
     private void initSslTestProperties() {
@@ -242,20 +216,6 @@ public final class PostgresTestUtil extends TestUtil {
         return new File(certdir, name).getAbsolutePath();
     }
 
-    public void initDriver() {
-        try (ResourceLock ignore = lock.obtain()) {
-            if (initialized) {
-                return;
-            }
-
-            Properties p = TestUtil.loadPropertyFiles("postgresql.build.properties");
-            p.putAll(System.getProperties());
-            System.getProperties().putAll(p);
-
-            initialized = true;
-        }
-    }
-
     /**
      * Get a connection using a privileged user mostly for tests that the ability to
      * load C functions
@@ -267,7 +227,6 @@ public final class PostgresTestUtil extends TestUtil {
      */
     @Override
     public Connection openPriviligedConnection() throws SQLException {
-        initDriver();
         Properties properties = new Properties();
 
         properties.setProperty("gssEncMode", getGSSEncMode());
@@ -318,57 +277,28 @@ public final class PostgresTestUtil extends TestUtil {
      */
     @Override
     public Connection openConnection(Properties props) throws SQLException {
-        initDriver();
-
-        // Allow properties to override the user name.
-        String user = props.getProperty("user");
-        if (user == null) {
-            user = getUser();
-        }
-        if (user == null) {
+        // the configured user, password and driver settings unless props override them
+        Properties effective = config.newConnectionProperties();
+        effective.putAll(props);
+        if (effective.getProperty("user") == null) {
             throw new IllegalArgumentException(
                     "user name is not specified. Please specify 'user' property via -D or build.properties");
         }
-        props.setProperty("user", user);
-
-        // Allow properties to override the password.
-        String password = props.getProperty("passowrd");
-        if (password == null) {
-            password = getPassword() != null ? getPassword() : "";
-        }
-        props.setProperty("password", password);
 
-        String sslPassword = getSslPassword();
-        if (sslPassword != null) {
-            props.setProperty("sslpassword", sslPassword);
-        }
-
-        if (!props.containsKey("prepareThreshold")) {
-            props.setProperty("prepareThreshold", Integer.toString(getPrepareThreshold()));
-        }
-        if (!props.containsKey("preferQueryMode")) {
-            String value = System.getProperty("preferQueryMode");
-            if (value != null) {
-                props.setProperty("preferQueryMode", value);
-            }
-        }
         // Enable Base4 tests to override host,port,database
-        String hostport = props.getProperty(SERVER_HOST_PORT_PROP, getServer() + ":" + getPort());
-        String database = props.getProperty(DATABASE_PROP, getDatabase());
+        String hostport = props.getProperty(SERVER_HOST_PORT_PROP);
+        String database = props.getProperty(DATABASE_PROP);
+        String url = hostport == null && database == null ? config.getUrl()
+                : getURL(hostport != null ? hostport : getServer() + ":" + getPort(),
+                        database != null ? database : getDatabase());
 
-        // Set GSSEncMode for tests only in the case the property is already missing
-        if (props.getProperty("gssEncMode") == null) {
-            props.put("gssEncMode", getGSSEncMode());
-        }
-        String url = getURL(hostport, database);
-
-        Connection con = DriverManager.getConnection(url, props);
-        return con;
+        return connect(url, effective);
     }
 
     @Override
     public void closeConnection(Connection con) throws SQLException {
         if (con != null) {
+            closeStatements(con);
             con.close();
         }
     }
@@ -378,18 +308,8 @@ public final class PostgresTestUtil extends TestUtil {
      */
     @Override
     public void createSchema(Connection con, String schema) throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            // Drop the schema
-            dropSchema(con, schema);
-
-            // Now create the schema
-            String sql = "CREATE SCHEMA " + schema;
-
-            st.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        // Drop the schema, then create it
+        executeDdl(con, dropObjectSql(con, "SCHEMA", schema), "CREATE SCHEMA " + schema);
     }
 
     /*
@@ -405,18 +325,8 @@ public final class PostgresTestUtil extends TestUtil {
      */
     @Override
     public void createTable(Connection con, String table, String columns) throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            // Drop the table
-            dropTable(con, table);
-
-            // Now create the table
-            String sql = "CREATE TABLE " + table + " (" + columns + ")";
-
-            st.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        // Drop the table, then create it
+        executeDdl(con, dropObjectSql(con, "TABLE", table), "CREATE TABLE " + table + " (" + columns + ")");
     }
 
     /**
@@ -428,16 +338,8 @@ public final class PostgresTestUtil extends TestUtil {
      */
     public void createTempTable(Connection con, String table, String columns)
             throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            // Drop the table
-            dropTable(con, table);
-
-            // Now create the table
-            st.executeUpdate("create temp table " + table + " (" + columns + ")");
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        // Drop the table, then create it
+        executeDdl(con, dropObjectSql(con, "TABLE", table), "create temp table " + table + " (" + columns + ")");
     }
 
     /*
@@ -446,18 +348,11 @@ public final class PostgresTestUtil extends TestUtil {
      */
     public void createUnloggedTable(Connection con, String table, String columns)
             throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            // Drop the table
-            dropTable(con, table);
-
-            String unlogged = haveMinimumServerVersion(con, 901000) ? "UNLOGGED" : ""; // ServerVersion.v9_1
+        String unlogged = haveMinimumServerVersion(con, 901000) ? "UNLOGGED" : ""; // ServerVersion.v9_1
 
-            // Now create the table
-            st.executeUpdate("CREATE " + unlogged + " TABLE " + table + " (" + columns + ")");
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        // Drop the table, then create it
+        executeDdl(con, dropObjectSql(con, "TABLE", table),
+                "CREATE " + unlogged + " TABLE " + table + " (" + columns + ")");
     }
 
     /*
@@ -466,17 +361,8 @@ public final class PostgresTestUtil extends TestUtil {
     @Override
     public void createView(Connection con, String viewName, String query)
             throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            // Drop the view
-            dropView(con, viewName);
-
-            String sql = "CREATE VIEW " + viewName + " AS " + query;
-
-            st.executeUpdate(sql);
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        // Drop the view, then create it
+        executeDdl(con, dropObjectSql(con, "VIEW", viewName), "CREATE VIEW " + viewName + " AS " + query);
     }
 
     /*
@@ -484,14 +370,9 @@ public final class PostgresTestUtil extends TestUtil {
      */
     public void createMaterializedView(Connection con, String matViewName, String query)
             throws SQLException {
-        try (Statement st = con.createStatement()) {
-            // Drop the view
-            dropMaterializedView(con, matViewName);
-
-            String sql = "CREATE MATERIALIZED VIEW " + matViewName + " AS " + query;
-
-            st.executeUpdate(sql);
-        }
+        // Drop the view, then create it
+        executeDdl(con, dropObjectSql(con, "MATERIALIZED VIEW", matViewName),
+                "CREATE MATERIALIZED VIEW " + matViewName + " AS " + query);
     }
 
     /**
@@ -503,15 +384,7 @@ public final class PostgresTestUtil extends TestUtil {
      */
     public void createEnumType(Connection con, String name, String values)
             throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            dropType(con, name);
-
-            // Now create the table
-            st.executeUpdate("create type " + name + " as enum (" + values + ")");
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        executeDdl(con, dropObjectSql(con, "TYPE", name), "create type " + name + " as enum (" + values + ")");
     }
 
     /**
@@ -534,15 +407,11 @@ public final class PostgresTestUtil extends TestUtil {
      */
     public void createCompositeType(Connection con, String name, String values, boolean shouldDrop)
             throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            if (shouldDrop) {
-                dropType(con, name);
-            }
-            // Now create the type
-            st.executeUpdate("CREATE TYPE " + name + " AS (" + values + ")");
-        } finally {
-            TestUtil.closeQuietly(st);
+        String createSql = "CREATE TYPE " + name + " AS (" + values + ")";
+        if (shouldDrop) {
+            executeDdl(con, dropObjectSql(con, "TYPE", name), createSql);
+        } else {
+            executeDdl(con, createSql);
         }
     }
 
@@ -566,14 +435,7 @@ public final class PostgresTestUtil extends TestUtil {
      */
     public void createDomain(Connection con, String name, String values)
             throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            dropDomain(con, name);
-            // Now create the table
-            st.executeUpdate("create domain " + name + " as " + values);
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        executeDdl(con, dropObjectSql(con, "DOMAIN", name), "create domain " + name + " as " + values);
     }
 
     /*
@@ -615,25 +477,14 @@ public final class PostgresTestUtil extends TestUtil {
     @Override
     public void createObject(Connection con, String type, String name, String columnsAndOtherStuff)
             throws SQLException {
-        Statement st = con.createStatement();
-        try {
-            // Drop the object
-            dropObject(con, type, name);
-
-            st.executeUpdate("create " + type + " " + name + " " + columnsAndOtherStuff);
-        } finally {
-            TestUtil.closeQuietly(st);
-        }
+        // Drop the object, then create it
+        executeDdl(con, dropObjectSql(con, type, name), "create " + type + " " + name + " " + columnsAndOtherStuff);
     }
 
     @Override
     public void createFunction(Connection con, String name, String arguments, String query) throws SQLException {
-        Statement stmt = con.createStatement();
-        try {
-            stmt.executeUpdate("CREATE FUNCTION " + name + "(" + arguments + ") " + query + " LANGUAGE SQL");
-        } finally {
-            TestUtil.closeQuietly(stmt);
-        }
+        statementCache(con).statement()
+                .executeUpdate("CREATE FUNCTION " + name + "(" + arguments + ") " + query + " LANGUAGE SQL");
     }
 
     /*
@@ -646,17 +497,81 @@ public final class PostgresTestUtil extends TestUtil {
 
     @Override
     public void dropObject(Connection con, String type, String name) throws SQLException {
-        Statement stmt = con.createStatement();
+        executeDdl(con, dropObjectSql(con, type, name));
+    }
+
+    private static String dropObjectSql(Connection con, String type, String name) throws SQLException {
+        if (con.getAutoCommit()) {
+            // Not in a transaction so ignore error for missing object
+            return "DROP " + type + " IF EXISTS " + name + " CASCADE";
+        }
+        // In a transaction so do not ignore errors for missing object
+        return "DROP " + type + " " + name + " CASCADE";
+    }
+
+    /**
+     * Streams the rows with COPY ... FROM STDIN instead of INSERT statements.
+     */
+    @Override
+    public long bulkInsert(Connection con, String table, ColumnValues... columns) throws SQLException {
+        return copyIn(con, table, columns);
+    }
+
+    /**
+     * Copy the rows of columns into table with pgjdbc's CopyManager, encoded in
+     * the text format into a reused buffer, see {@link CopyTextEncoder}.
+     *
+     * @return number of rows copied
+     */
+    public long copyIn(Connection con, String table, ColumnValues... columns) throws SQLException {
+        int rows = columns.length == 0 ? 0 : columns[0].size();
+        long start = System.nanoTime();
+        CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI().copyIn("COPY " + table + " FROM STDIN");
+        long bytes;
+        long copied;
         try {
-            if (con.getAutoCommit()) {
-                // Not in a transaction so ignore error for missing object
-                stmt.executeUpdate("DROP " + type + " IF EXISTS " + name + " CASCADE");
-            } else {
-                // In a transaction so do not ignore errors for missing object
-                stmt.executeUpdate("DROP " + type + " " + name + " CASCADE");
-            }
+            bytes = copyEncoder.encode(columns, 0, rows, copyIn::writeToCopy);
+            copied = copyIn.endCopy();
         } finally {
-            TestUtil.closeQuietly(stmt);
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+        BulkLoadStats.record("copy in", copied, bytes, System.nanoTime() - start);
+        return copied;
+    }
+
+    /**
+     * Copy all rows of table to out with COPY ... TO STDOUT, in the text format.
+     *
+     * @return number of rows copied
+     */
+    public long copyOut(Connection con, String table, OutputStream out) throws SQLException, IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        long copied = con.unwrap(PGConnection.class).getCopyAPI().copyOut("COPY " + table + " TO STDOUT", counting);
+        BulkLoadStats.record("copy out", copied, counting.count, System.nanoTime() - start);
+        return copied;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        // FilterOutputStream writes arrays byte by byte
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
         }
     }
 
@@ -801,6 +716,10 @@ public final class PostgresTestUtil extends TestUtil {
         }
     }
 
+    /**
+     * @return the rows of rs as text, all of them in memory; {@link ResultDigest}
+     *         compares results of any size
+     */
     public List<String> resultSetToLines(ResultSet rs) throws SQLException {
         List<String> res = new ArrayList<String>();
         ResultSetMetaData rsmd = rs.getMetaData();
@@ -854,15 +773,11 @@ public final class PostgresTestUtil extends TestUtil {
         // drop previous slot
         dropReplicationSlot(connection, slotName);
 
-        PreparedStatement stm = null;
-        try {
-            stm = connection.prepareStatement("SELECT * FROM pg_create_logical_replication_slot(?, ?)");
-            stm.setString(1, slotName);
-            stm.setString(2, outputPlugin);
-            stm.execute();
-        } finally {
-            TestUtil.closeQuietly(stm);
-        }
+        PreparedStatement stm = statementCache(connection)
+                .prepare("SELECT * FROM pg_create_logical_replication_slot(?, ?)");
+        stm.setString(1, slotName);
+        stm.setString(2, outputPlugin);
+        stm.execute();
     }
 
     public void recreatePhysicalReplicationSlot(Connection connection, String slotName)
@@ -870,58 +785,37 @@ public final class PostgresTestUtil extends TestUtil {
         // drop previous slot
         dropReplicationSlot(connection, slotName);
 
-        PreparedStatement stm = null;
-        try {
-            stm = connection.prepareStatement("SELECT * FROM pg_create_physical_replication_slot(?)");
-            stm.setString(1, slotName);
-            stm.execute();
-        } finally {
-            TestUtil.closeQuietly(stm);
-        }
+        PreparedStatement stm = statementCache(connection).prepare("SELECT * FROM pg_create_physical_replication_slot(?)");
+        stm.setString(1, slotName);
+        stm.execute();
     }
 
     public void dropReplicationSlot(Connection connection, String slotName)
             throws SQLException, InterruptedException, TimeoutException {
         if (haveMinimumServerVersion(connection, 90500)) { // 90500 for Server_version v9_5
-            PreparedStatement stm = null;
-            try {
-                stm = connection.prepareStatement(
-                        "select pg_terminate_backend(active_pid) from pg_replication_slots "
-                                + "where active = true and slot_name = ?");
-                stm.setString(1, slotName);
-                stm.execute();
-            } finally {
-                TestUtil.closeQuietly(stm);
-            }
+            PreparedStatement stm = statementCache(connection).prepare(
+                    "select pg_terminate_backend(active_pid) from pg_replication_slots "
+                            + "where active = true and slot_name = ?");
+            stm.setString(1, slotName);
+            stm.execute();
         }
 
         waitStopReplicationSlot(connection, slotName);
 
-        PreparedStatement stm = null;
-        try {
-            stm = connection.prepareStatement(
-                    "select pg_drop_replication_slot(slot_name) "
-                            + "from pg_replication_slots where slot_name = ?");
-            stm.setString(1, slotName);
-            stm.execute();
-        } finally {
-            TestUtil.closeQuietly(stm);
-        }
+        PreparedStatement stm = statementCache(connection).prepare(
+                "select pg_drop_replication_slot(slot_name) "
+                        + "from pg_replication_slots where slot_name = ?");
+        stm.setString(1, slotName);
+        stm.execute();
     }
 
     public boolean isReplicationSlotActive(Connection connection, String slotName)
             throws SQLException {
-        PreparedStatement stm = null;
-        ResultSet rs = null;
-
-        try {
-            stm = connection.prepareStatement("select active from pg_replication_slots where slot_name = ?");
-            stm.setString(1, slotName);
-            rs = stm.executeQuery();
+        PreparedStatement stm = statementCache(connection)
+                .prepare("select active from pg_replication_slots where slot_name = ?");
+        stm.setString(1, slotName);
+        try (ResultSet rs = stm.executeQuery()) {
             return rs.next() && rs.getBoolean(1);
-        } finally {
-            TestUtil.closeQuietly(rs);
-            TestUtil.closeQuietly(stm);
         }
     }
 
@@ -930,12 +824,9 @@ public final class PostgresTestUtil extends TestUtil {
      * returned. No column data is fetched.
      */
     public boolean executeQuery(Connection conn, String sql) throws SQLException {
-        Statement stmt = conn.createStatement();
-        ResultSet rs = stmt.executeQuery(sql);
-        boolean hasNext = rs.next();
-        rs.close();
-        stmt.close();
-        return hasNext;
+        try (ResultSet rs = statementCache(conn).statement().executeQuery(sql)) {
+            return rs.next();
+        }
     }
 
     /**
@@ -991,12 +882,12 @@ public final class PostgresTestUtil extends TestUtil {
         String sql = haveMinimumServerVersion(conn, 90200) // ServerVersion.v9_2
                 ? "SELECT EXISTS (SELECT * FROM pg_stat_activity WHERE pid = ?)" // 9.2+ use pid column
                 : "SELECT EXISTS (SELECT * FROM pg_stat_activity WHERE procpid = ?)"; // Use older procpid
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, pid);
-            try (ResultSet rs = stmt.executeQuery()) {
-                rs.next();
-                return rs.getBoolean(1);
-            }
+        // polled by waitForBackendTermination(), reuse the statement
+        PreparedStatement stmt = statementCache(conn).prepare(sql);
+        stmt.setInt(1, pid);
+        try (ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getBoolean(1);
         }
     }
 
@@ -1115,9 +1006,7 @@ public final class PostgresTestUtil extends TestUtil {
      * connection.
      */
     public void execute(Connection connection, String sql) throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-        }
+        statementCache(connection).statement().execute(sql);
     }
 
 }
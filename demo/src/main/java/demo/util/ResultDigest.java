@@ -0,0 +1,416 @@
+package demo.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import demo.DataType;
+
+/**
+ * A 128-bit digest of the rows of a result, folded in one row at a time so that
+ * it takes the same memory for any number of rows. Two results of the same
+ * types have the same digest when they have the same rows, in any order, or
+ * with ordered in the same order.
+ *
+ * Every value is encoded by its {@link DataType}, not by what the driver
+ * returns: an INT as a long whether it is an int4 or a BIGINT, a FLOAT or DOUBLE
+ * by its bits with -0.0 as 0.0, a DATE as its epoch day, a DATETIME and a TIME
+ * as microseconds, TEXT and VARCHAR as the same UTF-8, so that the digests of
+ * two backends compare. Each row is hashed with MurmurHash3 x64 128. Unordered,
+ * the digest is the sum of the row hashes modulo 2^128, which counts duplicate
+ * rows where XOR would cancel them; ordered, every row hash is chained into the
+ * digest so far.
+ *
+ * With a {@link ResultSpill} every row also goes to disk, with its hash and a
+ * readable text, to find the rows that differ when two digests do not match.
+ */
+public final class ResultDigest {
+    private static final byte NULL = 0;
+    private static final byte INT = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte FLOAT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte DATE = 6;
+    private static final byte DATETIME = 7;
+    private static final byte TIME = 8;
+    // a TIME LocalTime does not parse, e.g. 25:00:00 of MySQL
+    private static final byte TIME_TEXT = 9;
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final boolean ordered;
+    @Nullable
+    private final ResultSpill spill;
+    // the encoded row, reused
+    private byte[] buffer = new byte[256];
+    private int length;
+    private final StringBuilder text = new StringBuilder();
+    private final long[] hash = new long[2];
+    private long high;
+    private long low;
+    private long rows;
+
+    public ResultDigest(boolean ordered) {
+        this(ordered, null);
+    }
+
+    /**
+     * @param spill also gets every row, null for the digest only
+     */
+    public ResultDigest(boolean ordered, @Nullable ResultSpill spill) {
+        if (spill != null && spill.isOrdered() != ordered) {
+            throw new IllegalArgumentException("ordered digest " + ordered + " with ordered spill " + spill.isOrdered());
+        }
+        this.ordered = ordered;
+        this.spill = spill;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getHigh() {
+        return high;
+    }
+
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * @return the types of the columns of rs, from its metadata
+     */
+    public static DataType[] columnTypes(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        DataType[] types = new DataType[meta.getColumnCount()];
+        for (int c = 0; c < types.length; c++) {
+            types[c] = DataType.fromSqlType(meta.getColumnType(c + 1));
+        }
+        return types;
+    }
+
+    /**
+     * Add the remaining rows of rs, encoded by the types of its metadata.
+     *
+     * @return number of rows added
+     */
+    public long addRows(ResultSet rs) throws SQLException, IOException {
+        return addRows(rs, columnTypes(rs));
+    }
+
+    /**
+     * Add the remaining rows of rs, encoded by types. Two backends may report a
+     * column as different types, e.g. a BOOLEAN of MySQL is a TINYINT, pass the
+     * types of the query to compare them.
+     *
+     * @return number of rows added
+     */
+    public long addRows(ResultSet rs, DataType[] types) throws SQLException, IOException {
+        long added = 0;
+        while (rs.next()) {
+            addRow(rs, types);
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Add the current row of rs.
+     */
+    public void addRow(ResultSet rs, DataType[] types) throws SQLException, IOException {
+        length = 0;
+        text.setLength(0);
+        for (int c = 0; c < types.length; c++) {
+            if (spill != null && c > 0) {
+                text.append('\t');
+            }
+            encode(rs, c + 1, types[c]);
+        }
+        murmur3(buffer, length, hash);
+        if (ordered) {
+            length = 0;
+            putLong(high);
+            putLong(low);
+            putLong(hash[0]);
+            putLong(hash[1]);
+            murmur3(buffer, length, hash);
+            high = hash[0];
+            low = hash[1];
+        } else {
+            long sum = low + hash[1];
+            high += hash[0] + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+            low = sum;
+        }
+        rows++;
+        if (spill != null) {
+            spill.add(hash[0], hash[1], text.toString());
+        }
+    }
+
+    private void encode(ResultSet rs, int column, DataType type) throws SQLException {
+        switch (type) {
+            case INT:
+                long l = rs.getLong(column);
+                if (!isNull(rs)) {
+                    tag(INT).putLong(l);
+                    text(l);
+                }
+                break;
+            case BOOLEAN:
+                boolean b = rs.getBoolean(column);
+                if (!isNull(rs)) {
+                    tag(BOOLEAN).put(b ? 1 : 0);
+                    text(b);
+                }
+                break;
+            case FLOAT:
+                float f = rs.getFloat(column);
+                if (!isNull(rs)) {
+                    // -0.0f == 0.0f
+                    tag(FLOAT).putInt(Float.floatToIntBits(f == 0 ? 0 : f));
+                    text(f);
+                }
+                break;
+            case DOUBLE:
+                double d = rs.getDouble(column);
+                if (!isNull(rs)) {
+                    tag(DOUBLE).putLong(Double.doubleToLongBits(d == 0 ? 0 : d));
+                    text(d);
+                }
+                break;
+            case TEXT:
+            case VARCHAR:
+                String s = rs.getString(column);
+                if (s != null) {
+                    tag(STRING).putString(s);
+                    text(s);
+                } else {
+                    putNull();
+                }
+                break;
+            case DATE:
+                LocalDate date = getDate(rs, column);
+                if (date != null) {
+                    tag(DATE).putLong(date.toEpochDay());
+                    text(date);
+                } else {
+                    putNull();
+                }
+                break;
+            case DATETIME:
+                LocalDateTime dateTime = getDateTime(rs, column);
+                if (dateTime != null) {
+                    tag(DATETIME).putLong(
+                            dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1000);
+                    text(dateTime);
+                } else {
+                    putNull();
+                }
+                break;
+            case TIME:
+                // getTime drops the fraction, the DuckDB driver returns null for a TIME
+                // with wasNull false, taken as NULL
+                String time = rs.getString(column);
+                if (time == null) {
+                    putNull();
+                    break;
+                }
+                try {
+                    tag(TIME).putLong(LocalTime.parse(time).toNanoOfDay() / 1000);
+                } catch (DateTimeParseException e) {
+                    tag(TIME_TEXT).putString(time);
+                }
+                text(time);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+    }
+
+    @Nullable
+    private static LocalDate getDate(ResultSet rs, int column) throws SQLException {
+        try {
+            Date date = rs.getDate(column);
+            return date == null ? null : date.toLocalDate();
+        } catch (SQLFeatureNotSupportedException e) {
+            String s = rs.getString(column);
+            return s == null ? null : LocalDate.parse(s);
+        }
+    }
+
+    @Nullable
+    private static LocalDateTime getDateTime(ResultSet rs, int column) throws SQLException {
+        try {
+            Timestamp timestamp = rs.getTimestamp(column);
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        } catch (SQLFeatureNotSupportedException e) {
+            String s = rs.getString(column);
+            return s == null ? null : Timestamp.valueOf(s).toLocalDateTime();
+        }
+    }
+
+    // true and a NULL tag when the primitive just read was NULL
+    private boolean isNull(ResultSet rs) throws SQLException {
+        if (!rs.wasNull()) {
+            return false;
+        }
+        putNull();
+        return true;
+    }
+
+    private void putNull() {
+        tag(NULL);
+        text("NULL");
+    }
+
+    private void text(Object value) {
+        if (spill != null) {
+            text.append(value);
+        }
+    }
+
+    private ResultDigest tag(byte tag) {
+        return put(tag);
+    }
+
+    private ResultDigest put(int b) {
+        ensure(1);
+        buffer[length++] = (byte) b;
+        return this;
+    }
+
+    private ResultDigest putInt(int v) {
+        ensure(4);
+        for (int i = 0; i < 4; i++, v >>>= 8) {
+            buffer[length++] = (byte) v;
+        }
+        return this;
+    }
+
+    private ResultDigest putLong(long v) {
+        ensure(8);
+        for (int i = 0; i < 8; i++, v >>>= 8) {
+            buffer[length++] = (byte) v;
+        }
+        return this;
+    }
+
+    // the length first, "a" "bc" and "ab" "c" encode differently
+    private void putString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensure(int n) {
+        if (length + n > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + n));
+        }
+    }
+
+    /**
+     * MurmurHash3 x64 128 of the first length bytes of data with seed 0, the
+     * little endian halves into out.
+     */
+    public static void murmur3(byte[] data, int length, long[] out) {
+        long h1 = 0;
+        long h2 = 0;
+        int blocks = length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLong(data, i * 16);
+            long k2 = getLong(data, i * 16 + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        for (int i = length - tail - 1; i >= 8; i--) {
+            k2 ^= (data[tail + i] & 0xffL) << ((i - 8) * 8);
+        }
+        for (int i = Math.min(length - tail, 8) - 1; i >= 0; i--) {
+            k1 ^= (data[tail + i] & 0xffL) << (i * 8);
+        }
+        h2 ^= length - tail > 8 ? mixK2(k2) : 0;
+        h1 ^= length - tail > 0 ? mixK1(k1) : 0;
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        out[0] = h1;
+        out[1] = h2;
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        long v = 0;
+        for (int i = 7; i >= 0; i--) {
+            v = v << 8 | (data[offset + i] & 0xffL);
+        }
+        return v;
+    }
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ResultDigest)) {
+            return false;
+        }
+        ResultDigest other = (ResultDigest) o;
+        return ordered == other.ordered && rows == other.rows && high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high) * 31 + Long.hashCode(low);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x (%d rows%s)", high, low, rows, ordered ? ", ordered" : "");
+    }
+}
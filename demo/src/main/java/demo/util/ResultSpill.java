@@ -0,0 +1,388 @@
+package demo.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import javax.annotation.Nullable;
+
+/**
+ * The rows of a {@link ResultDigest} on disk, each as its 128-bit hash and a
+ * readable text, to find the rows two results differ in. Unordered, rows are
+ * sorted by hash in runs of at most {@code resultSpill.runRows} rows (100k), the
+ * only rows held in memory, and the runs are merged when compared; ordered, they
+ * are written in the order they come. At most {@code resultSpill.fanIn} runs (64)
+ * are open at once, with more the first of them are merged into one run until
+ * that many remain, so that a large result takes neither all file handles nor a
+ * read buffer per run.
+ *
+ * The files are deleted on {@link #close()}.
+ */
+public final class ResultSpill implements Closeable {
+    public static final int RUN_ROWS = Integer.getInteger("resultSpill.runRows", 100_000);
+    public static final int FAN_IN = Integer.getInteger("resultSpill.fanIn", 64);
+
+    private static final Comparator<Row> BY_HASH = (a, b) -> {
+        int cmp = Long.compareUnsigned(a.high, b.high);
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.low, b.low);
+    };
+
+    private final boolean ordered;
+    private final File directory;
+    private final List<File> files = new ArrayList<>();
+    // files created so far, names stay unique as merged runs are deleted
+    private int created;
+    private final int fanIn;
+    // the run not written yet, unordered
+    private final Row[] run;
+    private int runLength;
+    // the only file, ordered
+    @Nullable
+    private DataOutputStream out;
+    private long rows;
+
+    /**
+     * A spill in a new temporary directory.
+     */
+    public ResultSpill(boolean ordered) throws IOException {
+        this(ordered, RUN_ROWS);
+    }
+
+    public ResultSpill(boolean ordered, int runRows) throws IOException {
+        this(ordered, runRows, FAN_IN);
+    }
+
+    /**
+     * @param fanIn most runs merged at once, at least 2
+     */
+    public ResultSpill(boolean ordered, int runRows, int fanIn) throws IOException {
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("fan-in " + fanIn + " merges no runs");
+        }
+        this.ordered = ordered;
+        this.fanIn = fanIn;
+        this.directory = Files.createTempDirectory("result-spill").toFile();
+        this.run = new Row[ordered ? 0 : runRows];
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of files the rows are in so far
+     */
+    public int getFiles() {
+        return files.size();
+    }
+
+    void add(long high, long low, String text) throws IOException {
+        rows++;
+        if (ordered) {
+            if (out == null) {
+                out = open(newFile());
+            }
+            write(out, high, low, text);
+            return;
+        }
+        run[runLength++] = new Row(high, low, text);
+        if (runLength == run.length) {
+            writeRun();
+        }
+    }
+
+    private void writeRun() throws IOException {
+        Arrays.sort(run, 0, runLength, BY_HASH);
+        try (DataOutputStream stream = open(newFile())) {
+            for (int i = 0; i < runLength; i++) {
+                write(stream, run[i].high, run[i].low, run[i].text);
+                run[i] = null;
+            }
+        }
+        runLength = 0;
+    }
+
+    // write what is still in memory, before the files are read
+    private void finish() throws IOException {
+        if (runLength > 0) {
+            writeRun();
+        }
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        mergeRuns();
+    }
+
+    // merge the first fanIn runs into one run at the end, until at most fanIn remain
+    private void mergeRuns() throws IOException {
+        while (files.size() > fanIn) {
+            File file = newFile();
+            List<File> merged = files.subList(0, fanIn);
+            try (RowReader reader = new RowReader(false); DataOutputStream stream = open(file)) {
+                for (File run : merged) {
+                    reader.add(run);
+                }
+                for (Row row = reader.next(); row != null; row = reader.next()) {
+                    write(stream, row.high, row.low, row.text);
+                }
+            }
+            for (File run : merged) {
+                Files.delete(run.toPath());
+            }
+            merged.clear();
+        }
+    }
+
+    private File newFile() {
+        File file = new File(directory, String.format("%06d", created++));
+        files.add(file);
+        return file;
+    }
+
+    private static DataOutputStream open(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    }
+
+    private static void write(DataOutputStream out, long high, long low, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeLong(high);
+        out.writeLong(low);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * The rows two results differ in.
+     */
+    public static final class Diff {
+        private long onlyInFirst;
+        private long onlyInSecond;
+        private final List<String> lines = new ArrayList<>();
+
+        /**
+         * @return number of rows of the first result that are not in the second,
+         *         ordered the rows at a position of both that differ
+         */
+        public long getOnlyInFirst() {
+            return onlyInFirst;
+        }
+
+        public long getOnlyInSecond() {
+            return onlyInSecond;
+        }
+
+        public boolean isEmpty() {
+            return onlyInFirst == 0 && onlyInSecond == 0;
+        }
+
+        /**
+         * @return the first rows that differ, "&lt; row" of the first and "&gt; row"
+         *         of the second result, ordered with their position
+         */
+        public List<String> getLines() {
+            return lines;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(onlyInFirst).append(" rows only in the first, ").append(onlyInSecond)
+                    .append(" only in the second");
+            for (String line : lines) {
+                sb.append('\n').append(line);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Compare the rows of first and second, both ordered or both not. Reads every
+     * file once after the runs are merged down to the fan-in, with one buffered row
+     * per file in memory.
+     *
+     * @param limit most rows of the diff with their text
+     */
+    public static Diff compare(ResultSpill first, ResultSpill second, int limit) throws IOException {
+        if (first.ordered != second.ordered) {
+            throw new IllegalArgumentException("an ordered and an unordered spill do not compare");
+        }
+        first.finish();
+        second.finish();
+        Diff diff = new Diff();
+        try (RowReader a = first.reader(); RowReader b = second.reader()) {
+            Row x = a.next();
+            Row y = b.next();
+            long position = 1;
+            while (x != null || y != null) {
+                if (first.ordered) {
+                    if (x == null || y == null || BY_HASH.compare(x, y) != 0) {
+                        if (x != null) {
+                            diff.onlyInFirst++;
+                            add(diff, limit, position + " < " + x.text);
+                        }
+                        if (y != null) {
+                            diff.onlyInSecond++;
+                            add(diff, limit, position + " > " + y.text);
+                        }
+                    }
+                    x = a.next();
+                    y = b.next();
+                    position++;
+                    continue;
+                }
+                int cmp = x == null ? 1 : y == null ? -1 : BY_HASH.compare(x, y);
+                if (cmp < 0) {
+                    diff.onlyInFirst++;
+                    add(diff, limit, "< " + x.text);
+                    x = a.next();
+                } else if (cmp > 0) {
+                    diff.onlyInSecond++;
+                    add(diff, limit, "> " + y.text);
+                    y = b.next();
+                } else {
+                    x = a.next();
+                    y = b.next();
+                }
+            }
+        }
+        return diff;
+    }
+
+    private static void add(Diff diff, int limit, String line) {
+        if (diff.lines.size() < limit) {
+            diff.lines.add(line);
+        }
+    }
+
+    // the rows of all files, merged by hash unless ordered
+    private RowReader reader() throws IOException {
+        RowReader reader = new RowReader(ordered);
+        try {
+            for (File file : files) {
+                reader.add(file);
+            }
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+        for (File file : files) {
+            Files.deleteIfExists(file.toPath());
+        }
+        files.clear();
+        Files.deleteIfExists(directory.toPath());
+    }
+
+    private static final class Row {
+        final long high;
+        final long low;
+        final String text;
+
+        Row(long high, long low, String text) {
+            this.high = high;
+            this.low = low;
+            this.text = text;
+        }
+    }
+
+    private static final class RunReader {
+        final DataInputStream in;
+        @Nullable
+        Row row;
+
+        RunReader(File file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+        }
+
+        // the next row into row, null at the end
+        void advance() throws IOException {
+            long high;
+            try {
+                high = in.readLong();
+            } catch (EOFException e) {
+                row = null;
+                return;
+            }
+            long low = in.readLong();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            row = new Row(high, low, new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class RowReader implements Closeable {
+        final boolean ordered;
+        final List<RunReader> runs = new ArrayList<>();
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> BY_HASH.compare(a.row, b.row));
+
+        RowReader(boolean ordered) {
+            this.ordered = ordered;
+        }
+
+        void add(File file) throws IOException {
+            RunReader run = new RunReader(file);
+            runs.add(run);
+            run.advance();
+            if (run.row != null) {
+                queue.add(run);
+            }
+        }
+
+        @Nullable
+        Row next() throws IOException {
+            if (ordered) {
+                // a single file
+                if (runs.isEmpty() || runs.get(0).row == null) {
+                    return null;
+                }
+                Row row = runs.get(0).row;
+                runs.get(0).advance();
+                return row;
+            }
+            RunReader run = queue.poll();
+            if (run == null) {
+                return null;
+            }
+            Row row = run.row;
+            run.advance();
+            if (run.row != null) {
+                queue.add(run);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (RunReader run : runs) {
+                run.in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package demo.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Statements of one connection that TestUtil helpers reuse instead of creating a
+ * new one per call: a plain Statement for ad-hoc SQL and the least recently used
+ * PreparedStatements by SQL text. Reusing a PreparedStatement also lets the
+ * driver switch to a server-side prepared statement, see pgjdbc's
+ * {@code prepareThreshold}.
+ *
+ * Like its connection, a cache is used by one thread at a time. Hits, misses and
+ * evictions are counted for the whole process.
+ */
+public final class StatementCache {
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("statementCacheSize", 32);
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    private final Connection con;
+    @Nullable
+    private Statement statement;
+    private final LinkedHashMap<String, PreparedStatement> prepared;
+
+    public StatementCache(Connection con) {
+        this(con, DEFAULT_CAPACITY);
+    }
+
+    public StatementCache(Connection con, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.con = con;
+        // access order, so the eldest entry is the least recently used one
+        this.prepared = new LinkedHashMap<String, PreparedStatement>(capacity * 2, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                evictions.increment();
+                TestUtil.closeQuietly(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return the plain Statement of the connection, callers must not close it
+     */
+    public Statement statement() throws SQLException {
+        if (statement != null && !statement.isClosed()) {
+            hits.increment();
+            return statement;
+        }
+        misses.increment();
+        statement = con.createStatement();
+        return statement;
+    }
+
+    /**
+     * @return a PreparedStatement for sql with its parameters cleared, callers must
+     *         not close it
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = prepared.get(sql);
+        if (stmt != null && !stmt.isClosed()) {
+            hits.increment();
+            stmt.clearParameters();
+            return stmt;
+        }
+        misses.increment();
+        stmt = con.prepareStatement(sql);
+        prepared.put(sql, stmt);
+        return stmt;
+    }
+
+    public int size() {
+        return prepared.size();
+    }
+
+    /**
+     * Close all statements of the cache.
+     */
+    public void close() {
+        TestUtil.closeQuietly(statement);
+        statement = null;
+        for (Iterator<PreparedStatement> it = prepared.values().iterator(); it.hasNext();) {
+            TestUtil.closeQuietly(it.next());
+            it.remove();
+        }
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static long getEvictions() {
+        return evictions.sum();
+    }
+
+    public static String summary() {
+        long h = hits.sum();
+        long m = misses.sum();
+        return String.format("statement cache: %d hits, %d misses (%.1f%% hit rate), %d evicted", h, m,
+                h + m > 0 ? 100.0 * h / (h + m) : 0.0, evictions.sum());
+    }
+}
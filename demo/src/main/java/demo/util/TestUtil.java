@@ -4,17 +4,152 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.util.EnumSet;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
+import demo.ColumnValues;
+import demo.DataType;
+import demo.Dml;
+
 public abstract class TestUtil {
+    // rows per executeBatch() of bulkInsert()
+    public static final int BULK_INSERT_BATCH_SIZE = Integer.getInteger("bulkInsert.batchSize", 1000);
+    // rows between two samples of the used heap in streamQuery(), the first row is
+    // always sampled
+    public static final int HEAP_SAMPLE_ROWS = 1024;
+    public static final int DIGEST_FETCH_SIZE = 1000;
+
+    // batch sizes of the BATCH_INSERT action and of the sweep of BulkLoadBenchmark
+    public static final int[] BATCH_SIZE_SWEEP = { 1, 10, 100, 1000, 10000 };
+
+    // send the DROP and CREATE of createXxx() in one round trip, see executeDdl()
+    private boolean batchedDdl = Boolean.getBoolean("batchedDdl");
+    // statements the helpers reuse, per open connection
+    private final ConcurrentHashMap<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    // hand out pooled connections from openConnection() instead of connecting every
+    // time, raw connections still exercise the physical connect path
+    private boolean pooled = Boolean.getBoolean("connectionPool");
+    // by URL and effective connection properties
+    private final ConcurrentHashMap<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+
     public abstract String getDatabase();
 
+    public boolean isBatchedDdl() {
+        return batchedDdl;
+    }
+
+    public void setBatchedDdl(boolean batchedDdl) {
+        this.batchedDdl = batchedDdl;
+    }
+
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    public void setPooled(boolean pooled) {
+        this.pooled = pooled;
+    }
+
+    /**
+     * Connect to url with props, through the pool for url and props if connections
+     * are pooled.
+     */
+    protected Connection connect(String url, Properties props) throws SQLException {
+        if (!pooled) {
+            return DriverManager.getConnection(url, props);
+        }
+        String key = url + new TreeMap<>(props);
+        ConnectionPool pool = pools.get(key);
+        if (pool == null) {
+            synchronized (pools) {
+                pool = pools.get(key);
+                if (pool == null) {
+                    pool = new ConnectionPool(url, props);
+                    pools.put(key, pool);
+                }
+            }
+        }
+        return pool.borrow();
+    }
+
+    /**
+     * Close the connection pools and the physical connections that are idle in
+     * them.
+     */
+    public void closePools() {
+        synchronized (pools) {
+            for (ConnectionPool pool : pools.values()) {
+                pool.close();
+            }
+            pools.clear();
+        }
+    }
+
+    /**
+     * @return the statements cached for con, until closeStatements(con)
+     */
+    public StatementCache statementCache(Connection con) {
+        StatementCache cache = statementCaches.get(con);
+        if (cache == null) {
+            cache = statementCaches.computeIfAbsent(con, StatementCache::new);
+        }
+        return cache;
+    }
+
+    /**
+     * Close the statements cached for con, before con itself is closed.
+     */
+    public void closeStatements(Connection con) {
+        StatementCache cache = statementCaches.remove(con);
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Execute DDL statements in order on the cached Statement of con. With batched
+     * DDL they go to the server as one batch, so the DROP and CREATE of e.g.
+     * createTable() cost one round trip instead of two.
+     */
+    protected void executeDdl(Connection con, String... sqls) throws SQLException {
+        Statement stmt = statementCache(con).statement();
+        try {
+            if (batchedDdl && sqls.length > 1) {
+                for (String sql : sqls) {
+                    stmt.addBatch(sql);
+                }
+                stmt.executeBatch();
+            } else {
+                for (String sql : sqls) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+        } catch (BatchUpdateException e) {
+            // report the statement that failed, as executeUpdate() would have
+            SQLException cause = e.getNextException();
+            throw cause != null ? cause : e;
+        } finally {
+            if (batchedDdl && sqls.length > 1) {
+                stmt.clearBatch();
+            }
+        }
+    }
+
     public abstract Connection openPriviligedConnection() throws SQLException;
 
     public abstract Connection openReplicationConnection(@Nullable Connection con) throws Exception;
@@ -47,8 +182,282 @@ public abstract class TestUtil {
 
     public abstract void dropObject(Connection con, String objectType, String objectName) throws SQLException;
 
-    // TODO: create more methods for sql queries: select, insert, update, delete,
-    // alter table etc.
+    /**
+     * Insert the rows of columns into table the fastest way the backend has, see
+     * the overrides; a JDBC batch by default.
+     *
+     * @return number of rows inserted
+     */
+    public long bulkInsert(Connection con, String table, ColumnValues... columns) throws SQLException {
+        return batchInsert(con, table, BULK_INSERT_BATCH_SIZE, columns);
+    }
+
+    /**
+     * Insert the rows of columns into table with one PreparedStatement, executed
+     * every batchSize rows with {@link PreparedStatement#executeBatch()}, or row by
+     * row where the driver has no batches (DuckDB). All rows go in one transaction.
+     *
+     * @return number of rows inserted
+     */
+    public long batchInsert(Connection con, String table, int batchSize, ColumnValues... columns)
+            throws SQLException {
+        int rows = columns.length == 0 ? 0 : columns[0].size();
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" VALUES (");
+        for (int c = 0; c < columns.length; c++) {
+            sql.append(c == 0 ? "?" : ", ?");
+        }
+        PreparedStatement ps = statementCache(con).prepare(sql.append(')').toString());
+        long start = System.nanoTime();
+        boolean batched = true;
+        int pending = 0;
+        boolean autoCommit = con.getAutoCommit();
+        if (autoCommit) {
+            con.setAutoCommit(false);
+        }
+        try {
+            for (int row = 0; row < rows; row++) {
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c].bind(ps, c + 1, row);
+                }
+                if (batched) {
+                    try {
+                        ps.addBatch();
+                        pending++;
+                    } catch (SQLFeatureNotSupportedException e) {
+                        batched = false;
+                    }
+                }
+                if (!batched) {
+                    ps.executeUpdate();
+                } else if (pending == batchSize) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+            if (autoCommit) {
+                con.commit();
+            }
+        } catch (BatchUpdateException e) {
+            rollbackQuietly(con, autoCommit);
+            SQLException cause = e.getNextException();
+            throw cause != null ? cause : e;
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(con, autoCommit);
+            throw e;
+        } finally {
+            if (batched) {
+                ps.clearBatch();
+            }
+            if (autoCommit) {
+                con.setAutoCommit(true);
+            }
+        }
+        BulkLoadStats.record(batched ? batchInsertMethod(con, batchSize) : "jdbc row by row", rows, 0,
+                System.nanoTime() - start);
+        return rows;
+    }
+
+    /**
+     * @return the name batchInsert() records its throughput under in
+     *         {@link BulkLoadStats}, with the batch size and the driver settings
+     *         that change how a batch is sent
+     */
+    protected String batchInsertMethod(Connection con, int batchSize) throws SQLException {
+        return "jdbc batch " + batchSize;
+    }
+
+    private static void rollbackQuietly(Connection con, boolean autoCommit) {
+        if (autoCommit) {
+            try {
+                con.rollback();
+            } catch (SQLException e) {
+                // the exception of the insert is the one to report
+            }
+        }
+    }
+
+    /**
+     * Run dml as a PreparedStatement of the statement cache or, with its values
+     * inlined as literals, on the plain Statement. Every value a SELECT returns is
+     * read with the getter of its column type.
+     *
+     * @return number of rows a SELECT returned, the update count otherwise
+     */
+    public long executeDml(Connection con, Dml dml, boolean prepared) throws SQLException {
+        StatementCache cache = statementCache(con);
+        if (dml.getKind() != Dml.Kind.SELECT) {
+            return prepared ? prepare(cache, dml).executeUpdate()
+                    : cache.statement().executeUpdate(dml.getLiteralSql());
+        }
+        DataType[] types = dml.getResultTypes();
+        long rows = 0;
+        try (ResultSet rs = prepared ? prepare(cache, dml).executeQuery()
+                : cache.statement().executeQuery(dml.getLiteralSql())) {
+            while (rs.next()) {
+                for (int c = 0; c < types.length; c++) {
+                    readValue(rs, c + 1, types[c]);
+                }
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static PreparedStatement prepare(StatementCache cache, Dml dml) throws SQLException {
+        PreparedStatement ps = cache.prepare(dml.getSql());
+        dml.bind(ps);
+        return ps;
+    }
+
+    /**
+     * Read column of the current row with the getter of type.
+     *
+     * @return the value, null for NULL
+     */
+    @Nullable
+    public static Object readValue(ResultSet rs, int column, DataType type) throws SQLException {
+        Object value;
+        switch (type) {
+            case INT:
+                value = rs.getInt(column);
+                break;
+            case BOOLEAN:
+                value = rs.getBoolean(column);
+                break;
+            case FLOAT:
+                value = rs.getFloat(column);
+                break;
+            case DOUBLE:
+                value = rs.getDouble(column);
+                break;
+            case TEXT:
+            case VARCHAR:
+                value = rs.getString(column);
+                break;
+            case DATE:
+            case DATETIME:
+            case TIME:
+                try {
+                    value = type == DataType.DATE ? rs.getDate(column)
+                            : type == DataType.DATETIME ? rs.getTimestamp(column) : rs.getTime(column);
+                } catch (SQLFeatureNotSupportedException e) {
+                    value = rs.getString(column);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+        return rs.wasNull() ? null : value;
+    }
+
+    /**
+     * @return the fetch modes the backend's driver has
+     */
+    public Set<FetchMode> fetchModes() {
+        return EnumSet.of(FetchMode.DEFAULT, FetchMode.FETCH_SIZE, FetchMode.CURSOR);
+    }
+
+    /**
+     * @return a query of rows rows of a BIGINT from 1 up and a text of width
+     *         characters, which needs no table
+     */
+    public String seriesQuery(long rows, int width) {
+        return "SELECT i, repeat('x', " + width + ") FROM generate_series(1, " + rows + ") AS s(i)";
+    }
+
+    /**
+     * Read all rows of the two column query sql in mode, on a Statement of its own
+     * so that the fetch size does not stay with the cached one. Records the time to
+     * the first row and how far the used heap grew while reading, sampled every
+     * {@link #HEAP_SAMPLE_ROWS} rows, in {@link FetchStats}. The samples include
+     * garbage the young generation has not collected yet, a driver that buffers
+     * the whole result grows the heap by the size of the result on top.
+     *
+     * @param fetchSize for FETCH_SIZE and CURSOR
+     * @return number of rows read
+     */
+    public long streamQuery(Connection con, String sql, FetchMode mode, int fetchSize) throws SQLException {
+        boolean transaction = mode == FetchMode.CURSOR && con.getAutoCommit();
+        if (transaction) {
+            con.setAutoCommit(false);
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long peakHeap = 0;
+        long nanosToFirstRow = 0;
+        long rows = 0;
+        long start = System.nanoTime();
+        try (Statement stmt = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            if (mode == FetchMode.FETCH_SIZE || mode == FetchMode.CURSOR) {
+                stmt.setFetchSize(fetchSize);
+            } else if (mode == FetchMode.STREAMING) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+            }
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    if (rows == 0) {
+                        nanosToFirstRow = System.nanoTime() - start;
+                    }
+                    rs.getLong(1);
+                    rs.getString(2);
+                    if (rows++ % HEAP_SAMPLE_ROWS == 0) {
+                        peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed() - heapBefore);
+                    }
+                }
+            }
+            if (transaction) {
+                con.commit();
+            }
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(con, transaction);
+            throw e;
+        } finally {
+            if (transaction) {
+                con.setAutoCommit(true);
+            }
+        }
+        FetchStats.record(mode, rows, nanosToFirstRow, System.nanoTime() - start, peakHeap);
+        return rows;
+    }
+
+    /**
+     * Add the rows of the query sql to digest, on a Statement of its own with a
+     * fetch size of {@link #DIGEST_FETCH_SIZE} in a transaction, so that a driver
+     * with cursors does not read the whole result either.
+     *
+     * @param types of the columns, null for those of the result's metadata
+     * @return number of rows added
+     */
+    public long digestQuery(Connection con, String sql, @Nullable DataType[] types, ResultDigest digest)
+            throws SQLException, IOException {
+        boolean transaction = con.getAutoCommit();
+        if (transaction) {
+            con.setAutoCommit(false);
+        }
+        try (Statement stmt = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(DIGEST_FETCH_SIZE);
+            long rows;
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                rows = digest.addRows(rs, types != null ? types : ResultDigest.columnTypes(rs));
+            }
+            if (transaction) {
+                con.commit();
+            }
+            return rows;
+        } catch (SQLException | IOException | RuntimeException e) {
+            rollbackQuietly(con, transaction);
+            throw e;
+        } finally {
+            if (transaction) {
+                con.setAutoCommit(true);
+            }
+        }
+    }
+
+    // TODO: create more methods for sql queries: alter table etc.
 
     public abstract void closeConnection(Connection con) throws SQLException;
 
@@ -1,5 +1,7 @@
 package demo.util;
 
+import java.sql.SQLException;
+
 public final class TestUtilFactory {
     public static TestUtil create(TestDbms testDbms) {
         switch (testDbms) {
@@ -13,4 +15,31 @@ public final class TestUtilFactory {
                 throw new IllegalArgumentException("Unsupported TestDbms: " + testDbms);
         }
     }
+
+    /**
+     * Create a TestUtil for one walker of a campaign. Server backends are shared by
+     * all walkers, an embedded DuckDB gets one database file per walker so that
+     * walkers do not contend on the same database.
+     */
+    public static TestUtil createForWalker(TestDbms testDbms, int walkerId) {
+        return createIsolated(testDbms, "walker_" + walkerId);
+    }
+
+    /**
+     * Create a TestUtil that does not share an embedded database with any other
+     * TestUtil created under a different name. An embedded database starts out
+     * empty.
+     */
+    public static TestUtil createIsolated(TestDbms testDbms, String name) {
+        if (testDbms == TestDbms.DUCKDB) {
+            DuckDbTestUtil testUtil = new DuckDbTestUtil(DuckDbTestUtil.DATA_DIR + name + ".db");
+            try {
+                testUtil.resetDatabase();
+            } catch (SQLException e) {
+                throw new IllegalStateException("cannot create " + testUtil.getDbFile(), e);
+            }
+            return testUtil;
+        }
+        return create(testDbms);
+    }
 }
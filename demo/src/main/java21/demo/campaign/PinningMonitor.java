@@ -0,0 +1,84 @@
+package demo.campaign;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event and groups pinned
+ * periods by the first frame outside the JDK, which is usually the driver code
+ * that blocked while holding a monitor.
+ */
+final class PinningMonitor implements AutoCloseable {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final class Site {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+    }
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+
+    PinningMonitor(Duration threshold) {
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+    }
+
+    private void record(RecordedEvent event) {
+        total.increment();
+        Site site = sites.computeIfAbsent(pinnedSite(event.getStackTrace()), k -> new Site());
+        site.count.increment();
+        site.nanos.add(event.getDuration().toNanos());
+    }
+
+    private static String pinnedSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "<no stack trace>";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "<jdk internal>";
+    }
+
+    long getPinnedCount() {
+        return total.sum();
+    }
+
+    /**
+     * @return the sites that pinned a carrier the longest, one per line
+     */
+    String report(int limit) {
+        List<Map.Entry<String, Site>> entries = new ArrayList<>(sites.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().nanos.sum(), a.getValue().nanos.sum()));
+        StringBuilder sb = new StringBuilder();
+        sb.append(total.sum()).append(" pinned periods");
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            Site site = entries.get(i).getValue();
+            sb.append(String.format("%n\t%8d x %10.1f ms  %s", site.count.sum(), site.nanos.sum() / 1e6,
+                    entries.get(i).getKey()));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        // stop() drains the events that are still buffered, close() alone drops them
+        stream.stop();
+        stream.close();
+    }
+}
@@ -0,0 +1,88 @@
+package demo.campaign;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every walk on its own virtual thread. {@link CampaignConfig#getWalkers()}
+ * is the number of walks kept in flight and can be in the thousands, since a
+ * walk blocked in a JDBC call only holds a carrier thread while it is pinned.
+ * Pinned periods are reported at the end so it is visible where scaling stops.
+ *
+ * Only built with {@code mvn -Pjava21}:
+ *
+ * <pre>
+ * mvn -Pjava21 compile exec:java -Dexec.mainClass=demo.campaign.VirtualThreadCampaign -Dcampaign.dbms=postgres -Dcampaign.walkers=5000
+ * </pre>
+ */
+public final class VirtualThreadCampaign {
+    private final Campaign campaign;
+
+    public VirtualThreadCampaign(CampaignConfig config) {
+        this.campaign = new Campaign(config);
+    }
+
+    public static void main(String[] args) throws Exception {
+        CampaignConfig config = CampaignConfig.fromSystemProperties();
+        System.out.println("Virtual thread campaign: " + config);
+        new VirtualThreadCampaign(config).run();
+    }
+
+    public CampaignStats run() throws InterruptedException {
+        CampaignConfig config = campaign.getConfig();
+        CampaignStats stats = campaign.getStats();
+
+        // walkers are recycled between walks, the thread running a walk is not
+        BlockingQueue<Walker> idle = new ArrayBlockingQueue<>(config.getWalkers());
+        for (int i = 0; i < config.getWalkers(); i++) {
+            idle.add(new Walker(i, campaign));
+        }
+
+        ScheduledExecutorService reporter = null;
+        if (config.getReportIntervalSeconds() > 0) {
+            reporter = Executors.newSingleThreadScheduledExecutor();
+            reporter.scheduleAtFixedRate(() -> System.out.println(stats.summary()),
+                    config.getReportIntervalSeconds(), config.getReportIntervalSeconds(), TimeUnit.SECONDS);
+        }
+        if (!config.getExceptionReport().isEmpty()) {
+            if (reporter == null) {
+                reporter = Executors.newSingleThreadScheduledExecutor();
+            }
+            reporter.scheduleAtFixedRate(campaign::flushExceptions, config.getExceptionFlushSeconds(),
+                    config.getExceptionFlushSeconds(), TimeUnit.SECONDS);
+        }
+        PinningMonitor pinning = new PinningMonitor(Duration.ofMillis(config.getPinnedThresholdMillis()));
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("walk-", 0).factory())) {
+            while (campaign.acquireWalk()) {
+                Walker walker = idle.take();
+                executor.execute(() -> {
+                    try {
+                        walker.walkOnce();
+                    } finally {
+                        idle.add(walker);
+                    }
+                });
+            }
+            // closing the executor waits for the walks still in flight
+        } finally {
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+            // every walk has returned its walker and reset its connections by now
+            for (Walker walker : idle) {
+                walker.getInfo().getTestUtil().closePools();
+            }
+            campaign.finish();
+            pinning.close();
+        }
+        System.out.println(campaign.summary());
+        System.out.println("Carrier pinning: " + pinning.report(20));
+        return stats;
+    }
+}
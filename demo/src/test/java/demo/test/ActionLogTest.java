@@ -0,0 +1,102 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import demo.campaign.ActionLog;
+import demo.campaign.ActionLogReader;
+import demo.campaign.ActionRecord;
+import demo.state.Action;
+import demo.state.State;
+import demo.util.TestDbms;
+
+public class ActionLogTest {
+    @Test
+    public void testRecordsSurviveSegmentRotation() throws Exception {
+        File dir = Files.createTempDirectory("actionlog").toFile();
+        String base = new File(dir, "actions.log").getPath();
+        int threads = 8;
+        int perThread = 1_000;
+        // small segments, so that walkers rotate them while others still write
+        try (ActionLog log = new ActionLog(base, 100)) {
+            List<Thread> walkers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int walker = t;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        Exception outcome = i % 10 == 0 ? new SQLException("no such table", "42P01") : null;
+                        log.append(walker, walker, i, State.STATEMENT_EXECUTED, Action.DROP_TABLE, TestDbms.DUCKDB,
+                                i, i + 5, outcome);
+                    }
+                });
+                walkers.add(thread);
+                thread.start();
+            }
+            for (Thread thread : walkers) {
+                thread.join();
+            }
+        }
+
+        assertTrue(new File(base + ".000079").exists());
+        int[] steps = new int[threads];
+        List<ActionRecord> failures = new ArrayList<>();
+        long records = ActionLogReader.read(base, record -> {
+            steps[record.getWalker()]++;
+            assertEquals(record.getWalker(), record.getWalkId());
+            assertEquals(Action.DROP_TABLE, record.getAction());
+            assertEquals(5, record.getDurationNanos());
+            if (record.getOutcome() != null) {
+                failures.add(record);
+            } else {
+                assertNull(record.getSqlState());
+            }
+        });
+        assertEquals(threads * perThread, records);
+        for (int count : steps) {
+            assertEquals(perThread, count);
+        }
+        assertEquals(threads * perThread / 10, failures.size());
+        assertEquals("SQLException", failures.get(0).getOutcome());
+        assertEquals("42P01", failures.get(0).getSqlState());
+        assertEquals(0, failures.get(0).getStep() % 10);
+    }
+
+    @Test
+    public void testReopenReplacesEarlierRun() throws Exception {
+        File dir = Files.createTempDirectory("actionlog").toFile();
+        String base = new File(dir, "actions.log").getPath();
+        try (ActionLog log = new ActionLog(base, 10)) {
+            for (int i = 0; i < 35; i++) {
+                log.append(0, 1, i, State.STATEMENT_EXECUTED, Action.DROP_TABLE, TestDbms.DUCKDB, 0, 1,
+                        new SQLException("no such table", "42P01"));
+            }
+        }
+        assertTrue(new File(base + ".000003").exists());
+
+        try (ActionLog log = new ActionLog(base, 10)) {
+            for (int i = 0; i < 5; i++) {
+                log.append(0, 2, i, State.STATEMENT_EXECUTED, Action.CREATE_TABLE, TestDbms.DUCKDB, 0, 1,
+                        i == 0 ? new SQLException("short", "42") : null);
+            }
+        }
+        assertFalse(new File(base + ".000001").exists());
+        List<ActionRecord> records = new ArrayList<>();
+        assertEquals(5, ActionLogReader.read(base, records::add));
+        for (ActionRecord record : records) {
+            assertEquals(2, record.getWalkId());
+            assertEquals(Action.CREATE_TABLE, record.getAction());
+        }
+        assertEquals("42", records.get(0).getSqlState());
+        assertNull(records.get(1).getSqlState());
+    }
+}
@@ -0,0 +1,114 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import demo.util.MySqlConfig;
+import demo.util.MySqlTestUtil;
+import demo.util.PostgresConfig;
+import demo.util.PostgresTestUtil;
+
+public class BackendConfigTest {
+    @Test
+    public void testPostgresConfig() {
+        Properties p = new Properties();
+        p.setProperty("server", "db1");
+        p.setProperty("port", "6543");
+        p.setProperty("database", "fuzz");
+        p.setProperty("user", "walker");
+        p.setProperty("sendBufferSize", "8192");
+        p.setProperty("preparethreshold", "1");
+        PostgresConfig config = new PostgresConfig(p);
+
+        assertEquals("jdbc:log4jdbc:postgresql://db1:6543/fuzz?ApplicationName=Driver Tests&sendBufferSize=8192",
+                config.getUrl());
+        Properties props = config.newConnectionProperties();
+        assertEquals("walker", props.getProperty("user"));
+        assertEquals("", props.getProperty("password"));
+        assertEquals("1", props.getProperty("prepareThreshold"));
+        assertEquals("allow", props.getProperty("gssEncMode"));
+        // every connection gets its own copy
+        props.setProperty("user", "other");
+        assertEquals("walker", config.newConnectionProperties().getProperty("user"));
+
+        PostgresTestUtil testUtil = new PostgresTestUtil(config);
+        assertEquals(config.getUrl(), testUtil.getURL());
+        assertEquals(6543, testUtil.getPort());
+        assertEquals(1, testUtil.getPrepareThreshold());
+    }
+
+    @Test
+    public void testConfigsAreIndependent() {
+        Properties p = new Properties();
+        p.setProperty("server", "a");
+        MySqlConfig a = new MySqlConfig(p);
+        p.setProperty("server", "b");
+        p.setProperty("port", "3307");
+        MySqlConfig b = new MySqlConfig(p);
+
+        assertEquals("jdbc:log4jdbc:mysql://a:3306/test?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true",
+                new MySqlTestUtil(a).getURL());
+        assertEquals("jdbc:log4jdbc:mysql://b:3307/test?serverTimezone=UTC&useSSL=false&allowPublicKeyRetrieval=true",
+                new MySqlTestUtil(b).getURL());
+        assertNull(a.newConnectionProperties().getProperty("user"));
+        assertEquals("DISABLED", b.newConnectionProperties().getProperty("sslMode"));
+    }
+
+    @Test
+    public void testMySqlBatchSettings() {
+        Properties p = new Properties();
+        assertNull(new MySqlConfig(p).newConnectionProperties().getProperty("rewriteBatchedStatements"));
+        p.setProperty("rewriteBatchedStatements", "true");
+        p.setProperty("useServerPrepStmts", "false");
+        Properties props = new MySqlConfig(p).newConnectionProperties();
+        assertEquals("true", props.getProperty("rewriteBatchedStatements"));
+        assertEquals("false", props.getProperty("useServerPrepStmts"));
+    }
+
+    /**
+     * Batched DDL goes to MySQL as one query, on a connection that allows
+     * multiple statements in one.
+     */
+    @Test
+    public void testMySqlBatchedDdlIsOneQuery() throws Exception {
+        MySqlTestUtil testUtil = new MySqlTestUtil();
+        testUtil.setBatchedDdl(true);
+        assertEquals("true", testUtil.connectionProperties(new Properties()).getProperty("allowMultiQueries"));
+
+        List<String> calls = new ArrayList<>();
+        Statement stmt = (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { Statement.class }, (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute") || method.getName().equals("addBatch")) {
+                        calls.add(method.getName() + " " + args[0]);
+                    }
+                    return method.getName().equals("getUpdateCount") ? -1 : defaultValue(method);
+                });
+        Connection con = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> method.getName().equals("createStatement") ? stmt : defaultValue(method));
+        testUtil.createTable(con, "t", "a INT");
+        assertEquals(Arrays.asList("execute DROP TABLE IF EXISTS t;\nCREATE TABLE t (a INT)"), calls);
+
+        calls.clear();
+        testUtil.setBatchedDdl(false);
+        testUtil.closeStatements(con);
+        testUtil.createTable(con, "t", "a INT");
+        assertEquals(2, calls.size());
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        return type == boolean.class ? Boolean.FALSE : type == int.class ? Integer.valueOf(0) : null;
+    }
+}
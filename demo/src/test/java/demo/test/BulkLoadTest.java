@@ -0,0 +1,103 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import demo.ColumnValues;
+import demo.DataType;
+import demo.GlobalInfo;
+import demo.Randomly;
+import demo.Schema.Column;
+import demo.Schema.Table;
+import demo.WalkerInfo;
+import demo.state.Action;
+import demo.state.State;
+import demo.util.BulkLoadStats;
+import demo.util.DuckDbTestUtil;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class BulkLoadTest {
+    private static Table allTypes(String name) {
+        List<Column> columns = new ArrayList<>();
+        for (DataType type : DataType.values()) {
+            columns.add(new Column("c_" + type.name().toLowerCase(), type));
+        }
+        return new Table(name, columns);
+    }
+
+    private static long count(Statement stmt, String sql) throws Exception {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    public void testAppenderAndBatchLoadTheSameRows() throws Exception {
+        DuckDbTestUtil testUtil = (DuckDbTestUtil) TestUtilFactory.createIsolated(TestDbms.DUCKDB, "bulk_load");
+        WalkerInfo info = new WalkerInfo(TestDbms.DUCKDB, testUtil);
+        GlobalInfo.bind(info);
+        Connection con = testUtil.openConnection();
+        try {
+            Table appended = allTypes("appended");
+            Table batched = allTypes("batched");
+            testUtil.createTable(con, appended.getName(), appended.columnsToString());
+            testUtil.createTable(con, batched.getName(), batched.columnsToString());
+            int rows = 2000;
+            ColumnValues[] values = appended.generateValues(new Randomly(5), TestDbms.DUCKDB, rows, 10);
+
+            long appenderLoads = BulkLoadStats.getLoads("appender");
+            assertEquals(rows, testUtil.bulkInsert(con, appended.getName(), values));
+            assertEquals(appenderLoads + 1, BulkLoadStats.getLoads("appender"));
+            assertEquals(rows, testUtil.batchInsert(con, batched.getName(), 100, values));
+            assertTrue(BulkLoadStats.getRows("jdbc row by row") + BulkLoadStats.getRows("jdbc batch") >= rows);
+            assertTrue(BulkLoadStats.summary().contains("appender"));
+
+            try (Statement stmt = con.createStatement()) {
+                assertEquals(rows, count(stmt, "SELECT count(*) FROM appended"));
+                assertEquals(rows, count(stmt, "SELECT count(*) FROM batched"));
+                assertEquals(count(stmt, "SELECT count(c_int) FROM batched"),
+                        count(stmt, "SELECT count(c_int) FROM appended"));
+                assertEquals(0, count(stmt, "SELECT count(*) FROM (SELECT * FROM appended EXCEPT SELECT * FROM batched)"));
+                assertEquals(0, count(stmt, "SELECT count(*) FROM (SELECT * FROM batched EXCEPT SELECT * FROM appended)"));
+            }
+
+            // the actions load into a table of the catalog
+            info.getStateMachine().advanceState(State.STATEMENT_EXECUTED);
+            info.setBasicConnection(con);
+            info.addNewTable(con, appended);
+            info.getRandom().setSeed(1);
+            Action.BULK_INSERT.invoke();
+            assertNotEquals(String.valueOf(info.getStateMachine().getException()), State.EXCEPTION,
+                    info.getStateMachine().getCurrentState());
+            long appendedRows;
+            try (Statement stmt = con.createStatement()) {
+                appendedRows = count(stmt, "SELECT count(*) FROM appended");
+                assertTrue(appendedRows > rows);
+            }
+
+            info.getStateMachine().advanceState(State.STATEMENT_EXECUTED);
+            Action.BATCH_INSERT.invoke();
+            assertNotEquals(String.valueOf(info.getStateMachine().getException()), State.EXCEPTION,
+                    info.getStateMachine().getCurrentState());
+            try (Statement stmt = con.createStatement()) {
+                assertTrue(count(stmt, "SELECT count(*) FROM appended") > appendedRows);
+            }
+        } finally {
+            GlobalInfo.unbind();
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+import demo.campaign.Campaign;
+import demo.campaign.CampaignConfig;
+import demo.campaign.CampaignStats;
+import demo.campaign.Replay;
+import demo.campaign.WalkTrace;
+import demo.util.TestDbms;
+
+public class CampaignTest {
+    @Test
+    public void testWalkBudgetIsSharedByWalkers() throws Exception {
+        CampaignConfig config = new CampaignConfig()
+                .setTestDbms(TestDbms.DUCKDB)
+                .setWalkers(4)
+                .setDurationSeconds(0)
+                .setMaxWalks(40);
+        CampaignStats stats = new Campaign(config).run();
+
+        assertEquals(40, stats.getWalks());
+        assertTrue(stats.getActions() >= stats.getWalks());
+        assertTrue(stats.summary(), stats.summary().startsWith("40 walks, " + stats.getActions() + " actions"));
+    }
+
+    @Test
+    public void testRecordedWalksReplayExactly() throws Exception {
+        File traceFile = File.createTempFile("walks", ".txt");
+        traceFile.deleteOnExit();
+        CampaignConfig config = new CampaignConfig()
+                .setTestDbms(TestDbms.DUCKDB)
+                .setWalkers(2)
+                .setDurationSeconds(0)
+                .setMaxWalks(20)
+                .setSeed(0x5eed)
+                .setTraceFile(traceFile.getPath())
+                .setTraceFilter(CampaignConfig.TraceFilter.ALL);
+        new Campaign(config).run();
+
+        List<String> lines = Files.readAllLines(traceFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(20, lines.size());
+        for (String line : lines) {
+            WalkTrace recorded = WalkTrace.decode(line);
+            assertEquals(line, recorded.encode());
+            WalkTrace replayed = Replay.replay(recorded, TestDbms.DUCKDB, false);
+            assertEquals(recorded + "\n" + replayed, -1, recorded.firstDivergence(replayed));
+        }
+    }
+}
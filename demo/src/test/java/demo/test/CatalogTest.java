@@ -0,0 +1,119 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import demo.Catalog;
+import demo.DataType;
+import demo.Randomly;
+import demo.Schema.Column;
+import demo.Schema.Table;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class CatalogTest {
+    private static Table table(String name) {
+        return new Table(name, Arrays.asList(new Column("c0", DataType.INT)));
+    }
+
+    @Test
+    public void testIncrementalUpdates() {
+        Randomly.setCurrent(new Randomly(0));
+        Catalog catalog = new Catalog();
+        assertNull(catalog.pickTable(null));
+        assertNull(catalog.pickSchema(null));
+
+        for (int i = 0; i < 100; i++) {
+            catalog.addTable(table("table_" + i));
+        }
+        assertEquals(100, catalog.getTables().size());
+        assertEquals("table_100", catalog.getTableNames().next(0));
+
+        catalog.removeTable("TABLE_7");
+        assertNull(catalog.getTable("table_7"));
+        assertEquals(99, catalog.getTables().size());
+        assertEquals("table_7", catalog.getTableNames().next(0));
+        for (int i = 0; i < 1000; i++) {
+            assertNotNull(catalog.getTable(catalog.pickTable(null).getName()));
+        }
+        for (int i = 0; i < 100; i++) {
+            catalog.removeTable("table_" + i);
+        }
+        assertTrue(catalog.getTables().isEmpty());
+        assertNull(catalog.pickTable(null));
+
+        catalog.addSchema("schema_0");
+        catalog.addSchema("SCHEMA_0");
+        assertEquals(1, catalog.getSchemas().size());
+        assertTrue("schema_0".equalsIgnoreCase(catalog.pickSchema(null)));
+        catalog.removeSchema("schema_0");
+        assertNull(catalog.pickSchema(null));
+        assertEquals(0, catalog.getReconciles());
+    }
+
+    @Test
+    public void testReconcile() throws Exception {
+        Randomly.setCurrent(new Randomly(0));
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "catalog");
+        Connection con = testUtil.openConnection();
+        try {
+            Catalog catalog = new Catalog();
+            testUtil.createTable(con, "table_0", "c0 INTEGER");
+            testUtil.createTable(con, "table_1", "c0 INTEGER");
+            catalog.addTable(table("table_0"));
+            catalog.addTable(table("table_1"));
+            testUtil.createSchema(con, "schema_0");
+            catalog.addSchema("schema_0");
+            // not generated, not mirrored
+            testUtil.createTable(con, "other", "c0 INTEGER");
+
+            // fingerprints match, nothing to refresh
+            assertFalse(catalog.reconcile(con));
+            assertEquals(1, catalog.getReconciles());
+            assertEquals(0, catalog.getRefreshes());
+
+            // changed behind the catalog's back
+            try (Statement stmt = con.createStatement()) {
+                stmt.execute("DROP TABLE table_0");
+                stmt.execute("CREATE TABLE table_5 (c0 INTEGER, c1 VARCHAR, c2 BOOLEAN)");
+                stmt.execute("DROP SCHEMA schema_0");
+                stmt.execute("CREATE SCHEMA schema_3");
+            }
+            Table kept = catalog.getTable("table_1");
+            assertTrue(catalog.reconcile(con));
+            assertEquals(1, catalog.getRefreshes());
+            assertNull(catalog.getTable("table_0"));
+            assertNull(catalog.getTable("other"));
+            assertSame(kept, catalog.getTable("table_1"));
+            Table found = catalog.getTable("table_5");
+            assertEquals("c0 INT, c1 VARCHAR, c2 BOOLEAN", found.columnsToString());
+            assertEquals(Arrays.asList("schema_3"), catalog.getSchemas());
+            assertEquals("table_0", catalog.getTableNames().next(0));
+            assertFalse(catalog.reconcile(con));
+
+            // picks reconcile every other time
+            catalog.setReconcileInterval(2);
+            try (Statement stmt = con.createStatement()) {
+                stmt.execute("DROP TABLE table_1");
+            }
+            assertNotNull(catalog.pickTable(con));
+            assertEquals(2, catalog.getTables().size());
+            assertEquals("table_5", catalog.pickTable(con).getName());
+            assertEquals(4, catalog.getReconciles());
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
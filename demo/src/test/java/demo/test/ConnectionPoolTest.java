@@ -0,0 +1,124 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import demo.util.ConnectionPool;
+import demo.util.DuckDbTestUtil;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class ConnectionPoolTest {
+    @Test
+    public void testReusesConnections() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "pool");
+        testUtil.setPooled(true);
+        try {
+            Connection con = testUtil.openConnection();
+            testUtil.createTable(con, "t", "a INTEGER");
+            testUtil.closeStatements(con);
+            con.close();
+            assertTrue(con.isClosed());
+
+            long connects = ConnectionPool.getConnects();
+            for (int i = 0; i < 5; i++) {
+                con = testUtil.openConnection();
+                try (Statement stmt = con.createStatement()) {
+                    stmt.executeUpdate("INSERT INTO t VALUES (" + i + ")");
+                } finally {
+                    con.close();
+                }
+            }
+            assertEquals(connects, ConnectionPool.getConnects());
+
+            // other properties, other pool
+            testUtil.openConnection(new Properties()).close();
+            Properties props = new Properties();
+            props.setProperty("duckdb.read_only", "false");
+            testUtil.openConnection(props).close();
+            assertEquals(connects + 1, ConnectionPool.getConnects());
+        } finally {
+            testUtil.closePools();
+        }
+    }
+
+    @Test
+    public void testRollsBackOnReturn() throws Exception {
+        DuckDbTestUtil testUtil = (DuckDbTestUtil) TestUtilFactory.createIsolated(TestDbms.DUCKDB, "pool_rollback");
+        try (ConnectionPool pool = new ConnectionPool("jdbc:duckdb:" + testUtil.getDbFile(), new Properties(), 1, 1,
+                60_000, 0)) {
+            Connection con = pool.borrow();
+            try (Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE t (a INTEGER)");
+            }
+            con.setAutoCommit(false);
+            try (Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("INSERT INTO t VALUES (1)");
+            }
+            con.close();
+            assertEquals(1, pool.idleSize());
+
+            con = pool.borrow();
+            try (Statement stmt = con.createStatement(); ResultSet rs = stmt.executeQuery("SELECT count(*) FROM t")) {
+                assertTrue(con.getAutoCommit());
+                assertTrue(rs.next());
+                assertEquals(0, rs.getInt(1));
+            } finally {
+                con.close();
+            }
+            assertEquals(1, pool.size());
+        }
+    }
+
+    @Test
+    public void testEvictsIdleAndReportsLeaks() throws Exception {
+        DuckDbTestUtil testUtil = (DuckDbTestUtil) TestUtilFactory.createIsolated(TestDbms.DUCKDB, "pool_evict");
+        try (ConnectionPool pool = new ConnectionPool("jdbc:duckdb:" + testUtil.getDbFile(), new Properties(), 0, 2,
+                200, 200)) {
+            long leaks = ConnectionPool.getLeaks();
+            Connection leaked = pool.borrow();
+            pool.borrow().close();
+            assertEquals(2, pool.size());
+            Thread.sleep(1000);
+            assertEquals(1, pool.size());
+            assertEquals(0, pool.idleSize());
+            assertEquals(leaks + 1, ConnectionPool.getLeaks());
+            assertFalse(leaked.isClosed());
+            leaked.close();
+        }
+    }
+
+    /**
+     * A walk keeps every connection it opened, once it holds all of them it gets
+     * one outside the pool instead of waiting for itself.
+     */
+    @Test
+    public void testOwnerOfAllConnectionsDoesNotWait() throws Exception {
+        DuckDbTestUtil testUtil = (DuckDbTestUtil) TestUtilFactory.createIsolated(TestDbms.DUCKDB, "pool_overflow");
+        try (ConnectionPool pool = new ConnectionPool("jdbc:duckdb:" + testUtil.getDbFile(), new Properties(), 0, 2,
+                60_000, 0)) {
+            long overflows = ConnectionPool.getOverflows();
+            Connection first = pool.borrow();
+            Connection second = pool.borrow();
+            long start = System.nanoTime();
+            Connection third = pool.borrow();
+            assertTrue(System.nanoTime() - start < ConnectionPool.BORROW_TIMEOUT_MILLIS * 1_000_000 / 2);
+            assertEquals(overflows + 1, ConnectionPool.getOverflows());
+            assertEquals(2, pool.size());
+            third.close();
+            assertTrue(third.isClosed());
+            first.close();
+            second.close();
+            assertEquals(2, pool.idleSize());
+        }
+    }
+}
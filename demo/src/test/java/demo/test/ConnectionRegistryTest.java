@@ -0,0 +1,116 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import demo.ConnectionRegistry;
+import demo.ConnectionRegistry.Role;
+import demo.Randomly;
+
+public class ConnectionRegistryTest {
+    private static Connection connection(String name) {
+        return (Connection) Proxy.newProxyInstance(ConnectionRegistryTest.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return name;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void testRoles() {
+        ConnectionRegistry registry = new ConnectionRegistry();
+        assertNull(registry.pickAny());
+        Connection basic = connection("basic");
+        Connection readOnly = connection("readOnly");
+        Connection privileged = connection("privileged");
+        Connection replica = connection("replica");
+        registry.add(basic, Role.BASIC);
+        registry.add(readOnly, Role.READ_ONLY);
+        registry.add(privileged, Role.PRIVILEGED);
+        registry.addReplication(basic, replica);
+
+        assertEquals(4, registry.size());
+        assertEquals(Arrays.asList(basic, readOnly, privileged, replica), registry.all());
+        assertEquals(Arrays.asList(replica), registry.getReplicas(basic));
+        Randomly.setCurrent(new Randomly(1));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(registry.pickForReplication() == replica);
+        }
+
+        // only one privileged connection
+        Connection privileged2 = connection("privileged2");
+        registry.add(privileged2, Role.PRIVILEGED);
+        assertFalse(registry.contains(privileged));
+        assertEquals(Arrays.asList(privileged2), registry.get(Role.PRIVILEGED));
+
+        registry.remove(replica);
+        assertNull(registry.getReplicas(basic));
+        registry.remove(basic);
+        registry.remove(basic);
+        assertEquals(Arrays.asList(readOnly, privileged2), registry.all());
+        registry.clear();
+        assertEquals(0, registry.size());
+        assertNull(registry.pickAny());
+    }
+
+    @Test
+    public void testRemoveAndPickUniformly() {
+        ConnectionRegistry registry = new ConnectionRegistry();
+        Connection[] cons = new Connection[1000];
+        for (int i = 0; i < cons.length; i++) {
+            cons[i] = connection("c" + i);
+            registry.add(cons[i], i % 2 == 0 ? Role.BASIC : Role.READ_ONLY);
+        }
+        Connection origin = cons[0];
+        Connection[] replicas = new Connection[10];
+        for (int i = 0; i < replicas.length; i++) {
+            replicas[i] = connection("r" + i);
+            registry.addReplication(origin, replicas[i]);
+        }
+        // remove every other one, from the middle of the arrays
+        for (int i = 1; i < cons.length; i += 2) {
+            registry.remove(cons[i]);
+        }
+        for (int i = 0; i < replicas.length; i += 3) {
+            registry.remove(replicas[i]);
+        }
+        assertEquals(500 + 6, registry.size());
+        assertEquals(6, registry.getReplicas(origin).size());
+        assertEquals(0, registry.size(Role.READ_ONLY));
+
+        Randomly.setCurrent(new Randomly(42));
+        Map<Connection, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            Connection con = registry.pickForReplication();
+            assertTrue(registry.contains(con));
+            picks.merge(con, 1, Integer::sum);
+        }
+        assertEquals(500, picks.size());
+        for (int count : picks.values()) {
+            // 200 expected
+            assertTrue(count > 100 && count < 300);
+        }
+        registry.remove(origin);
+        assertSame(null, registry.getReplicas(origin));
+        assertEquals(6, registry.size(Role.REPLICATION));
+    }
+}
@@ -0,0 +1,116 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.Test;
+
+import demo.ColumnValues;
+import demo.DataType;
+import demo.Randomly;
+import demo.ValueGenerator;
+import demo.util.CopyTextEncoder;
+import demo.util.TestDbms;
+
+public class CopyTextEncoderTest {
+    private static String encode(int capacity, ColumnValues... columns) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long bytes = new CopyTextEncoder(capacity).encode(columns, 0, columns[0].size(), out::write);
+        assertEquals(out.size(), bytes);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // what the server reads back from a value of the text format
+    private static String unescape(String field) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < field.length(); i++) {
+            char ch = field.charAt(i);
+            if (ch != '\\') {
+                sb.append(ch);
+                continue;
+            }
+            char escaped = field.charAt(++i);
+            sb.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testEscapesAndNulls() throws Exception {
+        ColumnValues ints = new ColumnValues(DataType.INT, 3);
+        ints.ints()[0] = Integer.MIN_VALUE;
+        ints.ints()[1] = 0;
+        ints.nulls()[2] = true;
+        ColumnValues strings = new ColumnValues(DataType.TEXT, 3);
+        strings.strings()[0] = "a\tb\\c\nd\re";
+        strings.strings()[1] = "ä€😀";
+        strings.strings()[2] = "\\N";
+        assertEquals("-2147483648\ta\\tb\\\\c\\nd\\re\n0\tä€😀\n\\N\t\\\\N\n",
+                encode(1024, ints, strings));
+    }
+
+    @Test
+    public void testDatesAndTimes() throws Exception {
+        ColumnValues dates = new ColumnValues(DataType.DATE, 1);
+        dates.ints()[0] = (int) LocalDate.of(1000, 1, 2).toEpochDay();
+        ColumnValues dateTimes = new ColumnValues(DataType.DATETIME, 1);
+        dateTimes.longs()[0] = -1;
+        ColumnValues times = new ColumnValues(DataType.TIME, 1);
+        times.longs()[0] = LocalTime.of(23, 59, 59, 5000).toNanoOfDay() / 1000;
+        assertEquals("1000-01-02\t1969-12-31 23:59:59.999999\t23:59:59.000005\n", encode(64, dates, dateTimes, times));
+    }
+
+    @Test
+    public void testGeneratedRowsRoundTrip() throws Exception {
+        Randomly random = new Randomly(13);
+        int rows = 5000;
+        DataType[] types = DataType.values();
+        ColumnValues[] columns = new ColumnValues[types.length];
+        for (int c = 0; c < types.length; c++) {
+            columns[c] = ValueGenerator.of(types[c], TestDbms.POSTGRES, 10).generate(random, rows);
+        }
+        String text = encode(1 << 16, columns);
+        // a buffer smaller than a value is flushed in the middle of it
+        assertEquals(text, encode(7, columns));
+
+        String[] lines = text.split("\n", -1);
+        assertEquals(rows + 1, lines.length);
+        for (int row = 0; row < rows; row++) {
+            String[] fields = lines[row].split("\t", -1);
+            assertEquals(types.length, fields.length);
+            for (int c = 0; c < types.length; c++) {
+                ColumnValues values = columns[c];
+                if (values.isNull(row)) {
+                    assertEquals("\\N", fields[c]);
+                    continue;
+                }
+                String value = unescape(fields[c]);
+                switch (types[c]) {
+                    case BOOLEAN:
+                        assertEquals(values.booleans()[row] ? "t" : "f", value);
+                        break;
+                    case FLOAT:
+                        assertEquals(values.floats()[row], Float.parseFloat(value), 0);
+                        break;
+                    case DOUBLE:
+                        assertEquals(values.doubles()[row], Double.parseDouble(value), 0);
+                        break;
+                    case DATETIME:
+                        assertEquals(ColumnValues.toLocalDateTime(values.longs()[row]),
+                                Timestamp.valueOf(value).toLocalDateTime());
+                        break;
+                    case TIME:
+                        assertEquals(ColumnValues.toLocalTime(values.longs()[row]), LocalTime.parse(value));
+                        break;
+                    default:
+                        assertEquals(values.toText(row), value);
+                }
+            }
+        }
+    }
+}
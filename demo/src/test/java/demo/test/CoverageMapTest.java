@@ -0,0 +1,56 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import demo.state.Action;
+import demo.state.CoverageMap;
+import demo.state.State;
+
+public class CoverageMapTest {
+    @Test
+    public void testOutcomeClassesAreSeparateEdges() {
+        CoverageMap coverage = new CoverageMap(16);
+        assertTrue(coverage.record(State.STATEMENT_EXECUTED, Action.DROP_SCHEMA, null));
+        assertFalse(coverage.record(State.STATEMENT_EXECUTED, Action.DROP_SCHEMA, null));
+        assertTrue(coverage.record(State.STATEMENT_EXECUTED, Action.DROP_SCHEMA, new SQLException("a", "3F000")));
+        // same class and SQLState, different message: same edge
+        assertFalse(coverage.record(State.STATEMENT_EXECUTED, Action.DROP_SCHEMA, new SQLException("b", "3F000")));
+        assertTrue(coverage.record(State.STATEMENT_EXECUTED, Action.DROP_SCHEMA, new SQLException("a", "2BP01")));
+        assertTrue(coverage.record(State.CONNECTION_OPENED, Action.DROP_SCHEMA, null));
+
+        assertEquals(4, coverage.getEdges());
+        assertEquals(5, coverage.getAttempts(State.STATEMENT_EXECUTED, Action.DROP_SCHEMA));
+        assertEquals(3, coverage.getDistinctOutcomes(State.STATEMENT_EXECUTED, Action.DROP_SCHEMA));
+    }
+
+    @Test
+    public void testConcurrentWalkersDiscoverEachEdgeOnce() throws Exception {
+        CoverageMap coverage = new CoverageMap();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    for (Action action : State.STATEMENT_EXECUTED.actionCandidates()) {
+                        coverage.record(State.STATEMENT_EXECUTED, action, null);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int actions = State.STATEMENT_EXECUTED.actionCandidates().length;
+        assertEquals(actions, coverage.getEdges());
+        assertEquals(80_000, coverage.getAttempts(State.STATEMENT_EXECUTED, Action.CREATE_TABLE));
+    }
+}
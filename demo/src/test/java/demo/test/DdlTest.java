@@ -0,0 +1,57 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class DdlTest {
+    @Test
+    public void testCreateReplacesExistingObjects() throws Exception {
+        recreate(false);
+    }
+
+    @Test
+    public void testBatchedCreateReplacesExistingObjects() throws Exception {
+        recreate(true);
+    }
+
+    private static void recreate(boolean batched) throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "ddl_" + batched);
+        testUtil.setBatchedDdl(batched);
+        Connection con = testUtil.openConnection();
+        try {
+            testUtil.createSchema(con, "s");
+            testUtil.createSchema(con, "s");
+            testUtil.createTable(con, "s.t", "a INTEGER");
+            testUtil.createTable(con, "s.t", "a INTEGER, b VARCHAR");
+            testUtil.createView(con, "v", "SELECT b FROM s.t");
+            testUtil.createView(con, "v", "SELECT a, b FROM s.t");
+            try (Statement stmt = con.createStatement()) {
+                stmt.executeUpdate("INSERT INTO s.t VALUES (1, 'x')");
+                try (ResultSet rs = stmt.executeQuery("SELECT a, b FROM v")) {
+                    assertTrue(rs.next());
+                    assertEquals(1, rs.getInt(1));
+                    assertEquals("x", rs.getString(2));
+                }
+            }
+            try {
+                testUtil.createTable(con, "s.u", "a NO_SUCH_TYPE");
+                throw new AssertionError("created a table with an unknown type");
+            } catch (SQLException expected) {
+                // the failing CREATE is reported either way
+            }
+        } finally {
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import demo.campaign.CampaignConfig;
+import demo.campaign.Differential;
+import demo.util.TestDbms;
+
+public class DifferentialTest {
+    @Test
+    public void testSameBackendNeverDiverges() throws Exception {
+        CampaignConfig config = new CampaignConfig()
+                .setDurationSeconds(0)
+                .setMaxWalks(30)
+                .setSeed(0xd1ff);
+        try (Differential differential = new Differential(config, TestDbms.DUCKDB, TestDbms.DUCKDB)) {
+            differential.run();
+            assertEquals(30, differential.getWalks());
+            assertEquals(0, differential.getDivergentWalks());
+        }
+    }
+}
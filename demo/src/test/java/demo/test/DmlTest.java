@@ -0,0 +1,163 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import demo.ColumnValues;
+import demo.DataType;
+import demo.Dml;
+import demo.GlobalInfo;
+import demo.Randomly;
+import demo.Schema.Column;
+import demo.Schema.Table;
+import demo.WalkerInfo;
+import demo.state.Action;
+import demo.state.State;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class DmlTest {
+    private static Table table(String name, DataType... types) {
+        List<Column> columns = new ArrayList<>();
+        for (DataType type : types) {
+            columns.add(new Column("c_" + type.name().toLowerCase(), type));
+        }
+        return new Table(name, columns);
+    }
+
+    private static long count(Statement stmt, String sql) throws Exception {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    @Test
+    public void testSqlAndLiterals() {
+        Table t = table("t", DataType.INT, DataType.TEXT);
+        Randomly random = new Randomly(1);
+        for (int i = 0; i < 100; i++) {
+            for (Dml.Kind kind : Dml.Kind.values()) {
+                Dml dml = Dml.generate(kind, t, random, TestDbms.POSTGRES);
+                String sql = dml.getSql();
+                assertTrue(sql, sql.startsWith(kind == Dml.Kind.DELETE ? "DELETE FROM t" : kind.name()));
+                assertEquals(sql, dml.getParameterCount(), sql.length() - sql.replace("?", "").length());
+                assertEquals(kind == Dml.Kind.SELECT, dml.getResultTypes().length > 0);
+                if (dml.getParameterCount() == 0) {
+                    assertEquals(sql, dml.getLiteralSql());
+                }
+            }
+        }
+    }
+
+    /**
+     * The same statements with parameters and with literals change and return the
+     * same rows. Without FLOAT, a literal such as 0.1 is a double and does not
+     * compare equal to the REAL 0.1f a parameter binds.
+     */
+    @Test
+    public void testPreparedAndPlainAgree() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "dml");
+        GlobalInfo.bind(new WalkerInfo(TestDbms.DUCKDB, testUtil));
+        Connection con = testUtil.openConnection();
+        try {
+            List<DataType> types = new ArrayList<>(Arrays.asList(DataType.values()));
+            types.remove(DataType.FLOAT);
+            Table t = table("t", types.toArray(new DataType[0]));
+            testUtil.createTable(con, t.getName(), t.columnsToString());
+            Randomly random = new Randomly(2);
+            for (int i = 0; i < 50; i++) {
+                testUtil.executeDml(con, Dml.insert(t, random, TestDbms.DUCKDB), i % 2 == 0);
+            }
+            try (Statement stmt = con.createStatement()) {
+                assertTrue(count(stmt, "SELECT count(*) FROM t") >= 50);
+            }
+
+            con.setAutoCommit(false);
+            for (int i = 0; i < 100; i++) {
+                for (Dml.Kind kind : new Dml.Kind[] { Dml.Kind.SELECT, Dml.Kind.UPDATE, Dml.Kind.DELETE }) {
+                    Dml dml = Dml.generate(kind, t, random, TestDbms.DUCKDB);
+                    long prepared = testUtil.executeDml(con, dml, true);
+                    con.rollback();
+                    assertEquals(dml.toString(), prepared, testUtil.executeDml(con, dml, false));
+                    con.rollback();
+                }
+            }
+        } finally {
+            GlobalInfo.unbind();
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    /**
+     * A \ is an escape character in a MySQL string literal, and a plain character
+     * elsewhere.
+     */
+    @Test
+    public void testBackslashLiteralsRoundTrip() throws Exception {
+        ColumnValues strings = new ColumnValues(DataType.VARCHAR, 3);
+        strings.strings()[0] = "\\";
+        strings.strings()[1] = "a\\'b";
+        strings.strings()[2] = "\\n\\\\";
+        assertEquals("'\\\\'", strings.toLiteral(0, TestDbms.MYSQL));
+        assertEquals("'a\\\\''b'", strings.toLiteral(1, TestDbms.MYSQL));
+        assertEquals("'a\\''b'", strings.toLiteral(1, TestDbms.POSTGRES));
+
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "dml_backslash");
+        Connection con = testUtil.openConnection();
+        try (Statement stmt = con.createStatement()) {
+            for (int row = 0; row < strings.size(); row++) {
+                try (ResultSet rs = stmt.executeQuery("SELECT " + strings.toLiteral(row, TestDbms.DUCKDB))) {
+                    assertTrue(rs.next());
+                    assertEquals(strings.strings()[row], rs.getString(1));
+                }
+            }
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    @Test
+    public void testActions() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "dml_actions");
+        WalkerInfo info = new WalkerInfo(TestDbms.DUCKDB, testUtil);
+        info.setVerbose(false);
+        GlobalInfo.bind(info);
+        Connection con = testUtil.openConnection();
+        try {
+            Table t = table("t", DataType.values());
+            testUtil.createTable(con, t.getName(), t.columnsToString());
+            info.setBasicConnection(con);
+            info.addNewTable(con, t);
+            info.getRandom().setSeed(3);
+            List<State> dmlStates = Arrays.asList(State.ROWS_INSERTED, State.ROWS_UPDATED, State.ROWS_DELETED,
+                    State.ROWS_SELECTED);
+            for (int i = 0; i < 40; i++) {
+                Action action = Action.values()[Action.INSERT_ROWS.ordinal() + i % 4];
+                info.getStateMachine().advanceState(State.STATEMENT_EXECUTED);
+                action.invoke();
+                State state = info.getStateMachine().getCurrentState();
+                assertNotEquals(action + ": " + info.getStateMachine().getException(), State.EXCEPTION, state);
+                assertTrue(state.toString(), dmlStates.contains(state) || state == State.STATEMENT_EXECUTED
+                        || state == State.CONNECTION_OPENED || state == State.CONNECTION_CLOSED);
+            }
+        } finally {
+            GlobalInfo.unbind();
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+import demo.campaign.ExceptionIndex;
+import demo.state.Action;
+import demo.util.TestDbms;
+
+public class ExceptionIndexTest {
+    @Test
+    public void testSameFailureWithDifferentNamesSharesABucket() {
+        ExceptionIndex index = new ExceptionIndex();
+        ExceptionIndex.Bucket first = index.record(TestDbms.DUCKDB, Action.DROP_TABLE,
+                fail("Table with name \"t12\" does not exist!", "42P01"));
+        ExceptionIndex.Bucket second = index.record(TestDbms.DUCKDB, Action.DROP_TABLE,
+                fail("Table with name \"t7\" does not exist!", "42P01"));
+        assertSame(first, second);
+        assertEquals(2, first.getHits());
+        assertEquals("Table with name ? does not exist!", first.getMessage());
+
+        // any other part of the signature makes a new bucket
+        assertNotSame(first, index.record(TestDbms.POSTGRES, Action.DROP_TABLE,
+                fail("Table with name \"t7\" does not exist!", "42P01")));
+        assertNotSame(first, index.record(TestDbms.DUCKDB, Action.DROP_SCHEMA,
+                fail("Table with name \"t7\" does not exist!", "42P01")));
+        assertNotSame(first, index.record(TestDbms.DUCKDB, Action.DROP_TABLE,
+                fail("Table with name \"t7\" does not exist!", "42000")));
+        assertEquals(4, index.size());
+        assertSame(first, index.buckets().get(0));
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("relation ? already exists", ExceptionIndex.normalize("relation \"t_3\" already exists"));
+        assertEquals("limit N exceeded at #", ExceptionIndex.normalize("limit 1024 exceeded at 0x7f3a"));
+        assertEquals("", ExceptionIndex.normalize(null));
+    }
+
+    private static SQLException fail(String message, String sqlState) {
+        // same call site, so the same stack frames
+        return new SQLException(message, sqlState);
+    }
+}
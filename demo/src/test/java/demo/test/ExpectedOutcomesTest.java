@@ -0,0 +1,69 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import demo.campaign.Campaign;
+import demo.campaign.CampaignConfig;
+import demo.campaign.CampaignStats;
+import demo.campaign.ExceptionIndex;
+import demo.state.Action;
+import demo.state.ExpectedOutcomes;
+import demo.state.State;
+import demo.util.TestDbms;
+
+public class ExpectedOutcomesTest {
+    @Test
+    public void testRules() {
+        ExpectedOutcomes oracle = ExpectedOutcomes.parse(Arrays.asList(
+                "# comment",
+                "POSTGRES * DROP_TABLE 42P01",
+                "* STATEMENT_EXECUTED create_function 42  # any syntax or access error",
+                "DUCKDB * OPEN_PRIVILEGED_CONNECTION -"));
+        SQLException undefinedTable = new SQLException("no such table", "42P01");
+        assertTrue(oracle.isExpected(TestDbms.POSTGRES, State.STATEMENT_EXECUTED, Action.DROP_TABLE, undefinedTable));
+        assertFalse(oracle.isExpected(TestDbms.DUCKDB, State.STATEMENT_EXECUTED, Action.DROP_TABLE, undefinedTable));
+        assertFalse(oracle.isExpected(TestDbms.POSTGRES, State.STATEMENT_EXECUTED, Action.DROP_TABLE,
+                new SQLException("no such schema", "3F000")));
+
+        assertTrue(oracle.isExpected(TestDbms.MYSQL, State.STATEMENT_EXECUTED, Action.CREATE_FUNCTION,
+                new SQLException("syntax error", "42601")));
+        assertFalse(oracle.isExpected(TestDbms.MYSQL, State.CONNECTION_OPENED, Action.CREATE_FUNCTION,
+                new SQLException("syntax error", "42601")));
+
+        assertTrue(oracle.isExpected(TestDbms.DUCKDB, State.CONNECTION_OPENED, Action.OPEN_PRIVILEGED_CONNECTION,
+                new UnsupportedOperationException()));
+        assertFalse(oracle.isExpected(TestDbms.DUCKDB, State.CONNECTION_OPENED, Action.OPEN_PRIVILEGED_CONNECTION,
+                new SQLException("io error", "58030")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownActionIsRejected() {
+        ExpectedOutcomes.parse(Collections.singletonList("* * DROP_TABLES 42P01"));
+    }
+
+    @Test
+    public void testExpectedExceptionsAreOnlyCounted() throws Exception {
+        Campaign campaign = new Campaign(new CampaignConfig()
+                .setTestDbms(TestDbms.DUCKDB)
+                .setWalkers(1)
+                .setDurationSeconds(0)
+                .setMaxWalks(20)
+                .setOracle("expected-outcomes.txt"));
+        CampaignStats stats = campaign.run();
+        assertTrue(stats.getExpectedExceptions() > 0);
+        // only unexpected exceptions are bucketed
+        long bucketed = 0;
+        for (ExceptionIndex.Bucket bucket : campaign.getExceptions().buckets()) {
+            bucketed += bucket.getHits();
+        }
+        assertEquals(stats.getUnexpectedExceptions(), bucketed);
+    }
+}
@@ -0,0 +1,77 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+
+import org.junit.Test;
+
+import demo.GlobalInfo;
+import demo.WalkerInfo;
+import demo.state.Action;
+import demo.state.State;
+import demo.util.FetchMode;
+import demo.util.FetchStats;
+import demo.util.MySqlTestUtil;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class FetchTest {
+    @Test
+    public void testEveryModeReadsAllRows() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "fetch");
+        Connection con = testUtil.openConnection();
+        try {
+            String sql = testUtil.seriesQuery(20_000, 20);
+            for (FetchMode mode : testUtil.fetchModes()) {
+                long queries = FetchStats.getQueries(mode);
+                long rows = FetchStats.getRows(mode);
+                assertEquals(mode.name(), 20_000, testUtil.streamQuery(con, sql, mode, 100));
+                assertEquals(queries + 1, FetchStats.getQueries(mode));
+                assertEquals(rows + 20_000, FetchStats.getRows(mode));
+                // a cursor is closed with its transaction
+                assertTrue(con.getAutoCommit());
+            }
+            assertTrue(FetchStats.summary().contains("CURSOR"));
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    @Test
+    public void testMySqlSeriesQuery() {
+        MySqlTestUtil testUtil = new MySqlTestUtil();
+        assertEquals("SELECT 1 AS i, REPEAT('x', 3) LIMIT 1", testUtil.seriesQuery(1, 3));
+        String sql = testUtil.seriesQuery(250, 0);
+        assertTrue(sql, sql.startsWith("SELECT 1 + d0.i * 1 + d1.i * 10 + d2.i * 100 AS i, REPEAT('x', 0) FROM "));
+        assertTrue(sql, sql.endsWith(" d2 LIMIT 250"));
+        assertTrue(testUtil.fetchModes().contains(FetchMode.STREAMING));
+    }
+
+    @Test
+    public void testAction() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "fetch_action");
+        WalkerInfo info = new WalkerInfo(TestDbms.DUCKDB, testUtil);
+        info.setVerbose(false);
+        GlobalInfo.bind(info);
+        Connection con = testUtil.openConnection();
+        try {
+            info.setBasicConnection(con);
+            info.getRandom().setSeed(4);
+            for (int i = 0; i < 5; i++) {
+                info.getStateMachine().advanceState(State.STATEMENT_EXECUTED);
+                Action.STREAM_QUERY.invoke();
+                assertNotEquals(String.valueOf(info.getStateMachine().getException()), State.EXCEPTION,
+                        info.getStateMachine().getCurrentState());
+            }
+        } finally {
+            GlobalInfo.unbind();
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
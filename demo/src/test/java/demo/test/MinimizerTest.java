@@ -0,0 +1,59 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import demo.campaign.Campaign;
+import demo.campaign.CampaignConfig;
+import demo.campaign.Minimizer;
+import demo.campaign.Replay;
+import demo.campaign.WalkTrace;
+import demo.util.TestDbms;
+
+public class MinimizerTest {
+    @Test
+    public void testMinimizedWalkFailsTheSameWay() throws Exception {
+        File traceFile = File.createTempFile("walks", ".txt");
+        traceFile.deleteOnExit();
+        CampaignConfig config = new CampaignConfig()
+                .setTestDbms(TestDbms.DUCKDB)
+                .setWalkers(1)
+                .setDurationSeconds(0)
+                .setMaxWalks(50)
+                .setSeed(0xdd)
+                .setTraceFile(traceFile.getPath());
+        new Campaign(config).run();
+
+        // the longest failing walk has the most to remove
+        WalkTrace longest = null;
+        for (String line : Files.readAllLines(traceFile.toPath(), StandardCharsets.UTF_8)) {
+            WalkTrace trace = WalkTrace.decode(line);
+            if (longest == null || trace.length() > longest.length()) {
+                longest = trace;
+            }
+        }
+        assertNotNull(longest);
+
+        int target = longest.length() - 1;
+        while (longest.getOutcome(target) == null) {
+            target--;
+        }
+        WalkTrace minimized;
+        try (Minimizer minimizer = new Minimizer(TestDbms.DUCKDB, 4)) {
+            minimized = minimizer.minimize(longest, target);
+        }
+        int last = minimized.length() - 1;
+        assertTrue(minimized.length() <= target + 1);
+        assertEquals(longest.getAction(target), minimized.getAction(last));
+        assertEquals(longest.getOutcome(target), minimized.getOutcome(last));
+        WalkTrace replayed = Replay.replay(minimized, TestDbms.DUCKDB, false);
+        assertEquals(-1, minimized.firstDivergence(replayed));
+    }
+}
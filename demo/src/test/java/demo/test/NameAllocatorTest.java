@@ -0,0 +1,49 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import demo.NameAllocator;
+
+public class NameAllocatorTest {
+    @Test
+    public void testNextFree() {
+        NameAllocator names = new NameAllocator("table_");
+        for (int i = 0; i < 1000; i++) {
+            String name = names.next(0);
+            assertEquals("table_" + i, name);
+            // not taken until added
+            assertEquals(name, names.next(0));
+            assertTrue(names.add(name));
+        }
+        assertFalse(names.add("TABLE_5"));
+        assertTrue(names.contains("Table_999"));
+
+        assertTrue(names.remove("TABLE_500"));
+        assertEquals("table_500", names.next(0));
+        assertEquals("table_1000", names.next(501));
+        names.add("table_500");
+
+        // a random offset skips over the names in use after it
+        names.clear();
+        names.add("table_50");
+        names.add("table_51");
+        assertEquals("table_52", names.next(50));
+        assertEquals("table_0", names.next(0));
+        assertFalse(names.remove("table_52"));
+        assertFalse(names.remove("other"));
+    }
+
+    @Test
+    public void testCaseInsensitive() {
+        NameAllocator names = new NameAllocator("column_");
+        names.add("COLUMN_0");
+        names.add("Column_1");
+        assertEquals("column_2", names.next(0));
+        names.remove("column_0");
+        assertEquals("column_0", names.next(0));
+    }
+}
@@ -0,0 +1,81 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import demo.GlobalInfo;
+import demo.Randomly;
+import demo.WalkerInfo;
+import demo.util.TestDbms;
+import demo.util.TestUtilFactory;
+
+public class RandomlyTest {
+    @Test
+    public void testSameSeedSameStream() {
+        Randomly a = new Randomly(42);
+        Randomly b = new Randomly(42);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+        a.setSeed(7);
+        Randomly c = new Randomly(7);
+        assertEquals(c.nextLong(-5, 5), a.nextLong(-5, 5));
+        assertNotEquals(new Randomly(1).nextLong(), new Randomly(2).nextLong());
+    }
+
+    @Test
+    public void testSplitIsDeterministic() {
+        Randomly a = new Randomly(42).split();
+        Randomly b = new Randomly(42).split();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+        Randomly parent = new Randomly(42);
+        Randomly child = parent.split();
+        assertNotEquals(parent.nextLong(), child.nextLong());
+    }
+
+    @Test
+    public void testBounds() {
+        Randomly random = new Randomly(3);
+        int[] hits = new int[10];
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            hits[random.nextInt(0, 10)]++;
+            long l = random.nextLong(-3, 1000);
+            assertTrue(l >= -3 && l < 1000);
+            long wide = random.nextLong(Long.MIN_VALUE + 1, Long.MAX_VALUE);
+            assertTrue(wide > Long.MIN_VALUE && wide < Long.MAX_VALUE);
+            double d = random.nextDouble();
+            assertTrue(d >= 0 && d < 1);
+        }
+        for (int hit : hits) {
+            assertEquals(0.1, hit / (double) samples, 0.01);
+        }
+        assertEquals(5, random.nextLong(5, 5));
+    }
+
+    @Test
+    public void testWalkerHasItsOwnGenerator() {
+        Randomly unbound = new Randomly(1);
+        Randomly.setCurrent(unbound);
+        assertSame(unbound, Randomly.current());
+
+        WalkerInfo info = new WalkerInfo(TestDbms.DUCKDB, TestUtilFactory.create(TestDbms.DUCKDB));
+        GlobalInfo.bind(info);
+        try {
+            assertSame(info.getRandom(), Randomly.current());
+            info.getRandom().setSeed(42);
+            long first = Randomly.getNotCachedInteger(0, 1_000_000);
+            info.getRandom().setSeed(42);
+            assertEquals(first, Randomly.getNotCachedInteger(0, 1_000_000));
+        } finally {
+            GlobalInfo.unbind();
+        }
+        assertSame(unbound, Randomly.current());
+    }
+}
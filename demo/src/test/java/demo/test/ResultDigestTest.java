@@ -0,0 +1,145 @@
+package demo.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import demo.DataType;
+import demo.util.ResultDigest;
+import demo.util.ResultSpill;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class ResultDigestTest {
+    private static long[] murmur3(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        long[] hash = new long[2];
+        ResultDigest.murmur3(bytes, bytes.length, hash);
+        return hash;
+    }
+
+    @Test
+    public void testMurmur3() {
+        assertArrayEquals(new long[] { 0, 0 }, murmur3(""));
+        assertArrayEquals(new long[] { 0xcbd8a7b341bd9b02L, 0x5b1e906a48ae1d19L }, murmur3("hello"));
+        assertArrayEquals(new long[] { 0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L },
+                murmur3("The quick brown fox jumps over the lazy dog"));
+    }
+
+    private static ResultDigest digest(TestUtil testUtil, Connection con, String sql, ResultDigest digest)
+            throws Exception {
+        testUtil.digestQuery(con, sql, null, digest);
+        return digest;
+    }
+
+    @Test
+    public void testOrderAndTypes() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "digest");
+        Connection con = testUtil.openConnection();
+        try (Statement stmt = con.createStatement()) {
+            stmt.execute("CREATE TABLE t (i INT, b BOOLEAN, f REAL, d DOUBLE, s VARCHAR, dt DATE, ts TIMESTAMP)");
+            stmt.execute("INSERT INTO t VALUES"
+                    + " (1, true, -0.0, 0.5, 'a', DATE '2000-01-01', TIMESTAMP '2000-01-01 00:00:01.5'),"
+                    + " (2, NULL, 1.5, NULL, 'b\tc', NULL, NULL), (2, NULL, 1.5, NULL, 'b\tc', NULL, NULL),"
+                    + " (NULL, false, 0.0, -0.0, '', DATE '1969-12-31', NULL)");
+            String asc = "SELECT * FROM t ORDER BY i NULLS FIRST";
+            String desc = "SELECT * FROM t ORDER BY i DESC NULLS LAST";
+            ResultDigest a = digest(testUtil, con, asc, new ResultDigest(false));
+            assertEquals(4, a.getRows());
+            assertEquals(a, digest(testUtil, con, desc, new ResultDigest(false)));
+            assertNotEquals(digest(testUtil, con, asc, new ResultDigest(true)),
+                    digest(testUtil, con, desc, new ResultDigest(true)));
+            assertEquals(digest(testUtil, con, asc, new ResultDigest(true)),
+                    digest(testUtil, con, asc, new ResultDigest(true)));
+            // a duplicate row counts
+            assertNotEquals(a, digest(testUtil, con, "SELECT DISTINCT * FROM t", new ResultDigest(false)));
+
+            // normalized by the DataType: a BIGINT is an INT, -0.0 is 0.0, TEXT is VARCHAR
+            assertEquals(digest(testUtil, con, "SELECT i, f FROM t WHERE i = 1", new ResultDigest(false)),
+                    digest(testUtil, con, "SELECT CAST(1 AS BIGINT), CAST(0.0 AS REAL)", new ResultDigest(false)));
+            ResultDigest text = new ResultDigest(false);
+            testUtil.digestQuery(con, "SELECT s FROM t", new DataType[] { DataType.TEXT }, text);
+            assertEquals(digest(testUtil, con, "SELECT s FROM t", new ResultDigest(false)), text);
+            // NULL differs from every value, in every column
+            assertNotEquals(digest(testUtil, con, "SELECT NULL::INT, 0", new ResultDigest(false)),
+                    digest(testUtil, con, "SELECT 0, NULL::INT", new ResultDigest(false)));
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    @Test
+    public void testSpillFindsDifferingRows() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "digest_spill");
+        Connection con = testUtil.openConnection();
+        String series = "SELECT i, 'row ' || i FROM generate_series(1, 3000) AS s(i)";
+        String changed = "SELECT i, CASE WHEN i = 1234 THEN 'changed' ELSE 'row ' || i END"
+                + " FROM generate_series(1, 3000) AS s(i) ORDER BY i DESC";
+        try {
+            for (boolean ordered : new boolean[] { false, true }) {
+                try (ResultSpill x = new ResultSpill(ordered, 299); ResultSpill y = new ResultSpill(ordered, 299);
+                        ResultSpill z = new ResultSpill(ordered, 299)) {
+                    ResultDigest a = digest(testUtil, con, series, new ResultDigest(ordered, x));
+                    ResultDigest b = digest(testUtil, con, changed, new ResultDigest(ordered, y));
+                    digest(testUtil, con, series, new ResultDigest(ordered, z));
+                    assertEquals(a, digest(testUtil, con, series, new ResultDigest(ordered)));
+                    assertNotEquals(a, b);
+                    assertEquals(3000, x.getRows());
+                    assertTrue(ResultSpill.compare(x, z, 10).isEmpty());
+
+                    ResultSpill.Diff diff = ResultSpill.compare(x, y, 10);
+                    if (ordered) {
+                        // every position differs, in reverse
+                        assertEquals(1, x.getFiles());
+                        assertEquals(3000, diff.getOnlyInFirst());
+                        assertEquals(10, diff.getLines().size());
+                        assertEquals("1 < 1\trow 1", diff.getLines().get(0));
+                        assertEquals("1 > 3000\trow 3000", diff.getLines().get(1));
+                    } else {
+                        assertEquals(11, x.getFiles());
+                        assertEquals(1, diff.getOnlyInFirst());
+                        assertEquals(1, diff.getOnlyInSecond());
+                        diff.getLines().sort(null);
+                        assertEquals(Arrays.asList("< 1234\trow 1234", "> 1234\tchanged"), diff.getLines());
+                    }
+                }
+            }
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    @Test
+    public void testSpillMergesRunsDownToFanIn() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "digest_fan_in");
+        Connection con = testUtil.openConnection();
+        String series = "SELECT i, 'row ' || i FROM generate_series(1, 3000) AS s(i)";
+        String changed = "SELECT i, CASE WHEN i = 1234 THEN 'changed' ELSE 'row ' || i END"
+                + " FROM generate_series(1, 3000) AS s(i) ORDER BY i DESC";
+        try (ResultSpill x = new ResultSpill(false, 299, 4); ResultSpill y = new ResultSpill(false, 100_000, 4)) {
+            digest(testUtil, con, series, new ResultDigest(false, x));
+            digest(testUtil, con, changed, new ResultDigest(false, y));
+            ResultSpill.Diff diff = ResultSpill.compare(x, y, 10);
+            // 11 runs, merged 4 at a time: 8, 5, 2
+            assertEquals(2, x.getFiles());
+            assertEquals(1, diff.getOnlyInFirst());
+            assertEquals(1, diff.getOnlyInSecond());
+            diff.getLines().sort(null);
+            assertEquals(Arrays.asList("< 1234\trow 1234", "> 1234\tchanged"), diff.getLines());
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
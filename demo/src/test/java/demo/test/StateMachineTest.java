@@ -13,12 +13,12 @@ public class StateMachineTest {
         for (int i = 0; i < 100; i++) {
 
             GlobalInfo.setTestDbms(TestDbms.POSTGRES);
-            GlobalInfo.stateMachine.showCurrentState();
-            while (GlobalInfo.stateMachine.getCurrentState() != State.FINAL) {
-                GlobalInfo.stateMachine.selectAction();
-                System.out.println("\t Perform Action: " + GlobalInfo.stateMachine.getCurrentAction());
-                GlobalInfo.stateMachine.getCurrentAction().invoke();
-                GlobalInfo.stateMachine.showCurrentState();
+            GlobalInfo.getStateMachine().showCurrentState();
+            while (GlobalInfo.getStateMachine().getCurrentState() != State.FINAL) {
+                GlobalInfo.getStateMachine().selectAction();
+                System.out.println("\t Perform Action: " + GlobalInfo.getStateMachine().getCurrentAction());
+                GlobalInfo.getStateMachine().getCurrentAction().invoke();
+                GlobalInfo.getStateMachine().showCurrentState();
             }
         }
     }
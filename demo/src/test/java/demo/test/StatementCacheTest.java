@@ -0,0 +1,80 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.Test;
+
+import demo.util.StatementCache;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class StatementCacheTest {
+    @Test
+    public void testReusesStatements() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "statement_cache");
+        Connection con = testUtil.openConnection();
+        try {
+            StatementCache cache = testUtil.statementCache(con);
+            assertSame(cache, testUtil.statementCache(con));
+            long hits = StatementCache.getHits();
+
+            testUtil.createTable(con, "t", "a INTEGER");
+            testUtil.createTable(con, "t", "a INTEGER");
+            Statement stmt = cache.statement();
+            assertFalse(stmt.isClosed());
+
+            PreparedStatement insert = cache.prepare("INSERT INTO t VALUES (?)");
+            for (int i = 0; i < 3; i++) {
+                PreparedStatement cached = cache.prepare("INSERT INTO t VALUES (?)");
+                assertSame(insert, cached);
+                cached.setInt(1, i);
+                cached.executeUpdate();
+            }
+            try (ResultSet rs = cache.statement().executeQuery("SELECT count(*) FROM t")) {
+                assertTrue(rs.next());
+                assertEquals(3, rs.getInt(1));
+            }
+            assertTrue(StatementCache.getHits() - hits >= 5);
+
+            testUtil.closeStatements(con);
+            assertTrue(stmt.isClosed());
+            assertTrue(insert.isClosed());
+            assertNotSame(cache, testUtil.statementCache(con));
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "statement_cache_lru");
+        Connection con = testUtil.openConnection();
+        StatementCache cache = new StatementCache(con, 2);
+        try {
+            PreparedStatement one = cache.prepare("SELECT 1");
+            PreparedStatement two = cache.prepare("SELECT 2");
+            // SELECT 2 is now the least recently used one
+            assertSame(one, cache.prepare("SELECT 1"));
+            long evictions = StatementCache.getEvictions();
+            cache.prepare("SELECT 3");
+            assertEquals(2, cache.size());
+            assertEquals(evictions + 1, StatementCache.getEvictions());
+            assertTrue(two.isClosed());
+            assertSame(one, cache.prepare("SELECT 1"));
+        } finally {
+            cache.close();
+            TestUtil.closeQuietly(con);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import demo.Randomly;
+import demo.state.Action;
+import demo.state.AliasTable;
+import demo.state.State;
+import demo.state.TransitionGraph;
+import demo.state.TransitionWeights;
+
+public class TransitionGraphTest {
+    @Test
+    public void testAliasTableFollowsWeights() {
+        Randomly.setCurrent(new Randomly(42));
+        AliasTable table = new AliasTable(new double[] { 1, 0, 3, 6 });
+        int[] hits = new int[4];
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            hits[table.sample(Randomly.getUniformDouble())]++;
+        }
+        assertEquals(0, hits[1]);
+        assertEquals(0.1, hits[0] / (double) samples, 0.01);
+        assertEquals(0.3, hits[2] / (double) samples, 0.01);
+        assertEquals(0.6, hits[3] / (double) samples, 0.01);
+    }
+
+    @Test
+    public void testWeightsSteerActionsAndTransitions() {
+        Randomly.setCurrent(new Randomly(42));
+        TransitionGraph graph = new TransitionGraph(TransitionWeights.parse(
+                "CREATE_TABLE=12, DROP_TABLE=12, STATEMENT_EXECUTED/DROP_VIEW=0,"
+                        + " STATEMENT_EXECUTED>CONNECTION_CLOSED=0"));
+        int tableActions = 0;
+        int samples = 100_000;
+        for (int i = 0; i < samples; i++) {
+            Action action = graph.selectAction(State.STATEMENT_EXECUTED);
+            assertNotEquals(Action.DROP_VIEW, action);
+            if (action == Action.CREATE_TABLE || action == Action.DROP_TABLE) {
+                tableActions++;
+            }
+            assertNotEquals(State.CONNECTION_CLOSED, graph.nextState(State.STATEMENT_EXECUTED));
+        }
+        // 24 out of 24 + 12 remaining actions
+        assertEquals(24.0 / 36, tableActions / (double) samples, 0.01);
+        assertNull(graph.selectAction(State.FINAL));
+        assertNull(graph.nextState(State.FINAL));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStateWithoutPositiveWeightIsRejected() {
+        new TransitionGraph(TransitionWeights.parse("HANDLE_EXCEPTION=0"));
+    }
+}
@@ -0,0 +1,136 @@
+package demo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import demo.ColumnValues;
+import demo.DataType;
+import demo.Randomly;
+import demo.ValueGenerator;
+import demo.util.TestDbms;
+import demo.util.TestUtil;
+import demo.util.TestUtilFactory;
+
+public class ValueGeneratorTest {
+    @Test
+    public void testSameSeedSameValues() {
+        for (DataType type : DataType.values()) {
+            ValueGenerator generator = ValueGenerator.of(type, TestDbms.POSTGRES, 10);
+            assertSame(generator, ValueGenerator.of(type, TestDbms.POSTGRES, 10));
+            ColumnValues a = generator.generate(new Randomly(42), 1000);
+            ColumnValues b = generator.generate(new Randomly(42), 1000);
+            for (int row = 0; row < 1000; row++) {
+                assertEquals(a.isNull(row), b.isNull(row));
+                assertEquals(a.toLiteral(row, TestDbms.POSTGRES), b.toLiteral(row, TestDbms.POSTGRES));
+            }
+        }
+    }
+
+    @Test
+    public void testIntsBoundariesAndCache() {
+        int rows = 1_000_000;
+        ColumnValues values = ValueGenerator.of(DataType.INT, TestDbms.DUCKDB).generate(new Randomly(1), rows);
+        int[] ints = values.ints();
+        int min = 0;
+        int max = 0;
+        Set<Integer> distinct = new HashSet<>();
+        for (int row = 0; row < rows; row++) {
+            assertTrue(!values.isNull(row));
+            min = Math.min(min, ints[row]);
+            max = Math.max(max, ints[row]);
+            distinct.add(ints[row]);
+        }
+        assertEquals(Integer.MIN_VALUE, min);
+        assertEquals(Integer.MAX_VALUE, max);
+        // a few small numbers, cached and boundary values come up again and again
+        assertTrue(distinct.size() < rows * 0.6);
+    }
+
+    @Test
+    public void testRanges() {
+        Randomly random = new Randomly(7);
+        int rows = 100_000;
+        int[] days = ValueGenerator.of(DataType.DATE, TestDbms.MYSQL).generate(random, rows).ints();
+        long minDay = LocalDate.of(1000, 1, 1).toEpochDay();
+        long maxDay = LocalDate.of(9999, 12, 31).toEpochDay();
+        for (int day : days) {
+            assertTrue(day >= minDay && day <= maxDay);
+        }
+        for (long micros : ValueGenerator.of(DataType.TIME, TestDbms.MYSQL).generate(random, rows).longs()) {
+            assertTrue(micros >= 0 && micros < 86_400_000_000L);
+        }
+        for (double d : ValueGenerator.of(DataType.DOUBLE, TestDbms.MYSQL).generate(random, rows).doubles()) {
+            assertTrue(Math.abs(d) <= 99999999.99);
+        }
+        for (String s : ValueGenerator.of(DataType.VARCHAR, TestDbms.MYSQL).generate(random, rows).strings()) {
+            assertTrue(s.length() <= 255);
+        }
+        boolean[] nulls = ValueGenerator.of(DataType.BOOLEAN, TestDbms.MYSQL, 50).generate(random, rows).nulls();
+        int count = 0;
+        for (boolean isNull : nulls) {
+            count += isNull ? 1 : 0;
+        }
+        assertEquals(0.5, count / (double) rows, 0.01);
+    }
+
+    @Test
+    public void testCacheIsPartOfTheWalk() {
+        Randomly random = new Randomly(3);
+        assertTrue(!random.hasCached(DataType.TEXT));
+        ValueGenerator.of(DataType.TEXT, TestDbms.DUCKDB).generate(random, 100);
+        assertTrue(random.hasCached(DataType.TEXT));
+        random.setSeed(3);
+        assertTrue(!random.hasCached(DataType.TEXT));
+    }
+
+    @Test
+    public void testInsertEveryType() throws Exception {
+        TestUtil testUtil = TestUtilFactory.createIsolated(TestDbms.DUCKDB, "value_generator");
+        Connection con = testUtil.openConnection();
+        try {
+            Randomly random = new Randomly(11);
+            int rows = 200;
+            // one commit per type rather than per row
+            con.setAutoCommit(false);
+            for (DataType type : DataType.values()) {
+                String table = "t_" + type.name().toLowerCase();
+                // the DuckDB names of the types, without a bound walker
+                String sqlType = type == DataType.FLOAT ? "REAL" : type == DataType.DATETIME ? "TIMESTAMP" : type.name();
+                testUtil.createTable(con, table, "c0 " + sqlType);
+                ColumnValues values = ValueGenerator.of(type, TestDbms.DUCKDB, 5).generate(random, rows);
+                try (PreparedStatement ps = con.prepareStatement("INSERT INTO " + table + " VALUES (?)")) {
+                    // the DuckDB driver has no batches
+                    for (int row = 0; row < rows; row++) {
+                        values.bind(ps, 1, row);
+                        assertEquals(type.name(), 1, ps.executeUpdate());
+                    }
+                }
+                try (Statement stmt = con.createStatement()) {
+                    for (int row = 0; row < 50; row++) {
+                        stmt.execute("INSERT INTO " + table + " VALUES (" + values.toLiteral(row, TestDbms.DUCKDB)
+                                + ")");
+                    }
+                    try (ResultSet rs = stmt.executeQuery("SELECT count(*) FROM " + table)) {
+                        assertTrue(rs.next());
+                        assertEquals(type.name(), rows + 50, rs.getInt(1));
+                    }
+                }
+                con.commit();
+            }
+        } finally {
+            testUtil.closeStatements(con);
+            TestUtil.closeQuietly(con);
+        }
+    }
+}